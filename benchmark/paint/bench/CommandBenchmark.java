@@ -0,0 +1,78 @@
+package paint.bench;
+
+import paint.app.Clipboard;
+import paint.app.PaintModel;
+import paint.shapes.Drawable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures undoable commands and the clipboard on a large document.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandBenchmark {
+    @Param({"10000"})
+    public int shapes;
+
+    @Param({"10", "1000"})
+    public int selected;
+
+    private PaintModel model;
+    private Drawable extra;
+    private List<Drawable> selection;
+
+    @Setup
+    public void setup() {
+        model = new DocumentGenerator(42).generate(shapes);
+        extra = new DocumentGenerator(43).createShape("circle");
+        selection = model.getDrawables().subList(0, selected);
+    }
+
+    /**
+     * Adds a shape then undoes, redoes and undoes it again, leaving the document as it was.
+     */
+    @Benchmark
+    public int addUndoRedo() {
+        model.addDrawableWithCommandNoSelect(extra);
+        model.undo();
+        model.redo();
+        model.undo();
+        return model.getDrawables().size();
+    }
+
+    /**
+     * Moves the selection then undoes, redoes and undoes the move.
+     */
+    @Benchmark
+    public int moveUndoRedo() {
+        model.selectMultipleShapes(selection);
+        model.moveSelectedBy(5, 5);
+        model.undo();
+        model.redo();
+        model.undo();
+        return model.getDrawables().size();
+    }
+
+    @Benchmark
+    public List<Drawable> copyPaste() {
+        Clipboard.getInstance().copy(selection);
+        return Clipboard.getInstance().paste();
+    }
+}
@@ -0,0 +1,186 @@
+package paint.bench;
+
+import paint.render.DrawingSurface;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Paint;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Objects;
+
+/**
+ * A drawing surface that draws nothing and instead counts what it is asked to do: draw
+ * calls, state changes (setFill, setStroke, setLineWidth, setLineDashes) and how many of
+ * those state changes set the value that was already current.
+ */
+public class CountingSurface implements DrawingSurface {
+    private long drawCalls;
+    private long stateChanges;
+    private long redundantStateChanges;
+    private long imagesDrawn;
+
+    private Paint fill;
+    private Paint stroke;
+    private double lineWidth = 1;
+    private double[] dashes = new double[0];
+    private final Deque<Object[]> saved = new ArrayDeque<>();
+
+    /**
+     * Sets every counter back to zero.
+     */
+    public void reset() {
+        drawCalls = 0;
+        stateChanges = 0;
+        redundantStateChanges = 0;
+        imagesDrawn = 0;
+    }
+
+    public long getDrawCalls() {
+        return drawCalls;
+    }
+
+    public long getStateChanges() {
+        return stateChanges;
+    }
+
+    public long getRedundantStateChanges() {
+        return redundantStateChanges;
+    }
+
+    public long getImagesDrawn() {
+        return imagesDrawn;
+    }
+
+    private void stateChange(boolean redundant) {
+        stateChanges++;
+        if (redundant) {
+            redundantStateChanges++;
+        }
+    }
+
+    @Override
+    public void setFill(Paint p) {
+        stateChange(Objects.equals(fill, p));
+        fill = p;
+    }
+
+    @Override
+    public void setStroke(Paint p) {
+        stateChange(Objects.equals(stroke, p));
+        stroke = p;
+    }
+
+    @Override
+    public void setLineWidth(double lw) {
+        stateChange(lineWidth == lw);
+        lineWidth = lw;
+    }
+
+    @Override
+    public void setLineDashes(double... dashes) {
+        double[] next = dashes == null ? new double[0] : dashes;
+        if (next.length == 1 && next[0] == 0) {
+            next = new double[0];
+        }
+        stateChange(Arrays.equals(this.dashes, next));
+        this.dashes = next;
+    }
+
+    @Override
+    public void fillRect(double x, double y, double w, double h) {
+        drawCalls++;
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double w, double h) {
+        drawCalls++;
+    }
+
+    @Override
+    public void clearRect(double x, double y, double w, double h) {
+        drawCalls++;
+    }
+
+    @Override
+    public void fillOval(double x, double y, double w, double h) {
+        drawCalls++;
+    }
+
+    @Override
+    public void strokeOval(double x, double y, double w, double h) {
+        drawCalls++;
+    }
+
+    @Override
+    public void strokeLine(double x1, double y1, double x2, double y2) {
+        drawCalls++;
+    }
+
+    @Override
+    public void fillPolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        drawCalls++;
+    }
+
+    @Override
+    public void strokePolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        drawCalls++;
+    }
+
+    @Override
+    public void strokePolyline(double[] xPoints, double[] yPoints, int nPoints) {
+        drawCalls++;
+    }
+
+    @Override
+    public void drawImage(Image img, double x, double y, double w, double h) {
+        drawCalls++;
+        imagesDrawn++;
+    }
+
+    @Override
+    public void fillText(String text, double x, double y) {
+        drawCalls++;
+    }
+
+    @Override
+    public void beginPath() {
+    }
+
+    @Override
+    public void moveTo(double x, double y) {
+    }
+
+    @Override
+    public void bezierCurveTo(double c1x, double c1y, double c2x, double c2y, double x, double y) {
+    }
+
+    @Override
+    public void stroke() {
+        drawCalls++;
+    }
+
+    @Override
+    public void save() {
+        saved.push(new Object[]{fill, stroke, lineWidth, dashes});
+    }
+
+    @Override
+    public void restore() {
+        Object[] state = saved.poll();
+        if (state != null) {
+            fill = (Paint) state[0];
+            stroke = (Paint) state[1];
+            lineWidth = (Double) state[2];
+            dashes = (double[]) state[3];
+        }
+    }
+
+    @Override
+    public void translate(double x, double y) {
+    }
+
+    @Override
+    public void scale(double x, double y) {
+    }
+}
@@ -0,0 +1,234 @@
+package paint.bench;
+
+import paint.app.FillStyle;
+import paint.app.PaintModel;
+import paint.shapes.Circle;
+import paint.shapes.Drawable;
+import paint.shapes.ImageS;
+import paint.shapes.Point;
+import paint.shapes.Polyline;
+import paint.shapes.ShapeFactory;
+import paint.shapes.Squiggle;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Generates reproducible drawings for load and scale testing. Shapes are created through
+ * ShapeFactory and added through the model's command API, the same way the drawing tools
+ * add them, so the undo history matches a user having drawn the document.
+ * The same seed and settings always give the same document.
+ */
+public class DocumentGenerator {
+    /**
+     * The shape types that can be generated, by their ShapeFactory name.
+     */
+    public static final String[] TYPES = {"circle", "rectangle", "square", "oval", "triangle",
+            "polyline", "squiggle", "image"};
+    /**
+     * The default width and height of the area shapes are spread over.
+     */
+    public static final double DOCUMENT_SIZE = 2000;
+
+    private final Random random;
+    private final double[] weights = {1, 1, 1, 1, 1, 1, 1, 1};
+    private double documentSize = DOCUMENT_SIZE;
+    private double minSize = 5, maxSize = 80;
+    private int minStrokePoints = 10, maxStrokePoints = 500;
+    private Supplier<Image> images = () -> null;
+
+    /**
+     * Constructs a new generator whose documents are determined by seed.
+     * @param seed
+     */
+    public DocumentGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Changes how often shapes of the given type are generated relative to the other types.
+     * Every type starts with a weight of 1; a weight of 0 turns the type off.
+     * @param type
+     * @param weight
+     * @return this generator.
+     */
+    public DocumentGenerator setWeight(String type, double weight) {
+        weights[indexOf(type)] = weight;
+        return this;
+    }
+
+    /**
+     * Changes the width and height of the area shapes are spread over.
+     * @param size
+     * @return this generator.
+     */
+    public DocumentGenerator setDocumentSize(double size) {
+        this.documentSize = size;
+        return this;
+    }
+
+    /**
+     * Changes the range shape widths and heights are drawn from. Sizes are log-uniform, so
+     * small shapes are as common as large ones in relative terms.
+     * @param min
+     * @param max
+     * @return this generator.
+     */
+    public DocumentGenerator setSizeRange(double min, double max) {
+        this.minSize = min;
+        this.maxSize = max;
+        return this;
+    }
+
+    /**
+     * Changes the range of point counts for squiggles and polylines, also log-uniform.
+     * @param min
+     * @param max
+     * @return this generator.
+     */
+    public DocumentGenerator setStrokePoints(int min, int max) {
+        this.minStrokePoints = min;
+        this.maxStrokePoints = max;
+        return this;
+    }
+
+    /**
+     * Changes where generated images get their pixels from. By default images have none,
+     * so documents can be generated without the JavaFX toolkit.
+     * @param images
+     * @return this generator.
+     */
+    public DocumentGenerator setImages(Supplier<Image> images) {
+        this.images = images;
+        return this;
+    }
+
+    /**
+     * RETURNS the width and height of the area shapes are spread over.
+     * @return the documentSize attribute
+     */
+    public double getDocumentSize() {
+        return documentSize;
+    }
+
+    /**
+     * Creates a new model and adds n generated shapes to it through the command API.
+     * @param n
+     * @return the new model.
+     */
+    public PaintModel generate(int n) {
+        PaintModel model = new PaintModel();
+        addTo(model, n);
+        return model;
+    }
+
+    /**
+     * Adds n generated shapes to the model through the command API.
+     * @param model
+     * @param n
+     */
+    public void addTo(PaintModel model, int n) {
+        for (int i = 0; i < n; i++) {
+            model.addDrawableWithCommandNoSelect(createShape(nextType()));
+        }
+    }
+
+    /**
+     * Creates a shape of the given type at a random position.
+     * @param type
+     * @return the new shape.
+     */
+    public Drawable createShape(String type) {
+        double x = random.nextDouble() * documentSize;
+        double y = random.nextDouble() * documentSize;
+        double w = logUniform(minSize, maxSize);
+        double h = logUniform(minSize, maxSize);
+        Color color = Color.hsb(random.nextInt(12) * 30, 0.8, 0.8);
+        FillStyle fill = random.nextBoolean() ? FillStyle.FILLED : FillStyle.OUTLINE;
+        double lineWidth = 1 + random.nextInt(5);
+        switch (type) {
+            case "circle" -> {
+                Circle c = (Circle) ShapeFactory.createShape("circle", color, lineWidth, fill,
+                        new Point[]{new Point(x, y, color)});
+                c.setRadius(w / 2);
+                return c;
+            }
+            case "triangle" -> {
+                return ShapeFactory.createShape("triangle", color, lineWidth, fill,
+                        new Point[]{new Point(x, y), new Point(x + w, y), new Point(x + w / 2, y + h)});
+            }
+            case "polyline", "squiggle" -> {
+                return createStroke(type, (int) logUniform(minStrokePoints, maxStrokePoints + 1), x, y);
+            }
+            case "image" -> {
+                return new ImageS(x, y, w, h, images.get(), "generated.png");
+            }
+            default -> {
+                return ShapeFactory.createShape(type, color, lineWidth, fill,
+                        new Point[]{new Point(x, y), new Point(x + w, y + h)});
+            }
+        }
+    }
+
+    /**
+     * Creates a random walk stroke of the given type ("squiggle" or "polyline") starting at (x, y).
+     * @param type
+     * @param points
+     * @param x
+     * @param y
+     * @return the new stroke.
+     */
+    public Drawable createStroke(String type, int points, double x, double y) {
+        Color color = Color.hsb(random.nextInt(12) * 30, 0.8, 0.4);
+        Drawable d = ShapeFactory.createShape(type, color, 1 + random.nextInt(4), FillStyle.OUTLINE, new Point[0]);
+        double heading = random.nextDouble() * Math.PI * 2;
+        for (int i = 0; i < points; i++) {
+            heading += random.nextGaussian() * 0.3;
+            x += Math.cos(heading) * 2;
+            y += Math.sin(heading) * 2;
+            Point p = new Point(x, y, color);
+            if (d instanceof Squiggle s) {
+                s.addPoint(p);
+            } else {
+                ((Polyline) d).addPoint(p);
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Gives a random double in [min, max) with a log-uniform distribution.
+     */
+    private double logUniform(double min, double max) {
+        return Math.exp(Math.log(min) + random.nextDouble() * (Math.log(max) - Math.log(min)));
+    }
+
+    /**
+     * Gives a random shape type according to the weights.
+     */
+    private String nextType() {
+        double total = 0;
+        for (double w : weights) {
+            total += w;
+        }
+        double r = random.nextDouble() * total;
+        for (int i = 0; i < weights.length; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return TYPES[i];
+            }
+        }
+        return TYPES[TYPES.length - 1];
+    }
+
+    private static int indexOf(String type) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (TYPES[i].equalsIgnoreCase(type)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown shape type: " + type);
+    }
+}
@@ -0,0 +1,285 @@
+package paint.bench;
+
+import paint.app.FillStyle;
+import paint.app.PaintModel;
+import paint.shapes.Drawable;
+import paint.strategy.CircleStrategy;
+import paint.strategy.DrawingStrategy;
+import paint.strategy.OvalStrategy;
+import paint.strategy.PolylineStrategy;
+import paint.strategy.RectangleStrategy;
+import paint.strategy.SelectionStrategy;
+import paint.strategy.SquareStrategy;
+import paint.strategy.SquiggleStrategy;
+import paint.strategy.TriangleStrategy;
+import javafx.event.EventType;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A replayable recording of user interaction: tool changes, synthetic mouse events that are
+ * fed to the drawing strategies, and edit menu actions. Traces are built from a seed against
+ * a particular document, and each one ends by undoing its own edits so it can be replayed
+ * on the same model over and over.
+ */
+public class InteractionTrace {
+
+    /**
+     * One step of a trace. Tool steps carry the tool name in action, mouse steps carry the
+     * event type and position, and edit steps carry the menu action name
+     * ("Cut", "Copy", "Paste", "Delete", "Undo", "Redo").
+     */
+    public record Step(String action, EventType<MouseEvent> type, double x, double y, int clicks) {
+    }
+
+    private final String name;
+    private final List<Step> steps = new ArrayList<>();
+
+    /**
+     * Constructs a new empty trace with the given name.
+     * @param name
+     */
+    public InteractionTrace(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * Adds a step that switches to the named tool, as named on the tool buttons.
+     */
+    public InteractionTrace tool(String tool) {
+        steps.add(new Step("tool:" + tool, null, 0, 0, 0));
+        return this;
+    }
+
+    /**
+     * Adds a mouse event step at (x, y).
+     */
+    public InteractionTrace mouse(EventType<MouseEvent> type, double x, double y) {
+        return mouse(type, x, y, 1);
+    }
+
+    /**
+     * Adds a mouse event step at (x, y) with the given click count.
+     */
+    public InteractionTrace mouse(EventType<MouseEvent> type, double x, double y, int clicks) {
+        steps.add(new Step("mouse", type, x, y, clicks));
+        return this;
+    }
+
+    /**
+     * Adds a press, a straight drag in the given number of samples and a release.
+     */
+    public InteractionTrace drag(double x1, double y1, double x2, double y2, int samples) {
+        mouse(MouseEvent.MOUSE_PRESSED, x1, y1);
+        for (int i = 1; i <= samples; i++) {
+            double t = (double) i / samples;
+            mouse(MouseEvent.MOUSE_DRAGGED, x1 + (x2 - x1) * t, y1 + (y2 - y1) * t);
+        }
+        return mouse(MouseEvent.MOUSE_RELEASED, x2, y2);
+    }
+
+    /**
+     * Adds an edit menu action step.
+     */
+    public InteractionTrace edit(String action) {
+        steps.add(new Step(action, null, 0, 0, 0));
+        return this;
+    }
+
+    /**
+     * Replays every step of the trace against the model, starting with the selection tool.
+     * @param model
+     */
+    public void replay(PaintModel model) {
+        DrawingStrategy strategy = new SelectionStrategy();
+        for (Step step : steps) {
+            switch (step.action()) {
+                case "mouse" -> strategy.handle(event(step.type(), step.x(), step.y(), step.clicks()),
+                        model, Color.BLACK, 2, FillStyle.FILLED);
+                case "Cut" -> model.cut();
+                case "Copy" -> model.copy();
+                case "Paste" -> model.paste();
+                case "Delete" -> model.delete();
+                case "Undo" -> model.undo();
+                case "Redo" -> model.redo();
+                default -> strategy = strategy(step.action().substring("tool:".length()));
+            }
+        }
+    }
+
+    /**
+     * Creates the drawing strategy for a tool, as the tool buttons do.
+     * @param tool
+     * @return the new strategy.
+     */
+    public static DrawingStrategy strategy(String tool) {
+        return switch (tool) {
+            case "Select" -> new SelectionStrategy();
+            case "Circle" -> new CircleStrategy();
+            case "Rectangle" -> new RectangleStrategy();
+            case "Square" -> new SquareStrategy();
+            case "Triangle" -> new TriangleStrategy();
+            case "Oval" -> new OvalStrategy();
+            case "Squiggle" -> new SquiggleStrategy();
+            case "Polyline" -> new PolylineStrategy();
+            default -> throw new IllegalArgumentException("Unknown tool: " + tool);
+        };
+    }
+
+    /**
+     * Creates a primary button mouse event of the given type at (x, y) with no source,
+     * as if it had already been mapped into document coordinates.
+     * @param type
+     * @param x
+     * @param y
+     * @param clicks
+     * @return the new mouse event.
+     */
+    public static MouseEvent event(EventType<MouseEvent> type, double x, double y, int clicks) {
+        boolean down = type == MouseEvent.MOUSE_PRESSED || type == MouseEvent.MOUSE_DRAGGED;
+        return new MouseEvent(null, null, type, x, y, x, y, MouseButton.PRIMARY, clicks,
+                false, false, false, false, down, false, false,
+                true, false, false, null);
+    }
+
+    /**
+     * Names of the traces that can be built with {@link #named}.
+     */
+    public static final String[] NAMES = {"drag", "marquee", "cutPaste", "undoStorm", "freehand"};
+
+    /**
+     * Builds one of the named traces against the model.
+     * @param name one of NAMES
+     * @param model the document the trace will be replayed on
+     * @param documentSize the width and height of the document area
+     * @param seed
+     * @return the new trace.
+     */
+    public static InteractionTrace named(String name, PaintModel model, double documentSize, long seed) {
+        Random random = new Random(seed);
+        return switch (name) {
+            case "drag" -> drag(model, random, 60);
+            case "marquee" -> marquee(documentSize, random, 30);
+            case "cutPaste" -> cutPaste(documentSize, random, 5);
+            case "undoStorm" -> undoStorm(documentSize, random, 50);
+            case "freehand" -> freehand(documentSize, random, 2000);
+            default -> throw new IllegalArgumentException("Unknown trace: " + name);
+        };
+    }
+
+    /**
+     * Selects a shape, drags it along in the given number of samples, then undoes the move.
+     */
+    public static InteractionTrace drag(PaintModel model, Random random, int samples) {
+        InteractionTrace trace = new InteractionTrace("drag").tool("Select");
+        double[] at = pointOnShape(model, random);
+        trace.mouse(MouseEvent.MOUSE_PRESSED, at[0], at[1]).mouse(MouseEvent.MOUSE_RELEASED, at[0], at[1]);
+        trace.drag(at[0], at[1], at[0] + 150, at[1] + 90, samples);
+        return trace.edit("Undo");
+    }
+
+    /**
+     * Draws a marquee selection box from empty space over part of the document, dragged in
+     * the given number of samples.
+     */
+    public static InteractionTrace marquee(double documentSize, Random random, int samples) {
+        double x = random.nextDouble() * documentSize / 2;
+        double y = random.nextDouble() * documentSize / 2;
+        return new InteractionTrace("marquee").tool("Select")
+                .drag(-documentSize, -documentSize, x + documentSize / 4, y + documentSize / 4, samples);
+    }
+
+    /**
+     * Marquee selects part of the document, cuts it, pastes it the given number of times,
+     * then undoes everything.
+     */
+    public static InteractionTrace cutPaste(double documentSize, Random random, int pastes) {
+        InteractionTrace trace = marquee(documentSize, random, 5);
+        trace.edit("Cut");
+        for (int i = 0; i < pastes; i++) {
+            trace.edit("Paste");
+        }
+        for (int i = 0; i <= pastes; i++) {
+            trace.edit("Undo");
+        }
+        return trace;
+    }
+
+    /**
+     * Draws the given number of rectangles in the empty space above and left of the
+     * document, undoes them all, redoes them all and undoes
+     * them all again.
+     */
+    public static InteractionTrace undoStorm(double documentSize, Random random, int shapes) {
+        InteractionTrace trace = new InteractionTrace("undoStorm").tool("Rectangle");
+        for (int i = 0; i < shapes; i++) {
+            double x = -documentSize + random.nextDouble() * documentSize * 0.9;
+            double y = -documentSize + random.nextDouble() * documentSize * 0.9;
+            trace.mouse(MouseEvent.MOUSE_PRESSED, -2 * documentSize, -2 * documentSize)
+                    .mouse(MouseEvent.MOUSE_RELEASED, -2 * documentSize, -2 * documentSize);
+            trace.drag(x, y, x + 40, y + 30, 4);
+        }
+        for (int i = 0; i < shapes; i++) {
+            trace.edit("Undo");
+        }
+        for (int i = 0; i < shapes; i++) {
+            trace.edit("Redo");
+        }
+        for (int i = 0; i < shapes; i++) {
+            trace.edit("Undo");
+        }
+        return trace;
+    }
+
+    /**
+     * Draws one freehand squiggle with the given number of samples, then undoes it.
+     */
+    public static InteractionTrace freehand(double documentSize, Random random, int samples) {
+        InteractionTrace trace = new InteractionTrace("freehand").tool("Select")
+                .mouse(MouseEvent.MOUSE_PRESSED, -documentSize, -documentSize)
+                .mouse(MouseEvent.MOUSE_RELEASED, -documentSize, -documentSize)
+                .tool("Squiggle");
+        double x = random.nextDouble() * documentSize;
+        double y = random.nextDouble() * documentSize;
+        double heading = 0;
+        trace.mouse(MouseEvent.MOUSE_PRESSED, x, y);
+        for (int i = 0; i < samples; i++) {
+            heading += random.nextGaussian() * 0.2;
+            x += Math.cos(heading) * 3;
+            y += Math.sin(heading) * 3;
+            trace.mouse(MouseEvent.MOUSE_DRAGGED, x, y);
+        }
+        return trace.mouse(MouseEvent.MOUSE_RELEASED, x, y).edit("Undo");
+    }
+
+    /**
+     * Finds a point that hits the topmost shape under it, trying random shapes and random
+     * points inside their bounds.
+     */
+    private static double[] pointOnShape(PaintModel model, Random random) {
+        List<Drawable> ds = model.getDrawables();
+        for (int attempt = 0; attempt < 10_000; attempt++) {
+            Drawable d = ds.get(random.nextInt(ds.size()));
+            double[] b = d.getBounds();
+            double x = b[0] + random.nextDouble() * b[2];
+            double y = b[1] + random.nextDouble() * b[3];
+            if (d.contains(x, y)) {
+                return new double[]{x, y};
+            }
+        }
+        throw new IllegalStateException("No shape found to drag");
+    }
+}
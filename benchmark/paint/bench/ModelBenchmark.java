@@ -0,0 +1,65 @@
+package paint.bench;
+
+import paint.app.PaintModel;
+import paint.strategy.SelectionStrategy;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures click and marquee selection over large documents.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int shapes;
+
+    private PaintModel model;
+    private final SelectionStrategy selection = new SelectionStrategy();
+    private final double[] clicks = new double[2048];
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        model = new DocumentGenerator(42).generate(shapes);
+        for (int i = 0; i < clicks.length; i++) {
+            clicks[i] = random.nextDouble() * DocumentGenerator.DOCUMENT_SIZE;
+        }
+    }
+
+    @Benchmark
+    public List<?> selectShapeAt() {
+        next = (next + 2) & (clicks.length - 1);
+        model.selectShapeAt(clicks[next], clicks[next + 1]);
+        return model.getSelectedShapes();
+    }
+
+    @Benchmark
+    public List<?> marqueeSelect() {
+        double size = DocumentGenerator.DOCUMENT_SIZE;
+        selection.handle(InteractionTrace.event(MouseEvent.MOUSE_PRESSED, -10, -10, 1), model, Color.BLACK, 1, null);
+        selection.handle(InteractionTrace.event(MouseEvent.MOUSE_DRAGGED, size / 3, size / 3, 1), model, Color.BLACK, 1, null);
+        selection.handle(InteractionTrace.event(MouseEvent.MOUSE_RELEASED, size / 3, size / 3, 1), model, Color.BLACK, 1, null);
+        return model.getSelectedShapes();
+    }
+}
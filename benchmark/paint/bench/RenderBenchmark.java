@@ -0,0 +1,59 @@
+package paint.bench;
+
+import paint.app.PaintModel;
+import paint.app.Viewport;
+import paint.render.DrawingSurface;
+import paint.render.StateTrackingSurface;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the CPU cost of drawing one frame of a document onto a counting surface, either
+ * directly or through a StateTrackingSurface as the paint panel does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int shapes;
+
+    @Param({"full", "window", "zoomedOut"})
+    public String view;
+
+    @Param({"plain", "tracked"})
+    public String surfaceType;
+
+    private PaintModel model;
+    private Viewport viewport;
+    private final CountingSurface surface = new CountingSurface();
+    private DrawingSurface target;
+
+    @Setup
+    public void setup() {
+        model = new DocumentGenerator(42).generate(shapes);
+        viewport = RenderFrame.viewport(view);
+        target = surfaceType.equals("tracked") ? new StateTrackingSurface(surface) : surface;
+    }
+
+    @Benchmark
+    public long frame() {
+        surface.reset();
+        RenderFrame.draw(model, viewport, target);
+        return surface.getDrawCalls();
+    }
+}
@@ -0,0 +1,60 @@
+package paint.bench;
+
+import paint.app.PaintModel;
+import paint.app.Viewport;
+import paint.render.DrawingSurface;
+
+/**
+ * Draws frames of a document the same way the paint panel does, through a viewport onto
+ * any drawing surface.
+ */
+public final class RenderFrame {
+    /**
+     * The window size frames are drawn for.
+     */
+    public static final double WIDTH = 1280, HEIGHT = 800;
+
+    private RenderFrame() {
+    }
+
+    /**
+     * Gives a viewport for one of the named views: "window" shows the top left of the
+     * document at 1:1, "zoomedOut" fits the whole document into the window.
+     * @param view
+     * @return the viewport, or null for "full", which draws the whole document without culling.
+     */
+    public static Viewport viewport(String view) {
+        Viewport viewport = new Viewport();
+        switch (view) {
+            case "full" -> {
+                return null;
+            }
+            case "window" -> {
+                return viewport;
+            }
+            case "zoomedOut" -> {
+                viewport.zoomAt(HEIGHT / DocumentGenerator.DOCUMENT_SIZE, 0, 0);
+                return viewport;
+            }
+            default -> throw new IllegalArgumentException("Unknown view: " + view);
+        }
+    }
+
+    /**
+     * Draws one frame of the model onto the surface.
+     * @param model
+     * @param viewport the viewport, or null to draw the whole document without culling.
+     * @param surface
+     */
+    public static void draw(PaintModel model, Viewport viewport, DrawingSurface surface) {
+        surface.clearRect(0, 0, WIDTH, HEIGHT);
+        if (viewport == null) {
+            model.draw(surface);
+            return;
+        }
+        surface.save();
+        viewport.apply(surface);
+        model.draw(surface, viewport.getVisibleBounds(WIDTH, HEIGHT), viewport.getScale());
+        surface.restore();
+    }
+}
@@ -0,0 +1,45 @@
+package paint.bench;
+
+import paint.app.PaintModel;
+import paint.app.Viewport;
+
+
+/**
+ * Headless rendering harness. Draws frames of generated documents onto a counting surface
+ * and reports, per frame, the draw calls, state changes (and how many were redundant) and
+ * the time taken. Runs without a display or GPU.
+ *
+ * Usage: RenderHarness [shapes...]
+ */
+public class RenderHarness {
+    private static final int WARMUP_FRAMES = 20;
+    private static final int FRAMES = 50;
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[]{1_000, 10_000, 100_000}
+                : java.util.Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        String[] views = {"full", "window", "zoomedOut"};
+        System.out.printf("%9s %10s %12s %12s %12s %10s%n",
+                "shapes", "view", "draws/frame", "state/frame", "redundant", "ms/frame");
+        for (int size : sizes) {
+            PaintModel model = new DocumentGenerator(42).generate(size);
+            model.selectMultipleShapes(model.getDrawables().subList(0, Math.min(100, size)));
+            for (String view : views) {
+                Viewport viewport = RenderFrame.viewport(view);
+                CountingSurface surface = new CountingSurface();
+                for (int i = 0; i < WARMUP_FRAMES; i++) {
+                    RenderFrame.draw(model, viewport, surface);
+                }
+                surface.reset();
+                long start = System.nanoTime();
+                for (int i = 0; i < FRAMES; i++) {
+                    RenderFrame.draw(model, viewport, surface);
+                }
+                double ms = (System.nanoTime() - start) / 1e6 / FRAMES;
+                System.out.printf("%9d %10s %12d %12d %12d %10.3f%n", size, view,
+                        surface.getDrawCalls() / FRAMES, surface.getStateChanges() / FRAMES,
+                        surface.getRedundantStateChanges() / FRAMES, ms);
+            }
+        }
+    }
+}
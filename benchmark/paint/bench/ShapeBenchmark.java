@@ -0,0 +1,59 @@
+package paint.bench;
+
+import paint.shapes.Drawable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures hit-testing and bounds for every shape type.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShapeBenchmark {
+    @Param({"circle", "rectangle", "square", "oval", "triangle", "polyline", "squiggle", "image"})
+    public String type;
+
+    private Drawable shape;
+    private double centreX, centreY;
+    private double outsideX, outsideY;
+
+    @Setup
+    public void setup() {
+        shape = new DocumentGenerator(42).createShape(type);
+        double[] b = shape.getBounds();
+        centreX = b[0] + b[2] / 2;
+        centreY = b[1] + b[3] / 2;
+        outsideX = b[0] - 100;
+        outsideY = b[1] - 100;
+    }
+
+    @Benchmark
+    public boolean containsCentre() {
+        return shape.contains(centreX, centreY);
+    }
+
+    @Benchmark
+    public boolean containsOutside() {
+        return shape.contains(outsideX, outsideY);
+    }
+
+    @Benchmark
+    public double[] getBounds() {
+        return shape.getBounds();
+    }
+}
@@ -0,0 +1,68 @@
+package paint.bench;
+
+import paint.shapes.Drawable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures cloning, moving and clicking long freehand and multi-point strokes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StrokeBenchmark {
+    @Param({"squiggle", "polyline"})
+    public String type;
+
+    @Param({"10000", "100000"})
+    public int points;
+
+    private Drawable stroke;
+    private double step = 1;
+    private final double[] clicks = new double[2048];
+    private int next;
+
+    @Setup
+    public void setup() {
+        stroke = new DocumentGenerator(42).createStroke(type, points, 500, 500);
+        double[] bounds = stroke.getBounds();
+        Random random = new Random(42);
+        for (int i = 0; i < clicks.length; i += 2) {
+            clicks[i] = bounds[0] + random.nextDouble() * bounds[2];
+            clicks[i + 1] = bounds[1] + random.nextDouble() * bounds[3];
+        }
+    }
+
+    @Benchmark
+    public boolean containsStroke() {
+        next = (next + 2) & (clicks.length - 1);
+        return stroke.contains(clicks[next], clicks[next + 1]);
+    }
+
+    @Benchmark
+    public Drawable cloneStroke() {
+        return stroke.clone();
+    }
+
+    @Benchmark
+    public Drawable offsetStroke() {
+        step = -step;
+        stroke.offset(step, step);
+        return stroke;
+    }
+}
@@ -0,0 +1,50 @@
+package paint.bench;
+
+import paint.app.PaintModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures replaying recorded interaction traces through the drawing strategies and the
+ * edit actions on a generated document.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TraceBenchmark {
+    @Param({"10000"})
+    public int shapes;
+
+    @Param({"drag", "marquee", "cutPaste", "undoStorm", "freehand"})
+    public String trace;
+
+    private PaintModel model;
+    private InteractionTrace interaction;
+
+    @Setup
+    public void setup() {
+        DocumentGenerator generator = new DocumentGenerator(42);
+        model = generator.generate(shapes);
+        interaction = InteractionTrace.named(trace, model, generator.getDocumentSize(), 7);
+    }
+
+    @Benchmark
+    public int replay() {
+        interaction.replay(model);
+        return model.getDrawables().size();
+    }
+}
@@ -0,0 +1,33 @@
+package paint.bench;
+
+import paint.app.PaintModel;
+
+/**
+ * Replays interaction traces on a generated document in a loop for a fixed time, for
+ * attaching a profiler or recording with Java Flight Recorder.
+ *
+ * Usage: TraceRunner [shapes] [seconds] [trace...]
+ */
+public class TraceRunner {
+
+    public static void main(String[] args) {
+        int shapes = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : 30;
+        String[] names = args.length > 2 ? java.util.Arrays.copyOfRange(args, 2, args.length)
+                : InteractionTrace.NAMES;
+        DocumentGenerator generator = new DocumentGenerator(42);
+        PaintModel model = generator.generate(shapes);
+        InteractionTrace[] traces = new InteractionTrace[names.length];
+        for (int i = 0; i < names.length; i++) {
+            traces[i] = InteractionTrace.named(names[i], model, generator.getDocumentSize(), i);
+        }
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        long replays = 0;
+        while (System.nanoTime() < end) {
+            traces[(int) (replays % traces.length)].replay(model);
+            replays++;
+        }
+        System.out.printf("%d replays of %d traces on %d shapes (%d after replay)%n",
+                replays, traces.length, shapes, model.getDrawables().size());
+    }
+}
@@ -0,0 +1,36 @@
+package paint.shapes;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * The allocator of the GeometryArena's slabs, using the Foreign Function and Memory API.
+ * Each slab is a segment of an automatic Arena, so it is freed once no stroke refers to it.
+ * The API is final from JDK 22 and a preview feature in JDK 21, so this class is kept out of
+ * the main sources; GeometryArena loads it by name when the store is enabled.
+ */
+final class NativeSlabs implements GeometryArena.Allocator {
+
+    @Override
+    public GeometryArena.Slab allocate(long count) {
+        return new Slab(Arena.ofAuto().allocate(count * Double.BYTES, Double.BYTES));
+    }
+
+    /**
+     * A slab held in a segment of native memory.
+     * @param segment
+     */
+    private record Slab(MemorySegment segment) implements GeometryArena.Slab {
+
+        @Override
+        public double get(long index) {
+            return segment.getAtIndex(ValueLayout.JAVA_DOUBLE, index);
+        }
+
+        @Override
+        public void set(long index, double value) {
+            segment.setAtIndex(ValueLayout.JAVA_DOUBLE, index, value);
+        }
+    }
+}
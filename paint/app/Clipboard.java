@@ -54,6 +54,8 @@ public class Clipboard {
 
     /**
      * RETURNS a clone of the shapes in the contents of the clipboard offset.
+     * Clones of strokes share their points with the clipboard, so the pasted shapes only
+     * differ from the copied ones by their translation.
      * @return the Arraylist of all the pasted shapes
      */
     public List<Drawable> paste() {
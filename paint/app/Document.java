@@ -0,0 +1,450 @@
+package paint.app;
+
+import paint.shapes.Drawable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Representation of one version of the drawing: the shapes from bottom to top.
+ * A Document never changes. Adding, replacing or removing shapes gives a new Document that
+ * shares everything it did not change with this one, so keeping every version for undo is
+ * cheap and a Document can be read from any thread while the program keeps editing.
+ * The shapes of a Document must not be changed either; commands replace them with changed
+ * copies instead.
+ * The shapes are kept in a 32-way tree with the last, partly filled, leaf kept apart, so
+ * appending and reading a shape take close to constant time.
+ */
+public final class Document extends AbstractList<Drawable> {
+    /**
+     * int objects that represent the bits of an index used at each level of the tree,
+     * the number of children of a node and the mask for one level's bits.
+     */
+    private static final int BITS = 5, WIDTH = 1 << BITS, MASK = WIDTH - 1;
+    /**
+     * Document that represents the empty drawing.
+     */
+    public static final Document EMPTY = new Document(0, BITS, new Object[0], new Object[0]);
+    /**
+     * int object that represents the number of shapes.
+     */
+    private final int size;
+    /**
+     * int object that represents how far the index is shifted to find the child of the root.
+     */
+    private final int shift;
+    /**
+     * Object array that represents the root of the tree, holding every shape before the tail.
+     */
+    private final Object[] root;
+    /**
+     * Object array that represents the last shapes, which are not in the tree yet.
+     */
+    private final Object[] tail;
+
+    private Document(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * Gives a document holding the shapes, from bottom to top.
+     * @param shapes
+     * @return the document of the shapes.
+     */
+    public static Document of(List<Drawable> shapes) {
+        int n = shapes.size();
+        if (n == 0) {
+            return EMPTY;
+        }
+        Object[] items = shapes.toArray();
+        int tailOffset = ((n - 1) >>> BITS) << BITS;
+        Object[] nodes = new Object[tailOffset / WIDTH];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = Arrays.copyOfRange(items, i * WIDTH, (i + 1) * WIDTH);
+        }
+        int shift = BITS;
+        while (nodes.length > WIDTH) {
+            Object[] parents = new Object[(nodes.length + MASK) / WIDTH];
+            for (int i = 0; i < parents.length; i++) {
+                parents[i] = Arrays.copyOfRange(nodes, i * WIDTH, Math.min(nodes.length, (i + 1) * WIDTH));
+            }
+            nodes = parents;
+            shift += BITS;
+        }
+        return new Document(n, shift, nodes, Arrays.copyOfRange(items, tailOffset, n));
+    }
+
+    /**
+     * RETURNS the number of shapes.
+     * @return the size attribute
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * RETURNS the shape at index i, where 0 is the bottom shape.
+     * @param i
+     * @return the shape at index i.
+     */
+    @Override
+    public Drawable get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return (Drawable) leafFor(i)[i & MASK];
+    }
+
+    /**
+     * Gives the index of the first shape held in the tail.
+     * @return the tail offset.
+     */
+    private int tailOffset() {
+        return size == 0 ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    /**
+     * Gives the leaf array that holds the shape at index i.
+     * @param i
+     * @return the leaf holding index i.
+     */
+    private Object[] leafFor(int i) {
+        if (i >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(i >>> level) & MASK];
+        }
+        return node;
+    }
+
+    /**
+     * Gives a document with the shape d added on top.
+     * @param d
+     * @return the new document.
+     */
+    public Document with(Drawable d) {
+        if (size - tailOffset() < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = d;
+            return new Document(size + 1, shift, root, newTail);
+        }
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[]{root, newPath(shift, tail)};
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new Document(size + 1, newShift, newRoot, new Object[]{d});
+    }
+
+    /**
+     * Returns true if the first shapes of this document are the shapes of prefix, in the same
+     * order. Documents made from prefix by adding shapes share all but the last path of its
+     * tree, so shared nodes are compared as a whole and only the others shape by shape.
+     * @param prefix
+     * @return true if this document starts with the shapes of prefix, otherwise false.
+     */
+    boolean startsWith(Document prefix) {
+        if (prefix.size > size) {
+            return false;
+        }
+        int prefixTail = prefix.tailOffset();
+        int from = 0;
+        if (prefixTail > 0 && shift >= prefix.shift) {
+            Object[] node = root;
+            for (int level = shift; level > prefix.shift; level -= BITS) {
+                node = (Object[]) node[0];
+            }
+            if (!sameShapes(prefix.shift, node, prefix.root, prefixTail)) {
+                return false;
+            }
+            from = prefixTail;
+        }
+        for (int i = from; i < prefix.size; i++) {
+            if (get(i) != prefix.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the first count shapes under the nodes mine and theirs, both at level,
+     * are the same.
+     * @param level
+     * @param mine
+     * @param theirs
+     * @param count
+     * @return true if the shapes are the same, otherwise false.
+     */
+    private static boolean sameShapes(int level, Object[] mine, Object[] theirs, int count) {
+        if (mine == theirs) {
+            return true;
+        }
+        if (level == 0) {
+            for (int j = 0; j < count; j++) {
+                if (mine[j] != theirs[j]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        int childSize = 1 << level;
+        for (int c = 0; c * childSize < count; c++) {
+            if (c >= mine.length || !sameShapes(level - BITS, (Object[]) mine[c], (Object[]) theirs[c],
+                    Math.min(childSize, count - c * childSize))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gives a document with the shapes added on top, in order.
+     * @param shapes
+     * @return the new document.
+     */
+    public Document withAll(List<Drawable> shapes) {
+        Document doc = this;
+        for (Drawable d : shapes) {
+            doc = doc.with(d);
+        }
+        return doc;
+    }
+
+    /**
+     * Gives a copy of parent with the full leaf tailNode added after its last leaf.
+     * @param level
+     * @param parent
+     * @param tailNode
+     * @return the new node.
+     */
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+        int index = ((size - 1) >>> level) & MASK;
+        Object[] node = Arrays.copyOf(parent, Math.max(parent.length, index + 1));
+        if (level == BITS) {
+            node[index] = tailNode;
+        } else if (index < parent.length) {
+            node[index] = pushTail(level - BITS, (Object[]) parent[index], tailNode);
+        } else {
+            node[index] = newPath(level - BITS, tailNode);
+        }
+        return node;
+    }
+
+    /**
+     * Gives a chain of single-child nodes from level down to the leaf node.
+     * @param level
+     * @param node
+     * @return the top of the chain.
+     */
+    private static Object[] newPath(int level, Object[] node) {
+        return level == 0 ? node : new Object[]{newPath(level - BITS, node)};
+    }
+
+    /**
+     * Gives a document with the shape at index i replaced by d.
+     * @param i
+     * @param d
+     * @return the new document.
+     */
+    public Document replace(int i, Drawable d) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        if (i >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[i & MASK] = d;
+            return new Document(size, shift, root, newTail);
+        }
+        return new Document(size, shift, replace(shift, root, i, d), tail);
+    }
+
+    /**
+     * Gives a copy of node with the shape at index i replaced by d.
+     * @param level
+     * @param node
+     * @param i
+     * @param d
+     * @return the new node.
+     */
+    private static Object[] replace(int level, Object[] node, int i, Drawable d) {
+        Object[] copy = node.clone();
+        if (level == 0) {
+            copy[i & MASK] = d;
+        } else {
+            int index = (i >>> level) & MASK;
+            copy[index] = replace(level - BITS, (Object[]) node[index], i, d);
+        }
+        return copy;
+    }
+
+    /**
+     * Gives a document with every shape that is a key of replacements replaced by its value,
+     * keeping their places from bottom to top.
+     * @param replacements
+     * @return the new document.
+     */
+    public Document replaceAll(Map<Drawable, Drawable> replacements) {
+        Document doc = this;
+        int found = 0;
+        int i = 0;
+        for (Drawable d : this) {
+            Drawable replacement = replacements.get(d);
+            if (replacement != null) {
+                doc = doc.replace(i, replacement);
+                if (++found == replacements.size()) {
+                    break;
+                }
+            }
+            i++;
+        }
+        return doc;
+    }
+
+    /**
+     * Gives a document with every shape that is a key of pieces replaced by the shapes of its
+     * value, in their order, keeping their place from bottom to top. When the number of shapes
+     * changes, every shape above the lowest one replaced moves, so the new document shares the
+     * tree below that shape and adds the shapes from there up again. The replaced shapes are
+     * looked for from the top down, since the shapes erased are mostly the latest drawn.
+     * @param pieces
+     * @return the new document.
+     */
+    public Document split(Map<Drawable, List<Drawable>> pieces) {
+        Map<Drawable, Drawable> replacements = new IdentityHashMap<>();
+        for (Map.Entry<Drawable, List<Drawable>> e : pieces.entrySet()) {
+            if (e.getValue().size() != 1) {
+                replacements = null;
+                break;
+            }
+            replacements.put(e.getKey(), e.getValue().get(0));
+        }
+        if (replacements != null) {
+            return replaceAll(replacements);
+        }
+        int lowest = size;
+        int found = 0;
+        for (int i = size - 1; i >= 0 && found < pieces.size(); i--) {
+            if (pieces.containsKey(get(i))) {
+                lowest = i;
+                found++;
+            }
+        }
+        Document doc = take(lowest);
+        for (int i = lowest; i < size; i++) {
+            Drawable d = get(i);
+            List<Drawable> replaced = pieces.get(d);
+            doc = replaced == null ? doc.with(d) : doc.withAll(replaced);
+        }
+        return doc;
+    }
+
+    /**
+     * Gives a document of the first n shapes, sharing every node of the tree that holds only
+     * those shapes.
+     * @param n
+     * @return the new document.
+     */
+    private Document take(int n) {
+        if (n == size) {
+            return this;
+        }
+        if (n == 0) {
+            return EMPTY;
+        }
+        int newTailOffset = ((n - 1) >>> BITS) << BITS;
+        Object[] newTail = Arrays.copyOf(leafFor(newTailOffset), n - newTailOffset);
+        if (newTailOffset == 0) {
+            return new Document(n, BITS, new Object[0], newTail);
+        }
+        Object[] newRoot = take(shift, root, newTailOffset - 1);
+        int newShift = shift;
+        while (newShift > BITS && newRoot.length == 1) {
+            newRoot = (Object[]) newRoot[0];
+            newShift -= BITS;
+        }
+        return new Document(n, newShift, newRoot, newTail);
+    }
+
+    /**
+     * Gives node, at level, without its children after the one holding index last.
+     * @param level
+     * @param node
+     * @param last
+     * @return the new node, or node itself if it holds nothing after index last.
+     */
+    private static Object[] take(int level, Object[] node, int last) {
+        int index = (last >>> level) & MASK;
+        Object[] copy = index + 1 == node.length ? node : Arrays.copyOf(node, index + 1);
+        if (level > BITS) {
+            Object[] child = take(level - BITS, (Object[]) node[index], last);
+            if (child != node[index]) {
+                copy = copy == node ? node.clone() : copy;
+                copy[index] = child;
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Gives a document without the shapes in removed.
+     * @param removed
+     * @return the new document.
+     */
+    public Document without(Set<Drawable> removed) {
+        if (removed.isEmpty()) {
+            return this;
+        }
+        List<Drawable> kept = new ArrayList<>(size);
+        for (Drawable d : this) {
+            if (!removed.contains(d)) {
+                kept.add(d);
+            }
+        }
+        return kept.size() == size ? this : of(kept);
+    }
+
+    /**
+     * Gives an iterator over the shapes from bottom to top that walks the leaves directly.
+     * @return the iterator.
+     */
+    @Override
+    public Iterator<Drawable> iterator() {
+        return new Iterator<>() {
+            private int i = 0;
+            private Object[] leaf = size == 0 ? null : leafFor(0);
+
+            @Override
+            public boolean hasNext() {
+                return i < size;
+            }
+
+            @Override
+            public Drawable next() {
+                if (i >= size) {
+                    throw new NoSuchElementException();
+                }
+                if ((i & MASK) == 0 && i > 0) {
+                    leaf = leafFor(i);
+                }
+                return (Drawable) leaf[i++ & MASK];
+            }
+        };
+    }
+}
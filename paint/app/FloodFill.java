@@ -0,0 +1,224 @@
+package paint.app;
+
+import paint.render.MaskSurface;
+import paint.shapes.Drawable;
+import paint.shapes.FillRegion;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+
+/**
+ * Bucket fill over one version of the drawing and the pixels painted with the brush.
+ * The shapes are drawn onto a MaskSurface covering the drawing plus a small margin, one cell
+ * per document unit unless that would need more than MAX_CELLS cells, in which case the
+ * cells are made larger, and every cell under a painted pixel is covered too. The uncovered
+ * cells connected to the clicked one are then found a row span at a time, with an explicit
+ * stack of spans to continue from instead of recursion. If the fill reaches the edge of the
+ * grid, the point is not enclosed and nothing is filled. The filled cells are then grown by one cell into the covered
+ * cells around them, so the region reaches under the outline instead of stopping half a line
+ * width short of it. Earlier fills are not drawn onto the mask, so filling inside one fills
+ * over it rather than being stopped by it.
+ */
+final class FloodFill {
+    /**
+     * int object that represents the most cells a fill may use, a 4096 by 4096 grid.
+     */
+    static final int MAX_CELLS = 4096 * 4096;
+    /**
+     * double object that represents the margin, in document units, left around the drawing so
+     * the area outside every shape reaches the edge of the grid.
+     */
+    private static final double MARGIN = 2;
+    /**
+     * byte object that marks a cell the fill has reached in the mask.
+     */
+    private static final byte FILLED = 2;
+    /**
+     * byte object that marks a covered cell next to a filled one, which the region also covers.
+     */
+    private static final byte GROWN = 3;
+
+    private FloodFill() {
+    }
+
+    /**
+     * Gives the region enclosed by the shapes of document and the pixels of raster around the
+     * point (x, y).
+     * @param document
+     * @param raster
+     * @param x
+     * @param y
+     * @param color
+     * @return the region filled with color, or null if the point is on a shape or a painted
+     * pixel, or not enclosed by them.
+     */
+    static FillRegion fill(Document document, RasterLayer raster, double x, double y, Color color) {
+        double minX = x, minY = y, maxX = x, maxY = y;
+        boolean any = false;
+        for (Drawable d : document) {
+            if (d instanceof FillRegion) {
+                continue;
+            }
+            double[] b = d.getBounds();
+            minX = Math.min(minX, b[0]);
+            minY = Math.min(minY, b[1]);
+            maxX = Math.max(maxX, b[0] + b[2]);
+            maxY = Math.max(maxY, b[1] + b[3]);
+            any = true;
+        }
+        double[] painted = raster.getBounds();
+        if (painted != null) {
+            minX = Math.min(minX, painted[0]);
+            minY = Math.min(minY, painted[1]);
+            maxX = Math.max(maxX, painted[0] + painted[2]);
+            maxY = Math.max(maxY, painted[1] + painted[3]);
+            any = true;
+        }
+        if (!any) {
+            return null;
+        }
+        minX -= MARGIN;
+        minY -= MARGIN;
+        maxX += MARGIN;
+        maxY += MARGIN;
+        double cellSize = Math.max(1, Math.sqrt((maxX - minX) * (maxY - minY) / MAX_CELLS));
+        int width = (int) Math.ceil((maxX - minX) / cellSize);
+        int height = (int) Math.ceil((maxY - minY) / cellSize);
+        MaskSurface surface = new MaskSurface(minX, minY, width, height, cellSize);
+        for (Drawable d : document) {
+            if (!(d instanceof FillRegion)) {
+                d.draw(surface);
+            }
+        }
+        raster.cover(surface);
+        byte[] mask = surface.getMask();
+        int seedX = (int) ((x - minX) / cellSize), seedY = (int) ((y - minY) / cellSize);
+        if (mask[seedY * width + seedX] != 0 || !spanFill(mask, width, height, seedX, seedY)) {
+            return null;
+        }
+        return toRegion(mask, width, height, minX, minY, cellSize, color);
+    }
+
+    /**
+     * Marks FILLED every uncovered cell connected, through edges, to the cell (seedX, seedY).
+     * Each span is filled across its whole row before the rows above and below are searched
+     * for uncovered cells, and one cell of each run found there is pushed onto the stack.
+     * The covered cells touching a span, through an edge or a corner, are marked GROWN as
+     * they are searched.
+     * @param mask
+     * @param width
+     * @param height
+     * @param seedX
+     * @param seedY
+     * @return false, leaving the fill unfinished, if it reached the edge of the grid.
+     */
+    static boolean spanFill(byte[] mask, int width, int height, int seedX, int seedY) {
+        int[] stack = new int[64];
+        int size = 0;
+        stack[size++] = seedY * width + seedX;
+        while (size > 0) {
+            int cell = stack[--size];
+            if (mask[cell] != 0) {
+                continue;
+            }
+            int y = cell / width, row = y * width;
+            int left = cell - row, right = left;
+            while (left > 0 && mask[row + left - 1] == 0) {
+                left--;
+            }
+            while (right < width - 1 && mask[row + right + 1] == 0) {
+                right++;
+            }
+            if (left == 0 || right == width - 1 || y == 0 || y == height - 1) {
+                return false;
+            }
+            Arrays.fill(mask, row + left, row + right + 1, FILLED);
+            grow(mask, row + left - 1);
+            grow(mask, row + right + 1);
+            for (int next = row - width; next <= row + width; next += 2 * width) {
+                grow(mask, next + left - 1);
+                grow(mask, next + right + 1);
+                boolean inRun = false;
+                for (int i = next + left; i <= next + right; i++) {
+                    boolean open = mask[i] == 0;
+                    grow(mask, i);
+                    if (open && !inRun) {
+                        if (size == stack.length) {
+                            stack = Arrays.copyOf(stack, size * 2);
+                        }
+                        stack[size++] = i;
+                    }
+                    inRun = open;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks the cell GROWN if it is covered.
+     * @param mask
+     * @param cell
+     */
+    private static void grow(byte[] mask, int cell) {
+        if (mask[cell] == 1) {
+            mask[cell] = GROWN;
+        }
+    }
+
+    /**
+     * Gives the FILLED and GROWN cells of the mask as a FillRegion, trimmed to the rows and columns
+     * they occupy.
+     * @param mask
+     * @param width
+     * @param height
+     * @param originX
+     * @param originY
+     * @param cellSize
+     * @param color
+     * @return the region of filled and grown cells.
+     */
+    private static FillRegion toRegion(byte[] mask, int width, int height, double originX, double originY,
+                                       double cellSize, Color color) {
+        int top = -1, bottom = -1, leftmost = width;
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                if (mask[row + x] >= FILLED) {
+                    if (top < 0) {
+                        top = y;
+                    }
+                    bottom = y;
+                    leftmost = Math.min(leftmost, x);
+                    break;
+                }
+            }
+        }
+        int[] rowStarts = new int[bottom - top + 2];
+        int[] runs = new int[64];
+        int n = 0;
+        for (int y = top; y <= bottom; y++) {
+            int row = y * width;
+            rowStarts[y - top] = n;
+            int x = leftmost;
+            while (x < width) {
+                if (mask[row + x] < FILLED) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < width && mask[row + x] >= FILLED) {
+                    x++;
+                }
+                if (n + 2 > runs.length) {
+                    runs = Arrays.copyOf(runs, runs.length * 2);
+                }
+                runs[n++] = start - leftmost;
+                runs[n++] = x - leftmost;
+            }
+        }
+        rowStarts[bottom - top + 1] = n;
+        return new FillRegion(originX + leftmost * cellSize, originY + top * cellSize, cellSize,
+                rowStarts, Arrays.copyOf(runs, n), color);
+    }
+}
@@ -1,13 +1,22 @@
 package paint.app;
 
 import paint.command.pattern.*;
+import paint.jfr.HitTestEvent;
 import paint.shapes.Drawable;
-import javafx.scene.canvas.GraphicsContext;
+import paint.shapes.Erasable;
+import paint.shapes.FillRegion;
+import paint.shapes.ImageS;
+import paint.render.DrawingSurface;
 import javafx.scene.paint.Color;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Observable;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Representations the model that stores all the data for the application, representing model in
@@ -17,13 +26,31 @@ import java.util.Observable;
  */
 public class PaintModel extends Observable {
     /**
-     * ArrayList object the holds all the drawable shapes the user has drawn.
+     * Object passed to the observers when the only change is that points were added to the
+     * end of the current drawable.
      */
-    private final ArrayList<Drawable> drawables = new ArrayList<>();
+    public static final Object CURRENT_DRAWABLE_GROWN = "currentDrawableGrown";
+    /**
+     * Object passed to the observers when the only change is that the rubber band moved or
+     * was hidden.
+     */
+    public static final Object RUBBER_BAND_MOVED = "rubberBandMoved";
+    /**
+     * Document object that holds the current version of all the drawable shapes the user has drawn.
+     */
+    private Document document = Document.EMPTY;
     /**
      * Drawable object that represents the current drawable shape.
      */
     private Drawable currentDrawable = null;
+    /**
+     * RubberBand object that represents the line from a multi-point tool's last point to the mouse.
+     */
+    private final RubberBand rubberBand = new RubberBand();
+    /**
+     * RasterLayer object that holds the pixels painted with the brush, drawn over the shapes.
+     */
+    private final RasterLayer rasterLayer = new RasterLayer();
     /**
      * CommandManager that allows us to execute or undo command actions.
      */
@@ -32,29 +59,255 @@ public class PaintModel extends Observable {
      * ArrayList object the holds all the selected drawable shapes the user has selected.
      */
     private final List<Drawable> selectedShapes = new ArrayList<>();
+    /**
+     * long object that counts the notifications sent to the observers.
+     */
+    private long notifications = 0;
+    /**
+     * int object that counts the nested batches that are deferring notifications.
+     */
+    private int batchDepth = 0;
+    /**
+     * Boolean that is true if a notification was deferred by the current batch, else false.
+     */
+    private boolean notificationPending = false;
+    /**
+     * Object that represents the argument of the deferred notifications, or null if they
+     * had different arguments.
+     */
+    private Object pendingArg = null;
+    /**
+     * Set of the shapes being dragged, which are drawn translated by (moveDX, moveDY) until
+     * the move is committed.
+     */
+    private final Set<Drawable> movingShapes = Collections.newSetFromMap(new IdentityHashMap<>());
+    /**
+     * double object moveDX, moveDY that represents how far the shapes being dragged are drawn
+     * from their position.
+     */
+    private double moveDX, moveDY;
 
     /**
-     * Adds the drawable shape to our drawables ArrayLst without notifying the observers.
+     * Adds the drawable shape to our document without notifying the observers.
      * @param d
      */
     public void addDrawableQuiet(Drawable d) {
-        drawables.add(d);
+        setDocument(document.with(d));
     }
 
     /**
-     * Removes the drawable shape from our drawables ArrayLst without notifying the observers.
+     * Removes the drawable shape from our document without notifying the observers.
      * @param d
      */
     public void removeDrawableQuiet(Drawable d) {
-        drawables.remove(d);
+        setDocument(document.without(Set.of(d)));
     }
 
     /**
-     * RETURNS the ArrayList containing the drawn drawable shapes.
-     * @return drawables ArrayList
+     * RETURNS the drawn drawable shapes, from bottom to top. The list is the current version
+     * of the document and never changes.
+     * @return the document attribute
      */
-    public ArrayList<Drawable> getDrawables() {
-        return drawables;
+    public List<Drawable> getDrawables() {
+        return document;
+    }
+
+    /**
+     * RETURNS the current version of the document. It never changes, so it can be read from
+     * another thread, such as by an export or autosave, while the user keeps drawing.
+     * @return the document attribute
+     */
+    public Document getDocument() {
+        return document;
+    }
+
+    /**
+     * Changes the current version of the document without notifying the observers, used by
+     * the commands to apply, undo and redo their changes. Selected shapes that are not in the
+     * new version are unselected.
+     * @param document
+     */
+    public void setDocument(Document document) {
+        this.document = document;
+        if (!selectedShapes.isEmpty()) {
+            Set<Drawable> missing = Collections.newSetFromMap(new IdentityHashMap<>());
+            missing.addAll(selectedShapes);
+            for (Drawable d : document) {
+                if (missing.remove(d) && missing.isEmpty()) {
+                    break;
+                }
+            }
+            selectedShapes.removeAll(missing);
+        }
+    }
+
+    /**
+     * RETURNS the shape being drawn, which is not part of the document yet.
+     * @return the currentDrawable attribute, or null if no shape is being drawn.
+     */
+    public Drawable getCurrentDrawable() {
+        return currentDrawable;
+    }
+
+    /**
+     * RETURNS the raster layer painted on by the brush.
+     * @return the rasterLayer attribute
+     */
+    public RasterLayer getRasterLayer() {
+        return rasterLayer;
+    }
+
+    /**
+     * Starts a change to the raster layer, such as a brush stroke, that is undone as one.
+     */
+    public void beginRasterEdit() {
+        rasterLayer.beginEdit();
+    }
+
+    /**
+     * Updates the observers after pixels of the raster layer were painted.
+     */
+    public void rasterChanged() {
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Ends the change to the raster layer started by beginRasterEdit, making it undoable if
+     * it changed any tiles.
+     */
+    public void endRasterEdit() {
+        Map<Long, int[]> before = rasterLayer.endEdit();
+        if (before.isEmpty()) {
+            return;
+        }
+        commandManager.execute(new RasterEdit(rasterLayer, before));
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Fills the area enclosed by the shapes and the brush strokes around the point (x, y) with
+     * color, adding the filled region on top of the shapes as an undoable command.
+     * @param x
+     * @param y
+     * @param color
+     * @return the region that was added, or null if the point is on a shape or a brush
+     * stroke, or is not enclosed by them.
+     */
+    public FillRegion fillAt(double x, double y, Color color) {
+        FillRegion region = FloodFill.fill(document, rasterLayer, x, y, color);
+        if (region != null) {
+            addDrawableWithCommandNoSelect(region);
+        }
+        return region;
+    }
+
+    /**
+     * Erases the parts of the erasable shapes within radius of the path through the points
+     * (xs[i], ys[i]), splitting them into the pieces that are left, as one undoable command
+     * that is merged with the earlier ones of the same gesture. Circles are erased along the
+     * path close enough together that no part of it is skipped, and only the shapes whose
+     * bounds meet the path are tried.
+     * @param xs
+     * @param ys
+     * @param radius
+     * @param gesture the drag the erasing is part of.
+     * @return the number of shapes erased.
+     */
+    public int erase(double[] xs, double[] ys, double radius, Object gesture) {
+        double minX = xs[0], minY = ys[0], maxX = minX, maxY = minY;
+        for (int i = 1; i < xs.length; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        double spacing = Math.max(0.5, radius / 2);
+        int count = 1;
+        for (int i = 1; i < xs.length; i++) {
+            count += Math.max(1, (int) Math.ceil(Math.hypot(xs[i] - xs[i - 1], ys[i] - ys[i - 1]) / spacing));
+        }
+        double[] sampleX = new double[count], sampleY = new double[count];
+        sampleX[0] = xs[0];
+        sampleY[0] = ys[0];
+        int n = 1;
+        for (int i = 1; i < xs.length; i++) {
+            int steps = Math.max(1, (int) Math.ceil(Math.hypot(xs[i] - xs[i - 1], ys[i] - ys[i - 1]) / spacing));
+            for (int step = 1; step <= steps; step++) {
+                double t = (double) step / steps;
+                sampleX[n] = xs[i - 1] + (xs[i] - xs[i - 1]) * t;
+                sampleY[n++] = ys[i - 1] + (ys[i] - ys[i - 1]) * t;
+            }
+        }
+        Map<Drawable, List<Drawable>> pieces = new IdentityHashMap<>();
+        for (Drawable d : ShapeQuery.intersecting(document, minX - radius, minY - radius,
+                maxX + radius, maxY + radius)) {
+            if (!(d instanceof Erasable)) {
+                continue;
+            }
+            List<Drawable> left = List.of(d);
+            boolean erased = false;
+            for (int i = 0; i < count; i++) {
+                List<Drawable> next = new ArrayList<>();
+                for (Drawable piece : left) {
+                    List<Drawable> split = ((Erasable) piece).erase(sampleX[i], sampleY[i], radius);
+                    if (split == null) {
+                        next.add(piece);
+                    } else {
+                        next.addAll(split);
+                        erased = true;
+                    }
+                }
+                left = next;
+            }
+            if (erased) {
+                pieces.put(d, left);
+            }
+        }
+        if (pieces.isEmpty()) {
+            return 0;
+        }
+        commandManager.execute(new Erase(this, pieces, gesture));
+        setChanged();
+        notifyObservers();
+        return pieces.size();
+    }
+
+    /**
+     * RETURNS the rubber band line of the multi-point tools.
+     * @return the rubberBand attribute
+     */
+    public RubberBand getRubberBand() {
+        return rubberBand;
+    }
+
+    /**
+     * Shows the rubber band as the line from (x1, y1) to (x2, y2), notifying the observers
+     * with RUBBER_BAND_MOVED so they only redraw the line.
+     * @param x1
+     * @param y1
+     * @param x2
+     * @param y2
+     * @param color
+     * @param lineWidth
+     */
+    public void moveRubberBand(double x1, double y1, double x2, double y2, Color color, double lineWidth) {
+        rubberBand.set(x1, y1, x2, y2, color, lineWidth);
+        setChanged();
+        notifyObservers(RUBBER_BAND_MOVED);
+    }
+
+    /**
+     * Hides the rubber band if it is shown, notifying the observers with RUBBER_BAND_MOVED.
+     */
+    public void hideRubberBand() {
+        if (!rubberBand.isVisible()) {
+            return;
+        }
+        rubberBand.hide();
+        setChanged();
+        notifyObservers(RUBBER_BAND_MOVED);
     }
 
     /**
@@ -68,6 +321,15 @@ public class PaintModel extends Observable {
         notifyObservers();
     }
 
+    /**
+     * Updates the observers after points were added to the end of the current drawable, and
+     * nothing else changed, passing CURRENT_DRAWABLE_GROWN so they may draw only the new part.
+     */
+    public void currentDrawableGrown() {
+        setChanged();
+        notifyObservers(CURRENT_DRAWABLE_GROWN);
+    }
+
     /**
      * Clears the currentDrawable shape while notifying the observers to invoke
      * the update method.
@@ -78,57 +340,193 @@ public class PaintModel extends Observable {
         notifyObservers();
     }
 
+    /**
+     * double object that represents how far, in document units, a shape's stroke may reach
+     * past its bounds. Shapes are only culled once they are further than this outside the view.
+     */
+    private static final double CULL_MARGIN = 10;
+
     /**
      * Draws the current drawable shape. While drawing the outline for the
      * selected objects.
      * @param g2d input
      */
-    public void draw(GraphicsContext g2d) {
-        for (Drawable d : drawables) {
-            d.draw(g2d);
+    public void draw(DrawingSurface g2d) {
+        draw(g2d, null, 1.0);
+    }
+
+    /**
+     * Draws the drawable shapes that intersect the visible area at the given view scale.
+     * Shapes outside the visible area are skipped and shapes smaller than a pixel are
+     * drawn as a single dot, so the cost of a frame depends on what is on screen rather
+     * than on the size of the document. While drawing the outline for the selected objects.
+     * @param g2d input, already transformed into document coordinates
+     * @param visible the visible bounds {x, y, width, height} in document coordinates,
+     *                or null to draw everything
+     * @param scale the number of screen pixels per document unit
+     */
+    public void draw(DrawingSurface g2d, double[] visible, double scale) {
+        draw(g2d, visible, scale, null);
+    }
+
+    /**
+     * Draws the drawable shapes that intersect the visible area at the given view scale,
+     * recording what was drawn and culled in metrics.
+     * @param g2d input, already transformed into document coordinates
+     * @param visible the visible bounds {x, y, width, height} in document coordinates,
+     *                or null to draw everything
+     * @param scale the number of screen pixels per document unit
+     * @param metrics the metrics of the frame being drawn, or null
+     */
+    public void draw(DrawingSurface g2d, double[] visible, double scale, RenderMetrics metrics) {
+        double pixel = 1 / scale;
+        boolean anyMoving = !movingShapes.isEmpty();
+        for (Drawable d : document) {
+            boolean moved = anyMoving && movingShapes.contains(d);
+            if (visible == null) {
+                drawShape(g2d, d, scale, moved);
+                if (metrics != null) metrics.shapeDrawn(d instanceof ImageS);
+                continue;
+            }
+            double[] b = d.getBounds();
+            if (moved) {
+                b[0] += moveDX;
+                b[1] += moveDY;
+            }
+            if (b[0] + b[2] < visible[0] - CULL_MARGIN || b[0] > visible[0] + visible[2] + CULL_MARGIN
+                    || b[1] + b[3] < visible[1] - CULL_MARGIN || b[1] > visible[1] + visible[3] + CULL_MARGIN) {
+                if (metrics != null) metrics.shapeCulled();
+                continue;
+            }
+            if (b[2] < pixel && b[3] < pixel) {
+                g2d.setFill(d.getColor());
+                g2d.fillRect(b[0], b[1], pixel, pixel);
+            } else {
+                drawShape(g2d, d, scale, moved);
+            }
+            if (metrics != null) metrics.shapeDrawn(d instanceof ImageS);
         }
+        rasterLayer.draw(g2d, visible);
         if (currentDrawable != null) {
-            currentDrawable.draw(g2d);
+            currentDrawable.draw(g2d, scale);
         }
-        selectedShapes.removeIf(shape -> !drawables.contains(shape));
+        long selectionStart = System.nanoTime();
         if (!selectedShapes.isEmpty()) {
-            g2d.setStroke(Color.DODGERBLUE);
-            g2d.setLineWidth(2);
-            g2d.setLineDashes(8, 8);
+            double padding = 5 * pixel;
+            double handleSize = 6 * pixel;
+            double[] outlines = new double[selectedShapes.size() * 4];
+            int n = 0;
             for (Drawable selected : selectedShapes) {
                 double[] bounds = selected.getBounds();
-                double x = bounds[0];
-                double y = bounds[1];
-                double width = bounds[2];
-                double height = bounds[3];
-                double padding = 5;
-                g2d.strokeRect(x - padding, y - padding, width + padding * 2, height + padding * 2);
-                double handleSize = 6;
-                g2d.setFill(Color.DODGERBLUE);
-                g2d.setLineDashes(0);
-                g2d.fillRect(x - padding - handleSize / 2, y - padding - handleSize / 2, handleSize, handleSize);
-                g2d.fillRect(x + width + padding - handleSize / 2, y - padding - handleSize / 2, handleSize, handleSize);
-                g2d.fillRect(x - padding - handleSize / 2, y + height + padding - handleSize / 2, handleSize, handleSize);
-                g2d.fillRect(x + width + padding - handleSize / 2, y + height + padding - handleSize / 2, handleSize, handleSize);
-                g2d.setLineDashes(8, 8);
+                boolean moved = anyMoving && movingShapes.contains(selected);
+                outlines[n++] = bounds[0] + (moved ? moveDX : 0) - padding;
+                outlines[n++] = bounds[1] + (moved ? moveDY : 0) - padding;
+                outlines[n++] = bounds[2] + padding * 2;
+                outlines[n++] = bounds[3] + padding * 2;
+            }
+            g2d.setStroke(Color.DODGERBLUE);
+            g2d.setLineWidth(2 * pixel);
+            g2d.setLineDashes(8 * pixel, 8 * pixel);
+            for (int i = 0; i < n; i += 4) {
+                g2d.strokeRect(outlines[i], outlines[i + 1], outlines[i + 2], outlines[i + 3]);
             }
             g2d.setLineDashes(0);
+            g2d.setFill(Color.DODGERBLUE);
+            for (int i = 0; i < n; i += 4) {
+                double left = outlines[i] - handleSize / 2;
+                double top = outlines[i + 1] - handleSize / 2;
+                double right = left + outlines[i + 2];
+                double bottom = top + outlines[i + 3];
+                g2d.fillRect(left, top, handleSize, handleSize);
+                g2d.fillRect(right, top, handleSize, handleSize);
+                g2d.fillRect(left, bottom, handleSize, handleSize);
+                g2d.fillRect(right, bottom, handleSize, handleSize);
+            }
+        }
+        g2d.setLineDashes(0);
+        if (metrics != null) {
+            metrics.selectionDrawn(selectedShapes.size(), System.nanoTime() - selectionStart);
+        }
+    }
+
+    /**
+     * Draws the drawable d, translated by the drag offset if it is being dragged.
+     * @param g2d
+     * @param d
+     * @param scale
+     * @param moved
+     */
+    private void drawShape(DrawingSurface g2d, Drawable d, double scale, boolean moved) {
+        if (!moved) {
+            d.draw(g2d, scale);
+            return;
+        }
+        g2d.save();
+        g2d.translate(moveDX, moveDY);
+        d.draw(g2d, scale);
+        g2d.restore();
+    }
 
+    /**
+     * Counts the notification then notifies the observers. Inside a batch the notification
+     * is deferred until the batch ends.
+     * @param arg an argument passed to the observers.
+     */
+    @Override
+    public void notifyObservers(Object arg) {
+        if (batchDepth > 0) {
+            if (hasChanged()) {
+                pendingArg = notificationPending && pendingArg != arg ? null : arg;
+                notificationPending = true;
+            }
+            return;
         }
+        notifications++;
+        super.notifyObservers(arg);
+    }
 
-        g2d.setLineDashes(0);
+    /**
+     * Starts a batch of changes, during which the observers are not notified.
+     * Batches may be nested.
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * Ends a batch of changes, notifying the observers once if anything changed during
+     * the outermost batch.
+     */
+    public void endBatch() {
+        if (batchDepth == 0 || --batchDepth > 0 || !notificationPending) {
+            return;
+        }
+        Object arg = pendingArg;
+        notificationPending = false;
+        pendingArg = null;
+        setChanged();
+        notifyObservers(arg);
+    }
+
+    /**
+     * RETURNS the number of notifications the model has sent to its observers.
+     * @return the notifications attribute
+     */
+    public long getNotificationCount() {
+        return notifications;
     }
 
     /**
      * Executes the command on the drawable d then clears the selected shapes and add
      * drawable d the selected shapes while notifying the observers to invoke.
-     * the update method.
+     * the update method. The shape is compacted first, while it is not in the document yet.
      * @param d
      */
     public void addDrawableWithCommand(Drawable d) {
+        d.compact();
         Command c = new AddCommand(this, d);
-        commandManager.execute(c);
         selectedShapes.clear();
+        commandManager.execute(c);
         selectedShapes.add(d);
         setChanged();
         notifyObservers();
@@ -138,6 +536,7 @@ public class PaintModel extends Observable {
      * Undoes the most recent command acton.
      */
     public void undo() {
+        selectedShapes.clear();
         commandManager.undo();
         clearSelection();
     }
@@ -146,6 +545,7 @@ public class PaintModel extends Observable {
      * Redoes the most recent command acton that was undone.
      */
     public void redo() {
+        selectedShapes.clear();
         commandManager.redo();
         clearSelection();
     }
@@ -157,17 +557,59 @@ public class PaintModel extends Observable {
      */
     public void selectShapeAt(double x, double y) {
         selectedShapes.clear();
-        for (int i = drawables.size() - 1; i >= 0; i--) {
-            Drawable s = drawables.get(i);
-            if (s.contains(x, y)) {
-                selectedShapes.add(s);
-                break;
-            }
+        Drawable s = getShapeAt(x, y);
+        if (s != null) {
+            selectedShapes.add(s);
         }
         setChanged();
         notifyObservers();
     }
 
+    /**
+     * RETURNS the topmost shape that contains the point (x, y). Documents of at least
+     * ShapeQuery.PARALLEL_THRESHOLD shapes are searched in parallel.
+     * @param x
+     * @param y
+     * @return the shape at (x, y), or null if there is none.
+     */
+    public Drawable getShapeAt(double x, double y) {
+        HitTestEvent event = new HitTestEvent();
+        event.begin();
+        int index = ShapeQuery.indexOfTopmostAt(document, x, y);
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = ShapeQuery.isParallel(document.size()) ? "click (parallel)" : "click";
+            event.candidatesTested = document.size() - Math.max(index, 0);
+            event.hits = index < 0 ? 0 : 1;
+            event.commit();
+        }
+        return index < 0 ? null : document.get(index);
+    }
+
+    /**
+     * RETURNS the shapes whose bounds intersect the rectangle from (x1, y1) to (x2, y2),
+     * from bottom to top. Documents of at least ShapeQuery.PARALLEL_THRESHOLD shapes are
+     * searched in parallel.
+     * @param x1 the left of the rectangle
+     * @param y1 the top of the rectangle
+     * @param x2 the right of the rectangle
+     * @param y2 the bottom of the rectangle
+     * @return the shapes intersecting the rectangle.
+     */
+    public List<Drawable> getShapesIntersecting(double x1, double y1, double x2, double y2) {
+        HitTestEvent event = new HitTestEvent();
+        event.begin();
+        List<Drawable> found = ShapeQuery.intersecting(document, x1, y1, x2, y2);
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = ShapeQuery.isParallel(document.size()) ? "marquee (parallel)" : "marquee";
+            event.candidatesTested = document.size();
+            event.hits = found.size();
+            event.commit();
+        }
+        return found;
+    }
+
     /**
      * Clear the selected shapes and update the observers.
      */
@@ -201,8 +643,8 @@ public class PaintModel extends Observable {
     public void cut() {
         if (!selectedShapes.isEmpty()) {
             Command c = new Cut(this, selectedShapes);
-            commandManager.execute(c);
             selectedShapes.clear();
+            commandManager.execute(c);
             setChanged();
             notifyObservers();
         }
@@ -214,8 +656,8 @@ public class PaintModel extends Observable {
     public void delete() {
         if (!selectedShapes.isEmpty()) {
             Command c = new Delete(this, selectedShapes);
-            commandManager.execute(c);
             selectedShapes.clear();
+            commandManager.execute(c);
             setChanged();
             notifyObservers();
         }
@@ -227,10 +669,10 @@ public class PaintModel extends Observable {
     public void paste() {
         if (!Clipboard.getInstance().isEmpty()) {
             Command c = new Paste(this);
+            selectedShapes.clear();
             commandManager.execute(c);
             List<Drawable> pasted = ((Paste) c).getPastedshapes();
             if (pasted != null) {
-                selectedShapes.clear();
                 selectedShapes.addAll(pasted);
                 setChanged();
                 notifyObservers();
@@ -239,16 +681,53 @@ public class PaintModel extends Observable {
     }
 
     /**
-     * Creates a new delete command and executes it on the selected shapes
+     * Creates a new move command and executes it on the selected shapes, which are replaced
+     * in the selection by their moved copies.
+     * @param dx
+     * @param dy
      */
     public void moveSelectedBy(double dx, double dy) {
         if (this.getSelectedShapes() == null || this.getSelectedShapes().isEmpty()) return;
-        Command c = new Move(new java.util.ArrayList<>(this.getSelectedShapes()), dx, dy);
+        Move c = new Move(this, this.getSelectedShapes(), dx, dy);
+        selectedShapes.clear();
         this.commandManager.execute(c);
+        selectedShapes.addAll(c.getMovedShapes());
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Starts drawing the shapes as being dragged. They are drawn translated by the offset
+     * given to setMovePreviewOffset, without changing them, until endMovePreview is called.
+     * @param shapes
+     */
+    public void beginMovePreview(List<Drawable> shapes) {
+        movingShapes.clear();
+        movingShapes.addAll(shapes);
+        moveDX = moveDY = 0;
+    }
+
+    /**
+     * Changes how far the shapes being dragged are drawn from their position while
+     * notifying the observers to invoke the update method.
+     * @param dx
+     * @param dy
+     */
+    public void setMovePreviewOffset(double dx, double dy) {
+        moveDX = dx;
+        moveDY = dy;
         setChanged();
         notifyObservers();
     }
 
+    /**
+     * Stops drawing the shapes as being dragged, without notifying the observers.
+     */
+    public void endMovePreview() {
+        movingShapes.clear();
+        moveDX = moveDY = 0;
+    }
+
     /**
      * updates the observers to initiate the move action.
      */
@@ -259,10 +738,11 @@ public class PaintModel extends Observable {
 
     /**
      * Executes the command on the drawable d while notifying the observers to invoke.
-     * the update method.
+     * the update method. The shape is compacted first, while it is not in the document yet.
      * @param d
      */
     public void addDrawableWithCommandNoSelect(Drawable d) {
+        d.compact();
         Command c = new AddCommand(this, d);
         commandManager.execute(c);
         setChanged();
@@ -286,23 +766,17 @@ public class PaintModel extends Observable {
      * @param color
      */
     public void updateSelectedShapesColor(Color color) {
-        for (Drawable d : selectedShapes) {
-            d.setColor(color);
-        }
-        setChanged();
-        notifyObservers();
+        restyleSelected(d -> d.setColor(color), new Object());
     }
 
     /**
-     * Updates the line width for all the selected shapes.
+     * Updates the line width for all the selected shapes, as part of the slider drag gesture.
+     * The changes of one drag are undone as one.
      * @param lineWidth
+     * @param gesture the drag the change is part of.
      */
-    public void updateSelectedShapesLineWidth(double lineWidth) {
-        for (Drawable d : selectedShapes) {
-            d.setLineWidth(lineWidth);
-        }
-        setChanged();
-        notifyObservers();
+    public void updateSelectedShapesLineWidth(double lineWidth, Object gesture) {
+        restyleSelected(d -> d.setLineWidth(lineWidth), gesture);
     }
 
     /**
@@ -310,8 +784,21 @@ public class PaintModel extends Observable {
      * @param fillStyle
      */
     public void updateSelectedShapesFillStyle(FillStyle fillStyle) {
-        for (Drawable d : selectedShapes) {
-            d.setFillStyle(fillStyle);
+        restyleSelected(d -> d.setFillStyle(fillStyle), new Object());
+    }
+
+    /**
+     * Executes a restyle command on the selected shapes, which are replaced in the selection
+     * by their restyled copies, then updates the observers.
+     * @param change the change made to each shape
+     * @param gesture the gesture the change is part of
+     */
+    private void restyleSelected(Consumer<Drawable> change, Object gesture) {
+        if (!selectedShapes.isEmpty()) {
+            Restyle c = new Restyle(this, getSelectedShapes(), change, gesture);
+            selectedShapes.clear();
+            commandManager.execute(c);
+            selectedShapes.addAll(c.getRestyledShapes());
         }
         setChanged();
         notifyObservers();
@@ -1,13 +1,25 @@
 package paint.app;
 
+import paint.jfr.RepaintEvent;
+import paint.log.EventLog;
+import paint.render.DrawingSurface;
+import paint.render.GraphicsContextSurface;
+import paint.render.StateTrackingSurface;
+import paint.shapes.Squiggle;
 import paint.strategy.DrawingStrategy;
+import javafx.animation.AnimationTimer;
 import javafx.event.EventHandler;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.input.ZoomEvent;
 import javafx.scene.paint.Color;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Observable;
 import java.util.Observer;
 
@@ -43,6 +55,69 @@ public class PaintPanel extends Canvas implements EventHandler<MouseEvent>, Obse
      * The default fill style is filled.
      */
     private FillStyle currentFillStyle = FillStyle.FILLED;
+    /**
+     * Viewport object that represents the zoom and pan of the panel over the document.
+     */
+    private final Viewport viewport = new Viewport();
+    /**
+     * Boolean that is true while the view is being panned with the middle mouse button, else false.
+     */
+    private boolean panning = false;
+    /**
+     * double object panX, panY that represents the last screen position of the mouse
+     * while panning.
+     */
+    private double panX, panY;
+    /**
+     * DrawingSurface object that draws onto this canvas' graphics context, dropping state
+     * changes that change nothing.
+     */
+    private final StateTrackingSurface surface;
+    /**
+     * RenderMetrics object that records the cost of each repaint.
+     */
+    private final RenderMetrics metrics = new RenderMetrics();
+    /**
+     * Boolean that is true if the performance overlay is drawn over the canvas, else false.
+     */
+    private boolean hudVisible = false;
+    /**
+     * ArrayList object that holds the drag events, in document coordinates, that arrived
+     * since the last frame and have not been given to the strategy yet.
+     */
+    private final List<MouseEvent> pendingDrags = new ArrayList<>();
+    /**
+     * AnimationTimer that gives the pending drag events to the strategy once per frame.
+     * It only runs while there are pending drag events.
+     */
+    private final AnimationTimer inputTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            flushInput();
+        }
+    };
+
+    /**
+     * Canvas object that is laid over this canvas and only holds the rubber band line, so the
+     * line can be erased and redrawn without repainting the document.
+     */
+    private final Canvas overlay = new Canvas();
+    /**
+     * DrawingSurface object that draws onto the overlay's graphics context.
+     */
+    private final DrawingSurface overlaySurface = new GraphicsContextSurface(overlay.getGraphicsContext2D());
+    /**
+     * Screen area {x, y, width, height} covered by the rubber band drawn on the overlay, and
+     * a boolean that is true if one is drawn.
+     */
+    private final double[] drawnBand = new double[4];
+    private boolean bandDrawn = false;
+    /**
+     * Squiggle object that represents the in-progress squiggle last drawn onto the canvas,
+     * and the number of its points drawn so far, so when it grows only the new part is drawn.
+     */
+    private Squiggle drawnSquiggle = null;
+    private int drawnSquigglePoints = 0;
 
     /**
      * Change the color of the paint panel shapes to the color given.
@@ -68,28 +143,40 @@ public class PaintPanel extends Canvas implements EventHandler<MouseEvent>, Obse
     public PaintPanel(PaintModel model) {
         this.model = model;
         this.model.addObserver(this);
+        this.surface = new StateTrackingSurface(new GraphicsContextSurface(this.getGraphicsContext2D()));
         this.widthProperty().addListener(evt -> update(model, null));
         this.heightProperty().addListener(evt -> update(model, null));
         this.addEventHandler(MouseEvent.ANY, this);
+        this.addEventHandler(ScrollEvent.SCROLL, this::handleScroll);
+        this.addEventHandler(ZoomEvent.ZOOM, this::handleZoom);
         this.setFocusTraversable(true);
         this.setOnKeyPressed(this::handleKeyPress);
         this.setOnMouseEntered(e -> this.requestFocus());
+        this.overlay.setMouseTransparent(true);
+        this.overlay.widthProperty().bind(this.widthProperty());
+        this.overlay.heightProperty().bind(this.heightProperty());
     }
 
     /**
      * If the escape key is pressed the selected shapes are unselected.
      * If the delete key is pressed the selected shapes are deleted.
+     * If the shortcut key and 0 are pressed the zoom and pan are reset.
      * @param e keyEvent to get the key codes.
      */
     public void handleKeyPress(KeyEvent e) {
+        if (e.isShortcutDown() && e.getCode() == KeyCode.DIGIT0) {
+            viewport.reset();
+            update(model, null);
+            return;
+        }
         switch (e.getCode()) {
             case ESCAPE:
                 model.clearSelection();
-                System.out.println("Selection cleared with ESC key");
+                EventLog.info("Selection cleared with ESC key");
                 break;
             case DELETE:
                 model.delete();
-                System.out.println("Deleted with DELETE key");
+                EventLog.info("Deleted with DELETE key");
                 break;
         }
     }
@@ -99,9 +186,19 @@ public class PaintPanel extends Canvas implements EventHandler<MouseEvent>, Obse
      * @param strategy
      */
     public void setDrawingStrategy(DrawingStrategy strategy) {
+        flushInput();
+        model.hideRubberBand();
         this.currentStrategy = strategy;
     }
 
+    /**
+     * RETURNS the overlay canvas, which must be laid over this canvas at the same size.
+     * @return the overlay attribute
+     */
+    public Canvas getOverlay() {
+        return overlay;
+    }
+
     /**
      * Changes the fill style to the given FillStyle, style.
      * @param style
@@ -110,27 +207,257 @@ public class PaintPanel extends Canvas implements EventHandler<MouseEvent>, Obse
         this.currentFillStyle = style;
     }
 
+    /**
+     * RETURNS the viewport of the panel.
+     * @return the viewport attribute
+     */
+    public Viewport getViewport() {
+        return viewport;
+    }
+
+    /**
+     * RETURNS the metrics recorded for the panel's repaints.
+     * @return the metrics attribute
+     */
+    public RenderMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Shows or hides the performance overlay and repaints.
+     * @param visible
+     */
+    public void setHudVisible(boolean visible) {
+        this.hudVisible = visible;
+        update(model, null);
+    }
+
+    /**
+     * Gives the part of the document that is currently visible on the panel.
+     * @return the visible bounds {x, y, width, height} in document coordinates
+     */
+    public double[] getVisibleBounds() {
+        return viewport.getVisibleBounds(getWidth(), getHeight());
+    }
+
+    /**
+     * Pans the view when scrolling, or zooms around the mouse when scrolling with the
+     * shortcut key held down.
+     * @param e
+     */
+    private void handleScroll(ScrollEvent e) {
+        if (e.isShortcutDown()) {
+            viewport.zoomAt(Math.pow(1.0015, e.getDeltaY()), e.getX(), e.getY());
+        } else {
+            viewport.panBy(e.getDeltaX(), e.getDeltaY());
+        }
+        update(model, null);
+        e.consume();
+    }
+
+    /**
+     * Zooms around the gesture position for touchpad pinch gestures.
+     * @param e
+     */
+    private void handleZoom(ZoomEvent e) {
+        viewport.zoomAt(e.getZoomFactor(), e.getX(), e.getY());
+        update(model, null);
+        e.consume();
+    }
+
     /**
      * Runs the drawing strategy for the specific drawable shape, which handles the drawing process
-     * when the shape is being drawn.
+     * when the shape is being drawn. The middle mouse button pans the view instead, and every
+     * other event is mapped into document coordinates before it reaches the strategy.
+     * Drag events are buffered and given to the strategy together once per frame, so every
+     * sample is kept while the canvas is only redrawn once; any other event first hands over
+     * the buffered drags so the strategy sees the events in order.
      * @param mouseEvent
      */
     @Override
     public void handle(MouseEvent mouseEvent) {
-        if (this.currentStrategy != null) {
-            currentStrategy.handle(mouseEvent, model, currentColor, currentLineWidth, currentFillStyle);
+        if (handlePan(mouseEvent)) {
+            return;
+        }
+        if (this.currentStrategy == null) {
+            return;
+        }
+        if (mouseEvent.getEventType() == MouseEvent.MOUSE_DRAGGED) {
+            if (pendingDrags.isEmpty()) {
+                inputTimer.start();
+            }
+            pendingDrags.add(toDocumentEvent(mouseEvent));
+            return;
+        }
+        flushInput();
+        currentStrategy.handle(toDocumentEvent(mouseEvent), model, currentColor, currentLineWidth, currentFillStyle);
+    }
+
+    /**
+     * Gives the buffered drag events to the strategy as one batch, notifying the observers
+     * at most once for the whole batch.
+     */
+    private void flushInput() {
+        inputTimer.stop();
+        if (pendingDrags.isEmpty()) {
+            return;
+        }
+        List<MouseEvent> events = new ArrayList<>(pendingDrags);
+        pendingDrags.clear();
+        if (this.currentStrategy == null) {
+            return;
+        }
+        model.beginBatch();
+        try {
+            currentStrategy.handleBatch(events, model, currentColor, currentLineWidth, currentFillStyle);
+        } finally {
+            model.endBatch();
+        }
+    }
+
+    /**
+     * Pans the view while the middle mouse button is dragged.
+     * @param e
+     * @return true if the event was used for panning, otherwise false.
+     */
+    private boolean handlePan(MouseEvent e) {
+        if (e.getEventType() == MouseEvent.MOUSE_PRESSED && e.getButton() == MouseButton.MIDDLE) {
+            panning = true;
+            panX = e.getX();
+            panY = e.getY();
+            return true;
+        }
+        if (!panning) {
+            return false;
+        }
+        if (e.getEventType() == MouseEvent.MOUSE_DRAGGED) {
+            viewport.panBy(e.getX() - panX, e.getY() - panY);
+            panX = e.getX();
+            panY = e.getY();
+            update(model, null);
+        } else if (e.getEventType() == MouseEvent.MOUSE_RELEASED && e.getButton() == MouseButton.MIDDLE) {
+            panning = false;
         }
+        return true;
     }
 
     /**
-     * Updates the shapes drawings in the paint panel.
+     * Gives a copy of the screen space mouse event e with its position in document coordinates.
+     * @param e
+     * @return the mouse event in document coordinates
+     */
+    private MouseEvent toDocumentEvent(MouseEvent e) {
+        return new MouseEvent(this, e.getTarget(), e.getEventType(),
+                viewport.toDocumentX(e.getX()), viewport.toDocumentY(e.getY()),
+                e.getScreenX(), e.getScreenY(), e.getButton(), e.getClickCount(),
+                e.isShiftDown(), e.isControlDown(), e.isAltDown(), e.isMetaDown(),
+                e.isPrimaryButtonDown(), e.isMiddleButtonDown(), e.isSecondaryButtonDown(),
+                e.isSynthesized(), e.isPopupTrigger(), e.isStillSincePress(), null);
+    }
+
+    /**
+     * Updates the shapes drawings in the paint panel, drawing only the part of the document
+     * that is visible through the viewport.
      * @param o     the observable object.
      * @param arg   an argument passed to the {@code notifyObservers} method.
      */
     @Override
     public void update(Observable o, Object arg) {
-        GraphicsContext g2d = this.getGraphicsContext2D();
+        if (arg == PaintModel.RUBBER_BAND_MOVED) {
+            drawRubberBand();
+            return;
+        }
+        if (arg == PaintModel.CURRENT_DRAWABLE_GROWN && !hudVisible
+                && drawnSquiggle != null && drawnSquiggle == model.getCurrentDrawable()) {
+            drawSquiggleGrowth();
+            return;
+        }
+        DrawingSurface g2d = this.surface;
+        RepaintEvent event = new RepaintEvent();
+        event.begin();
+        metrics.beginFrame();
+        long forwarded = surface.getForwarded();
+        long skipped = surface.getSkipped();
         g2d.clearRect(0, 0, this.getWidth(), this.getHeight());
-        model.draw(g2d);
+        g2d.save();
+        viewport.apply(g2d);
+        model.draw(g2d, getVisibleBounds(), viewport.getScale(), metrics);
+        g2d.restore();
+        metrics.stateChanges(surface.getForwarded() - forwarded, surface.getSkipped() - skipped);
+        metrics.endFrame(model.getNotificationCount());
+        event.end();
+        if (event.shouldCommit()) {
+            event.shapesDrawn = metrics.getShapesDrawn();
+            event.shapesCulled = metrics.getShapesCulled();
+            event.selectedShapes = metrics.getSelectedShapes();
+            event.commit();
+        }
+        if (hudVisible) {
+            drawHud(g2d);
+        }
+        drawnSquiggle = model.getCurrentDrawable() instanceof Squiggle s ? s : null;
+        drawnSquigglePoints = drawnSquiggle == null ? 0 : drawnSquiggle.size();
+        drawRubberBand();
+    }
+
+    /**
+     * Erases the rubber band last drawn on the overlay and draws the model's current one,
+     * touching only the screen areas of the old and new lines.
+     */
+    private void drawRubberBand() {
+        if (bandDrawn) {
+            overlaySurface.clearRect(drawnBand[0], drawnBand[1], drawnBand[2], drawnBand[3]);
+            bandDrawn = false;
+        }
+        RubberBand band = model.getRubberBand();
+        if (!band.isVisible()) {
+            return;
+        }
+        double scale = viewport.getScale();
+        double x1 = viewport.toScreenX(band.getX1());
+        double y1 = viewport.toScreenY(band.getY1());
+        double x2 = viewport.toScreenX(band.getX2());
+        double y2 = viewport.toScreenY(band.getY2());
+        double width = band.getLineWidth() * scale;
+        overlaySurface.setStroke(band.getColor());
+        overlaySurface.setLineWidth(width);
+        overlaySurface.setLineDashes(8 * scale);
+        overlaySurface.strokeLine(x1, y1, x2, y2);
+        overlaySurface.setLineDashes();
+        double padding = width + 2;
+        drawnBand[0] = Math.min(x1, x2) - padding;
+        drawnBand[1] = Math.min(y1, y2) - padding;
+        drawnBand[2] = Math.abs(x2 - x1) + padding * 2;
+        drawnBand[3] = Math.abs(y2 - y1) + padding * 2;
+        bandDrawn = true;
+    }
+
+    /**
+     * Draws the points added to the in-progress squiggle since it was last drawn on top of
+     * what the canvas already shows, instead of repainting the document, so each frame of a
+     * long stroke costs the same however long the stroke already is.
+     */
+    private void drawSquiggleGrowth() {
+        metrics.beginFrame();
+        surface.save();
+        viewport.apply(surface);
+        drawnSquigglePoints = drawnSquiggle.drawFrom(surface, drawnSquigglePoints);
+        surface.restore();
+        metrics.endFrame(model.getNotificationCount());
+    }
+
+    /**
+     * Draws the performance overlay in the top left corner of the canvas.
+     * @param g2d
+     */
+    private void drawHud(DrawingSurface g2d) {
+        String[] lines = metrics.toLines();
+        double lineHeight = 16;
+        g2d.setFill(Color.color(0, 0, 0, 0.6));
+        g2d.fillRect(4, 4, 280, lines.length * lineHeight + 8);
+        g2d.setFill(Color.LIME);
+        for (int i = 0; i < lines.length; i++) {
+            g2d.fillText(lines[i], 10, 20 + i * lineHeight);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,381 @@
+package paint.app;
+
+import paint.log.EventLog;
+import paint.shapes.Circle;
+import paint.shapes.Drawable;
+import paint.shapes.Oval;
+import paint.shapes.Point;
+import paint.shapes.Rectangle;
+import paint.shapes.Square;
+import paint.shapes.Triangle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The shapes of one version of the drawing laid out as columns, so click and marquee queries
+ * over large documents read a few plain arrays in order instead of following a pointer to
+ * every shape and its Points. Every shape has a row: its kind, its bounds, and for circles,
+ * ovals, rectangles, squares and triangles the values their contains method works from, so
+ * those are tested without touching the shape. Other shapes are tested through the shape.
+ * When the jdk.incubator.vector module is present the rows are tested several at a time by
+ * PrimitiveKernels, which is compiled from the vector source directory and loaded by name;
+ * otherwise, or with -Dpaint.query.vector=false, they are tested one at a time over the same
+ * columns. Either way a query gives exactly what testing each shape would.
+ * Documents never change, so the store of the last document queried is kept and reused
+ * while the drawing stays the same. When shapes have only been added on top since, their
+ * rows are appended to the same columns instead of building the store again. Only that one
+ * store is kept, so versions of the drawing kept for undo do not each hold one.
+ */
+final class PrimitiveStore {
+    /**
+     * int object that represents the number of shapes from which queries use a store.
+     */
+    static final int THRESHOLD = 2_048;
+    /**
+     * double objects that represent the kinds of shape. They are stored as doubles so the
+     * vector kernels can compare them in the same lanes as the geometry.
+     */
+    static final double OTHER = 0, BOX = 1, OVAL = 2, CIRCLE = 3, TRIANGLE = 4;
+    /**
+     * int object that represents the number of geometry columns.
+     */
+    static final int GEOMETRY = 7;
+    /**
+     * String object that represents the name of the class of the vector kernels.
+     */
+    private static final String KERNELS = "paint.app.PrimitiveKernels";
+    /**
+     * Kernels object that represents the vector kernels the rows are tested with, null if
+     * they are tested one at a time.
+     */
+    private static final Kernels kernels = loadKernels();
+    /**
+     * Cached object that represents the last document queried and its store, null until the
+     * first query.
+     */
+    private static volatile Cached last = null;
+
+    /**
+     * Queries that test the rows of a store several at a time.
+     */
+    interface Kernels {
+        /**
+         * Gives the highest index from lo up to hi whose shape contains the point (x, y).
+         * @param store
+         * @param document the document of the store.
+         * @param x
+         * @param y
+         * @param lo
+         * @param hi
+         * @return the index of the shape, or -1 if none of them contains the point.
+         */
+        int topmostAt(PrimitiveStore store, Document document, double x, double y, int lo, int hi);
+
+        /**
+         * Gives the shapes from index lo up to hi whose bounds intersect the rectangle from
+         * (x1, y1) to (x2, y2), in order.
+         * @param store
+         * @param document the document of the store.
+         * @param x1
+         * @param y1
+         * @param x2
+         * @param y2
+         * @param lo
+         * @param hi
+         * @return the shapes intersecting the rectangle.
+         */
+        List<Drawable> intersecting(PrimitiveStore store, Document document,
+                                    double x1, double y1, double x2, double y2, int lo, int hi);
+    }
+
+    /**
+     * A document and its store, kept together so they are read and replaced together.
+     */
+    private record Cached(Document document, PrimitiveStore store) {
+    }
+
+    /**
+     * The columns shared by a store and the stores made from it by appending. filled is the
+     * number of rows written; a store may append a row only while it is the last one written.
+     */
+    static final class Columns {
+        /**
+         * The kind of each row's shape.
+         */
+        double[] kind;
+        /**
+         * The bounds of each row's shape, with maxX and maxY worked out as x + width and
+         * y + height just as ShapeQuery does.
+         */
+        double[] minX, minY, maxX, maxY;
+        /**
+         * The geometry of each kind, by column:
+         * ovals: centre x, centre y, half width, half height;
+         * circles: centre x, centre y, radius, the squared radius slightly grown;
+         * triangles: c.x, c.y, b.y - c.y, c.x - b.x, c.y - a.y, a.x - c.x and the determinant.
+         * Rectangles and squares are their bounds.
+         */
+        double[][] geometry;
+        final AtomicInteger filled = new AtomicInteger();
+
+        Columns(int capacity) {
+            kind = new double[capacity];
+            minX = new double[capacity];
+            minY = new double[capacity];
+            maxX = new double[capacity];
+            maxY = new double[capacity];
+            geometry = new double[GEOMETRY][capacity];
+        }
+
+        /**
+         * Gives a copy of the first size rows with room for capacity rows.
+         * @param size
+         * @param capacity
+         * @return the copied columns.
+         */
+        Columns copy(int size, int capacity) {
+            Columns c = new Columns(0);
+            c.kind = Arrays.copyOf(kind, capacity);
+            c.minX = Arrays.copyOf(minX, capacity);
+            c.minY = Arrays.copyOf(minY, capacity);
+            c.maxX = Arrays.copyOf(maxX, capacity);
+            c.maxY = Arrays.copyOf(maxY, capacity);
+            c.geometry = new double[GEOMETRY][];
+            for (int k = 0; k < GEOMETRY; k++) {
+                c.geometry[k] = Arrays.copyOf(geometry[k], capacity);
+            }
+            c.filled.set(size);
+            return c;
+        }
+    }
+
+    /**
+     * Columns object that represents the rows, of which this store has the first size.
+     */
+    final Columns columns;
+    /**
+     * int object that represents the number of rows, which is the size of the document.
+     */
+    final int size;
+
+    private PrimitiveStore(Columns columns, int size) {
+        this.columns = columns;
+        this.size = size;
+    }
+
+    /**
+     * Gives a new instance of the KERNELS class, or null if -Dpaint.query.vector=false is set,
+     * the jdk.incubator.vector module is not present, or the class is missing.
+     * @return the kernels, or null.
+     */
+    private static Kernels loadKernels() {
+        if ("false".equals(System.getProperty("paint.query.vector"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (Kernels) Class.forName(KERNELS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            EventLog.warn("Vector queries are unavailable: ", e);
+            return null;
+        }
+    }
+
+    /**
+     * Gives the store of the shapes of document: the cached store if document was the last
+     * one queried, the cached store with the rows of the shapes added since if document
+     * starts with the last one's shapes, or otherwise a new store.
+     * @param document
+     * @return the store.
+     */
+    static PrimitiveStore of(Document document) {
+        Cached cached = last;
+        if (cached != null && cached.document == document) {
+            return cached.store;
+        }
+        PrimitiveStore store;
+        if (cached != null && document.startsWith(cached.document)) {
+            store = cached.store;
+            for (int i = store.size; i < document.size(); i++) {
+                store = store.with(document.get(i));
+            }
+        } else {
+            store = build(document);
+        }
+        last = new Cached(document, store);
+        return store;
+    }
+
+    /**
+     * Gives a new store of the shapes of document.
+     * @param document
+     * @return the store.
+     */
+    private static PrimitiveStore build(Document document) {
+        Columns columns = new Columns(Math.max(16, document.size()));
+        int i = 0;
+        for (Drawable d : document) {
+            setRow(columns, i++, d);
+        }
+        columns.filled.set(i);
+        return new PrimitiveStore(columns, i);
+    }
+
+    /**
+     * Gives the store of the document with d added on top of this store's document. The row
+     * is appended to the same columns when no other store has appended to them yet, and to a
+     * copy of them otherwise.
+     * @param d
+     * @return the new store.
+     */
+    PrimitiveStore with(Drawable d) {
+        Columns c = columns;
+        if (size >= c.kind.length || !c.filled.compareAndSet(size, size + 1)) {
+            c = c.copy(size, Math.max(16, size * 2));
+            c.filled.set(size + 1);
+        }
+        setRow(c, size, d);
+        return new PrimitiveStore(c, size + 1);
+    }
+
+    /**
+     * Writes the row of the shape d at index i.
+     * @param c
+     * @param i
+     * @param d
+     */
+    private static void setRow(Columns c, int i, Drawable d) {
+        double[] bounds = d.getBounds();
+        c.minX[i] = bounds[0];
+        c.minY[i] = bounds[1];
+        c.maxX[i] = bounds[0] + bounds[2];
+        c.maxY[i] = bounds[1] + bounds[3];
+        double[][] g = c.geometry;
+        if (d instanceof Rectangle || d instanceof Square) {
+            c.kind[i] = BOX;
+        } else if (d instanceof Oval o) {
+            c.kind[i] = OVAL;
+            g[0][i] = o.getX() + o.getWidth() / 2;
+            g[1][i] = o.getY() + o.getHeight() / 2;
+            g[2][i] = o.getWidth() / 2;
+            g[3][i] = o.getHeight() / 2;
+        } else if (d instanceof Circle circle) {
+            c.kind[i] = CIRCLE;
+            double r = circle.getRadius();
+            g[0][i] = circle.getCentre().x;
+            g[1][i] = circle.getCentre().y;
+            g[2][i] = r;
+            g[3][i] = r * r * (1 + 1e-9);
+        } else if (d instanceof Triangle t) {
+            c.kind[i] = TRIANGLE;
+            Point a = t.getA(), b = t.getB(), p = t.getC();
+            g[0][i] = p.x;
+            g[1][i] = p.y;
+            g[2][i] = b.y - p.y;
+            g[3][i] = p.x - b.x;
+            g[4][i] = p.y - a.y;
+            g[5][i] = a.x - p.x;
+            g[6][i] = (b.y - p.y) * (a.x - p.x) + (p.x - b.x) * (a.y - p.y);
+        } else {
+            c.kind[i] = OTHER;
+        }
+    }
+
+    /**
+     * Gives the highest index from lo up to hi whose shape contains the point (x, y).
+     * @param document the document of this store, for shapes without geometry columns.
+     * @param x
+     * @param y
+     * @param lo
+     * @param hi
+     * @return the index of the shape, or -1 if none of them contains the point.
+     */
+    int topmostAt(Document document, double x, double y, int lo, int hi) {
+        if (kernels != null) {
+            return kernels.topmostAt(this, document, x, y, lo, hi);
+        }
+        Columns c = columns;
+        double slack = slack(x, y);
+        for (int i = hi - 1; i >= lo; i--) {
+            boolean near = c.minX[i] <= x + slack && c.maxX[i] >= x - slack
+                    && c.minY[i] <= y + slack && c.maxY[i] >= y - slack;
+            if ((near || c.kind[i] == OTHER) && contains(document, i, x, y)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gives how far outside its bounds a circle, oval, rectangle, square or triangle is still
+     * tested for the point (x, y). Such a shape only contains points inside its bounds, but
+     * its contains method and its bounds round differently, so the bounds are grown by far
+     * more than that rounding before shapes are skipped by them.
+     * @param x
+     * @param y
+     * @return the slack.
+     */
+    static double slack(double x, double y) {
+        return 1e-9 * (1 + Math.abs(x) + Math.abs(y));
+    }
+
+    /**
+     * Returns true if the shape at index i contains the point (x, y), worked out the same
+     * way as its contains method.
+     * @param document the document of this store, for shapes without geometry columns.
+     * @param i
+     * @param x
+     * @param y
+     * @return true if the shape contains the point, otherwise false.
+     */
+    boolean contains(Document document, int i, double x, double y) {
+        Columns c = columns;
+        double[][] g = c.geometry;
+        double kind = c.kind[i];
+        if (kind == BOX) {
+            return x >= c.minX[i] && x <= c.maxX[i] && y >= c.minY[i] && y <= c.maxY[i];
+        } else if (kind == OVAL) {
+            double nX = (x - g[0][i]) / g[2][i];
+            double nY = (y - g[1][i]) / g[3][i];
+            return nX * nX + nY * nY <= 1;
+        } else if (kind == CIRCLE) {
+            return Math.hypot(x - g[0][i], y - g[1][i]) <= g[2][i];
+        } else if (kind == TRIANGLE) {
+            double dx = x - g[0][i], dy = y - g[1][i];
+            double alpha = (g[2][i] * dx + g[3][i] * dy) / g[6][i];
+            double beta = (g[4][i] * dx + g[5][i] * dy) / g[6][i];
+            double gamma = 1.0 - alpha - beta;
+            return alpha >= 0 && beta >= 0 && gamma >= 0;
+        }
+        return document.get(i).contains(x, y);
+    }
+
+    /**
+     * Gives the shapes from index lo up to hi whose bounds intersect the rectangle from
+     * (x1, y1) to (x2, y2), in order.
+     * @param document the document of this store.
+     * @param x1
+     * @param y1
+     * @param x2
+     * @param y2
+     * @param lo
+     * @param hi
+     * @return the shapes intersecting the rectangle.
+     */
+    List<Drawable> intersecting(Document document, double x1, double y1, double x2, double y2, int lo, int hi) {
+        if (kernels != null) {
+            return kernels.intersecting(this, document, x1, y1, x2, y2, lo, hi);
+        }
+        Columns c = columns;
+        List<Drawable> found = new ArrayList<>();
+        for (int i = lo; i < hi; i++) {
+            if (!(c.maxX[i] < x1 || c.minX[i] > x2 || c.maxY[i] < y1 || c.minY[i] > y2)) {
+                found.add(document.get(i));
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,310 @@
+package paint.app;
+
+import paint.render.DrawingSurface;
+import paint.render.MaskSurface;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Representation of the pixels painted with the brush, drawn over the shapes of the document.
+ * The layer is split into square tiles of TILE by TILE pixels, one per document unit, and a
+ * tile only exists once something is painted on it, so an empty layer costs nothing however
+ * large the document is. Each tile is shown through an image of its own that is only
+ * uploaded again after the tile changes.
+ * While an edit is open, the first change to each tile saves a copy of the tile as it was,
+ * so an edit is undone by putting back just the tiles it touched.
+ */
+public class RasterLayer {
+    /**
+     * int object that represents the width and height of a tile, in pixels.
+     */
+    public static final int TILE = 256;
+    /**
+     * Map of the ARGB pixels of each tile, row by row, by tile key.
+     */
+    private final Map<Long, int[]> tiles = new HashMap<>();
+    /**
+     * Map of the image that shows each tile on screen, by tile key.
+     */
+    private final Map<Long, WritableImage> images = new HashMap<>();
+    /**
+     * Set of the keys of the tiles changed since their image was last uploaded.
+     */
+    private final Set<Long> dirty = new HashSet<>();
+    /**
+     * Map of the tiles as they were before the open edit first changed them, by tile key,
+     * where null means the tile did not exist; null when no edit is open.
+     */
+    private Map<Long, int[]> editBefore = null;
+
+    /**
+     * Gives the key of the tile at tile column tx and tile row ty.
+     * @param tx
+     * @param ty
+     * @return the tile key.
+     */
+    public static long key(int tx, int ty) {
+        return ((long) tx << 32) | (ty & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns true if nothing has been painted on the layer.
+     * @return true if the layer has no tiles, otherwise false.
+     */
+    public boolean isEmpty() {
+        return tiles.isEmpty();
+    }
+
+    /**
+     * Gives the number of tiles that exist.
+     * @return the number of tiles.
+     */
+    public int getTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * Gives the bounds of the tiles that exist.
+     * @return the bounds {x, y, width, height}, or null if the layer has no tiles.
+     */
+    public double[] getBounds() {
+        if (tiles.isEmpty()) {
+            return null;
+        }
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (long k : tiles.keySet()) {
+            int tx = (int) (k >> 32), ty = (int) k;
+            minX = Math.min(minX, tx);
+            minY = Math.min(minY, ty);
+            maxX = Math.max(maxX, tx);
+            maxY = Math.max(maxY, ty);
+        }
+        return new double[]{(double) minX * TILE, (double) minY * TILE,
+                (double) (maxX - minX + 1) * TILE, (double) (maxY - minY + 1) * TILE};
+    }
+
+    /**
+     * Covers the cells of mask under every painted pixel, a run of painted pixels of a row
+     * at a time.
+     * @param mask
+     */
+    public void cover(MaskSurface mask) {
+        for (Map.Entry<Long, int[]> e : tiles.entrySet()) {
+            long k = e.getKey();
+            int[] tile = e.getValue();
+            double x0 = (double) (int) (k >> 32) * TILE, y0 = (double) (int) k * TILE;
+            for (int y = 0; y < TILE; y++) {
+                int row = y * TILE;
+                int x = 0;
+                while (x < TILE) {
+                    if (tile[row + x] >>> 24 == 0) {
+                        x++;
+                        continue;
+                    }
+                    int start = x;
+                    while (x < TILE && tile[row + x] >>> 24 != 0) {
+                        x++;
+                    }
+                    mask.coverRect(x0 + start, y0 + y, x - start, 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts an edit, after which the tiles are saved before they are first changed.
+     */
+    public void beginEdit() {
+        editBefore = new HashMap<>();
+    }
+
+    /**
+     * Ends the open edit.
+     * @return the tiles the edit changed as they were before it, null meaning the tile did
+     * not exist, or an empty map if no edit was open.
+     */
+    public Map<Long, int[]> endEdit() {
+        Map<Long, int[]> before = editBefore == null ? Map.of() : editBefore;
+        editBefore = null;
+        return before;
+    }
+
+    /**
+     * Gives copies of the tiles with the given keys, null for a tile that does not exist.
+     * @param keys
+     * @return the copies of the tiles by key.
+     */
+    public Map<Long, int[]> copyTiles(Set<Long> keys) {
+        Map<Long, int[]> copies = new HashMap<>();
+        for (Long k : keys) {
+            int[] tile = tiles.get(k);
+            copies.put(k, tile == null ? null : tile.clone());
+        }
+        return copies;
+    }
+
+    /**
+     * Puts back the given copies of tiles, removing the tiles whose copy is null.
+     * @param copies
+     */
+    public void restoreTiles(Map<Long, int[]> copies) {
+        for (Map.Entry<Long, int[]> e : copies.entrySet()) {
+            if (e.getValue() == null) {
+                tiles.remove(e.getKey());
+                images.remove(e.getKey());
+            } else {
+                tiles.put(e.getKey(), e.getValue().clone());
+                dirty.add(e.getKey());
+            }
+        }
+    }
+
+    /**
+     * Paints a round dab of the given radius centred on (cx, cy) with the ARGB color argb,
+     * blended over what is already painted.
+     * @param cx
+     * @param cy
+     * @param radius
+     * @param argb
+     */
+    public void paintDab(double cx, double cy, double radius, int argb) {
+        int minX = (int) Math.floor(cx - radius), maxX = (int) Math.ceil(cx + radius);
+        int minY = (int) Math.floor(cy - radius), maxY = (int) Math.ceil(cy + radius);
+        double radiusSquared = radius * radius;
+        for (int ty = Math.floorDiv(minY, TILE); ty <= Math.floorDiv(maxY, TILE); ty++) {
+            for (int tx = Math.floorDiv(minX, TILE); tx <= Math.floorDiv(maxX, TILE); tx++) {
+                int[] tile = null;
+                int x0 = Math.max(minX, tx * TILE), x1 = Math.min(maxX, tx * TILE + TILE - 1);
+                int y0 = Math.max(minY, ty * TILE), y1 = Math.min(maxY, ty * TILE + TILE - 1);
+                for (int y = y0; y <= y1; y++) {
+                    double dy = y + 0.5 - cy;
+                    for (int x = x0; x <= x1; x++) {
+                        double dx = x + 0.5 - cx;
+                        if (dx * dx + dy * dy > radiusSquared) {
+                            continue;
+                        }
+                        if (tile == null) {
+                            tile = tileForWrite(tx, ty);
+                        }
+                        int i = (y - ty * TILE) * TILE + (x - tx * TILE);
+                        tile[i] = blend(argb, tile[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Paints dabs of the given radius along the line from (x1, y1) to (x2, y2), close
+     * enough together to form a solid stroke, without a dab at (x1, y1) itself.
+     * @param x1
+     * @param y1
+     * @param x2
+     * @param y2
+     * @param radius
+     * @param argb
+     */
+    public void paintLine(double x1, double y1, double x2, double y2, double radius, int argb) {
+        double length = Math.hypot(x2 - x1, y2 - y1);
+        int steps = Math.max(1, (int) Math.ceil(length / Math.max(0.5, radius / 2)));
+        for (int i = 1; i <= steps; i++) {
+            double t = (double) i / steps;
+            paintDab(x1 + (x2 - x1) * t, y1 + (y2 - y1) * t, radius, argb);
+        }
+    }
+
+    /**
+     * Gives the tile at (tx, ty), creating it if it does not exist, and marks it changed,
+     * saving it first if an edit is open and has not changed it yet.
+     * @param tx
+     * @param ty
+     * @return the tile's pixels.
+     */
+    private int[] tileForWrite(int tx, int ty) {
+        long k = key(tx, ty);
+        int[] tile = tiles.get(k);
+        if (editBefore != null && !editBefore.containsKey(k)) {
+            editBefore.put(k, tile == null ? null : tile.clone());
+        }
+        if (tile == null) {
+            tile = new int[TILE * TILE];
+            tiles.put(k, tile);
+        }
+        dirty.add(k);
+        return tile;
+    }
+
+    /**
+     * Gives the ARGB color src drawn over the ARGB color dst.
+     * @param src
+     * @param dst
+     * @return the blended color.
+     */
+    private static int blend(int src, int dst) {
+        int sa = src >>> 24;
+        if (sa == 255 || dst == 0) {
+            return src;
+        }
+        int da = dst >>> 24;
+        int outA = sa + da * (255 - sa) / 255;
+        if (outA == 0) {
+            return 0;
+        }
+        int r = mix(src >> 16 & 0xFF, sa, dst >> 16 & 0xFF, da, outA);
+        int g = mix(src >> 8 & 0xFF, sa, dst >> 8 & 0xFF, da, outA);
+        int b = mix(src & 0xFF, sa, dst & 0xFF, da, outA);
+        return outA << 24 | r << 16 | g << 8 | b;
+    }
+
+    /**
+     * Gives one channel of the source-over blend of two non-premultiplied colors.
+     * @param s
+     * @param sa
+     * @param d
+     * @param da
+     * @param outA
+     * @return the blended channel.
+     */
+    private static int mix(int s, int sa, int d, int da, int outA) {
+        return (s * sa + d * da * (255 - sa) / 255) / outA;
+    }
+
+    /**
+     * Draws the tiles that intersect the visible area, first uploading the images of the
+     * tiles that changed since they were last drawn.
+     * @param g2d input, already transformed into document coordinates
+     * @param visible the visible bounds {x, y, width, height} in document coordinates,
+     *                or null to draw every tile
+     */
+    public void draw(DrawingSurface g2d, double[] visible) {
+        if (tiles.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<Long, int[]> e : tiles.entrySet()) {
+            long k = e.getKey();
+            int tx = (int) (k >> 32), ty = (int) k;
+            double x = (double) tx * TILE, y = (double) ty * TILE;
+            if (visible != null && (x + TILE < visible[0] || x > visible[0] + visible[2]
+                    || y + TILE < visible[1] || y > visible[1] + visible[3])) {
+                continue;
+            }
+            WritableImage image = images.get(k);
+            if (image == null) {
+                image = new WritableImage(TILE, TILE);
+                images.put(k, image);
+                dirty.add(k);
+            }
+            if (dirty.remove(k)) {
+                image.getPixelWriter().setPixels(0, 0, TILE, TILE, PixelFormat.getIntArgbInstance(),
+                        e.getValue(), 0, TILE);
+            }
+            g2d.drawImage(image, x, y, TILE, TILE);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package paint.app;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Representation of the performance metrics of the paint panel's render path.
+ * Records, for the most recent frame, how long it took, how many shapes were drawn or
+ * culled, how many of them were images, how long the selection outline took, how many
+ * drawing state changes were sent to the canvas or dropped as redundant and how many
+ * bytes the frame allocated. Also keeps the number of repaints and model notifications
+ * per second, so a slow document can be traced to shape count, images or selection.
+ */
+public class RenderMetrics {
+    /**
+     * ThreadMXBean object used to read the bytes allocated by the rendering thread, or null
+     * if the JVM cannot report them.
+     */
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+
+    /**
+     * long objects that record the frame in progress.
+     */
+    private long frameStart, frameAllocationStart;
+    private int drawn, culled, images;
+    /**
+     * Metrics of the most recently finished frame.
+     */
+    private long lastFrameNanos, lastSelectionNanos, lastBytesAllocated = -1;
+    private int lastDrawn, lastCulled, lastImages, lastSelected;
+    private long lastStateForwarded, lastStateSkipped;
+    /**
+     * double object that represents the exponential moving average of the frame time in nanoseconds.
+     */
+    private double averageFrameNanos;
+    /**
+     * Counters for the current one second window, and the rates measured over the last window.
+     */
+    private long windowStart = System.nanoTime();
+    private int windowFrames;
+    private long windowNotificationStart;
+    private double repaintsPerSecond, notificationsPerSecond;
+
+    /**
+     * Starts timing a new frame.
+     */
+    public void beginFrame() {
+        drawn = 0;
+        culled = 0;
+        images = 0;
+        lastSelected = 0;
+        lastSelectionNanos = 0;
+        frameAllocationStart = allocatedBytes();
+        frameStart = System.nanoTime();
+    }
+
+    /**
+     * Records that a shape was drawn in the current frame.
+     * @param image true if the shape was an image.
+     */
+    public void shapeDrawn(boolean image) {
+        drawn++;
+        if (image) {
+            images++;
+        }
+    }
+
+    /**
+     * Records that a shape was skipped because it was outside the visible area.
+     */
+    public void shapeCulled() {
+        culled++;
+    }
+
+    /**
+     * Records the number of selected shapes outlined in the current frame and the time taken.
+     * @param selected
+     * @param nanos
+     */
+    public void selectionDrawn(int selected, long nanos) {
+        lastSelected = selected;
+        lastSelectionNanos = nanos;
+    }
+
+    /**
+     * Records how many drawing state changes the current frame sent to the canvas and how
+     * many it dropped because they changed nothing.
+     * @param forwarded
+     * @param skipped
+     */
+    public void stateChanges(long forwarded, long skipped) {
+        lastStateForwarded = forwarded;
+        lastStateSkipped = skipped;
+    }
+
+    /**
+     * Finishes the current frame, given how many notifications the model has sent in total.
+     * @param notifications
+     */
+    public void endFrame(long notifications) {
+        long now = System.nanoTime();
+        lastFrameNanos = now - frameStart;
+        long allocated = allocatedBytes();
+        lastBytesAllocated = allocated < 0 ? -1 : allocated - frameAllocationStart;
+        lastDrawn = drawn;
+        lastCulled = culled;
+        lastImages = images;
+        averageFrameNanos = averageFrameNanos == 0 ? lastFrameNanos : averageFrameNanos * 0.9 + lastFrameNanos * 0.1;
+        windowFrames++;
+        long elapsed = now - windowStart;
+        if (elapsed >= 1_000_000_000L) {
+            repaintsPerSecond = windowFrames * 1e9 / elapsed;
+            notificationsPerSecond = (notifications - windowNotificationStart) * 1e9 / elapsed;
+            windowStart = now;
+            windowFrames = 0;
+            windowNotificationStart = notifications;
+        }
+    }
+
+    public double getLastFrameMillis() {
+        return lastFrameNanos / 1e6;
+    }
+
+    public double getAverageFrameMillis() {
+        return averageFrameNanos / 1e6;
+    }
+
+    public double getRepaintsPerSecond() {
+        return repaintsPerSecond;
+    }
+
+    public double getNotificationsPerSecond() {
+        return notificationsPerSecond;
+    }
+
+    public int getShapesDrawn() {
+        return lastDrawn;
+    }
+
+    public int getShapesCulled() {
+        return lastCulled;
+    }
+
+    public int getImagesDrawn() {
+        return lastImages;
+    }
+
+    public int getSelectedShapes() {
+        return lastSelected;
+    }
+
+    public double getSelectionMillis() {
+        return lastSelectionNanos / 1e6;
+    }
+
+    public long getStateChangesForwarded() {
+        return lastStateForwarded;
+    }
+
+    public long getStateChangesSkipped() {
+        return lastStateSkipped;
+    }
+
+    /**
+     * RETURNS the bytes allocated by the last frame.
+     * @return the bytes allocated, or -1 if the JVM cannot report them.
+     */
+    public long getBytesAllocated() {
+        return lastBytesAllocated;
+    }
+
+    /**
+     * Gives the metrics as lines of text for the on-canvas overlay.
+     * @return the lines to show.
+     */
+    public String[] toLines() {
+        return new String[]{
+                String.format("frame %.2f ms (avg %.2f ms)", getLastFrameMillis(), getAverageFrameMillis()),
+                String.format("%.0f repaints/s, %.0f notifications/s", repaintsPerSecond, notificationsPerSecond),
+                String.format("%d drawn, %d culled, %d images", lastDrawn, lastCulled, lastImages),
+                String.format("selection %d shapes, %.2f ms", lastSelected, getSelectionMillis()),
+                String.format("state changes %,d sent, %,d skipped", lastStateForwarded, lastStateSkipped),
+                lastBytesAllocated < 0 ? "alloc n/a" : String.format("alloc %,d KB/frame", lastBytesAllocated / 1024)
+        };
+    }
+
+    /**
+     * Gives the bytes allocated so far by the current thread.
+     */
+    private static long allocatedBytes() {
+        return ALLOCATION == null ? -1 : ALLOCATION.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sun && sun.isThreadAllocatedMemorySupported()) {
+            sun.setThreadAllocatedMemoryEnabled(true);
+            return sun;
+        }
+        return null;
+    }
+}
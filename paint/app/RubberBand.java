@@ -0,0 +1,86 @@
+package paint.app;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Representation of the rubber band line a multi-point tool shows from its last point to the
+ * mouse. It is not a shape of the document: it is kept in plain fields that are overwritten as
+ * the mouse moves, and the paint panel draws it on an overlay of its own so moving it does not
+ * repaint the document.
+ */
+public class RubberBand {
+    /**
+     * Boolean that is true if the rubber band is shown, else false.
+     */
+    private boolean visible = false;
+    /**
+     * double object x1, y1, x2, y2 that represents the ends of the line in document coordinates.
+     */
+    private double x1, y1, x2, y2;
+    /**
+     * Color object that stores the color of the line.
+     */
+    private Color color = Color.BLACK;
+    /**
+     * double object that represents the line width, in document units.
+     */
+    private double lineWidth = 1;
+
+    /**
+     * Shows the rubber band as the line from (x1, y1) to (x2, y2).
+     * @param x1
+     * @param y1
+     * @param x2
+     * @param y2
+     * @param color
+     * @param lineWidth
+     */
+    void set(double x1, double y1, double x2, double y2, Color color, double lineWidth) {
+        this.x1 = x1;
+        this.y1 = y1;
+        this.x2 = x2;
+        this.y2 = y2;
+        this.color = color;
+        this.lineWidth = lineWidth;
+        this.visible = true;
+    }
+
+    /**
+     * Hides the rubber band.
+     */
+    void hide() {
+        visible = false;
+    }
+
+    /**
+     * RETURNS true if the rubber band is shown.
+     * @return the visible attribute
+     */
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public double getX1() {
+        return x1;
+    }
+
+    public double getY1() {
+        return y1;
+    }
+
+    public double getX2() {
+        return x2;
+    }
+
+    public double getY2() {
+        return y2;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public double getLineWidth() {
+        return lineWidth;
+    }
+}
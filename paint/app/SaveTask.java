@@ -0,0 +1,110 @@
+package paint.app;
+
+import paint.log.EventLog;
+import paint.render.SvgSurface;
+import paint.shapes.Drawable;
+import javafx.concurrent.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Representation of saving one version of the drawing to an SVG file in the background.
+ * The task is given the Document that was current when the save started, which never
+ * changes, so the user can keep drawing, undoing and redoing while it runs.
+ * The file is written next to the target and moved over it once complete, so a cancelled
+ * or failed save leaves the previous file untouched.
+ */
+public class SaveTask extends Task<File> {
+    /**
+     * int object that represents how many shapes are written between progress updates.
+     */
+    private static final int PROGRESS_STEP = 256;
+    /**
+     * Document object that represents the version of the drawing being saved.
+     */
+    private final Document snapshot;
+    /**
+     * File object that represents the file being saved to.
+     */
+    private final File target;
+
+    /**
+     * Constructs a new SaveTask that writes snapshot to target.
+     * @param snapshot
+     * @param target
+     */
+    public SaveTask(Document snapshot, File target) {
+        this.snapshot = snapshot;
+        this.target = target;
+    }
+
+    /**
+     * Writes the shapes to a temporary file, then moves it over the target.
+     * @return the saved file, or null if the save was cancelled.
+     * @throws IOException if the file cannot be written.
+     */
+    @Override
+    protected File call() throws IOException {
+        Path out = target.toPath().toAbsolutePath();
+        Path tmp = Files.createTempFile(out.getParent(), ".paint-save", ".tmp");
+        try {
+            int n = snapshot.size();
+            double[] area = drawingArea();
+            try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                SvgSurface svg = new SvgSurface(w, area[0], area[1], area[2], area[3]);
+                int i = 0;
+                for (Drawable d : snapshot) {
+                    if (isCancelled()) {
+                        return null;
+                    }
+                    d.draw(svg);
+                    if (++i % PROGRESS_STEP == 0) {
+                        updateProgress(i, n);
+                    }
+                }
+                svg.finish();
+            }
+            try {
+                Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING);
+            }
+            updateProgress(n, n);
+            EventLog.info("Saved shapes: ", n + " to " + out);
+            return target;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Gives the area of the SVG canvas: the bounds of the shapes rounded out to whole units,
+     * which may reach to negative coordinates since the canvas can be panned, and at least
+     * one unit each way. An empty drawing gives the unit square at the origin.
+     * @return the area {x, y, width, height}.
+     */
+    private double[] drawingArea() {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (Drawable d : snapshot) {
+            double[] b = d.getBounds();
+            minX = Math.min(minX, b[0]);
+            minY = Math.min(minY, b[1]);
+            maxX = Math.max(maxX, b[0] + b[2]);
+            maxY = Math.max(maxY, b[1] + b[3]);
+        }
+        if (minX > maxX) {
+            return new double[]{0, 0, 1, 1};
+        }
+        minX = Math.floor(minX);
+        minY = Math.floor(minY);
+        return new double[]{minX, minY, Math.max(1, Math.ceil(maxX) - minX), Math.max(1, Math.ceil(maxY) - minY)};
+    }
+}
@@ -1,6 +1,7 @@
 package paint.app;
 
 import paint.strategy.*;
+import paint.log.EventLog;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.control.Button;
@@ -26,6 +27,10 @@ public class ShapeChooserPanel extends GridPane implements EventHandler<ActionEv
      * Button object that represents the selected button
      */
     private Button selectedButton;
+    /**
+     * Object that represents the drag of the line width slider in progress, or null.
+     */
+    private Object lineWidthGesture = null;
 
     /**
      * Contracts a new ShapeChooserPanel object with where buttons, picker, and toggle
@@ -52,10 +57,13 @@ public class ShapeChooserPanel extends GridPane implements EventHandler<ActionEv
         this.add(label, 1, 1);
         this.add(lineWidthSlider, 1, 2);
         this.view = view;
+        lineWidthSlider.valueChangingProperty().addListener((obs, wasChanging, changing) ->
+                lineWidthGesture = changing ? new Object() : null);
         lineWidthSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
             double newWidth = newVal.doubleValue();
+            Object gesture = lineWidthGesture != null ? lineWidthGesture : new Object();
             view.setCurrentLineWidth(newWidth);
-            view.getPaintModel().updateSelectedShapesLineWidth(newWidth);
+            view.getPaintModel().updateSelectedShapesLineWidth(newWidth, gesture);
         });
         Button fillStyleButton = new Button("Fill Style (default: Filled)");
         fillStyleButton.setTooltip(new Tooltip("Select fill style (default: Filled)"));
@@ -75,7 +83,7 @@ public class ShapeChooserPanel extends GridPane implements EventHandler<ActionEv
         });
         this.add(fillStyleButton, 1, 3);
 
-        String[] buttonLabels = {"Select", "Circle", "Rectangle", "Square", "Triangle", "Oval", "Squiggle", "Polyline"};
+        String[] buttonLabels = {"Select", "Circle", "Rectangle", "Square", "Triangle", "Oval", "Squiggle", "Polyline", "Brush", "Bucket", "Eraser"};
 
         int row = 0;
         for (String labelText : buttonLabels) {
@@ -87,7 +95,7 @@ public class ShapeChooserPanel extends GridPane implements EventHandler<ActionEv
                 iconView.setFitWidth(24);
                 iconView.setFitHeight(24);
             } catch (Exception e) {
-                System.out.println("Could not load icon: " + labelText);
+                EventLog.warn("Could not load icon: ", labelText);
             }
             Button button = new Button(labelText, iconView);
             button.setMinWidth(100);
@@ -100,7 +108,7 @@ public class ShapeChooserPanel extends GridPane implements EventHandler<ActionEv
     /**
      * Handles the shape selection process.
      * Updating view's drawing strategy based on the selected shape.
-     * While printing the selected command type to the console.
+     * While logging the selected command type.
      * @param event
      */
     @Override
@@ -121,9 +129,12 @@ public class ShapeChooserPanel extends GridPane implements EventHandler<ActionEv
             case "Triangle" -> view.setDrawingStrategy(new TriangleStrategy());
             case "Oval" -> view.setDrawingStrategy(new OvalStrategy());
             case "Polyline" -> view.setDrawingStrategy(new PolylineStrategy());
-            default -> System.out.println("Unknown strategy: " + command);
+            case "Brush" -> view.setDrawingStrategy(new BrushStrategy());
+            case "Bucket" -> view.setDrawingStrategy(new FillStrategy());
+            case "Eraser" -> view.setDrawingStrategy(new EraserStrategy());
+            default -> EventLog.warn("Unknown strategy: ", command);
         }
-        System.out.println("Selected: " + command);
+        EventLog.info("Selected: ", command);
 
     }
 }
@@ -0,0 +1,235 @@
+package paint.app;
+
+import paint.shapes.Drawable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Click and marquee queries over one version of the drawing.
+ * Small documents are scanned in a plain loop. Large ones are split into chunks of shapes
+ * that are tested in parallel on the common fork/join pool, then combined so the results
+ * are the same, in the same bottom-to-top order, as a plain scan would give.
+ * Documents of at least PrimitiveStore.THRESHOLD shapes are tested through their
+ * PrimitiveStore, whose columns are read in order and tested several shapes at a time.
+ * A Document and its shapes never change, so the chunks can be read from any thread.
+ */
+final class ShapeQuery {
+    /**
+     * int object that represents the number of shapes from which queries run in parallel.
+     */
+    static final int PARALLEL_THRESHOLD = 20_000;
+    /**
+     * int object that represents the most shapes one fork/join task tests itself.
+     */
+    private static final int CHUNK = 4_096;
+
+    private ShapeQuery() {
+    }
+
+    /**
+     * Gives true if a query over a document of the given size should run in parallel.
+     * @param size
+     * @return true if the query should run in parallel, otherwise false.
+     */
+    static boolean isParallel(int size) {
+        return size >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    /**
+     * Gives the index of the topmost shape of document that contains the point (x, y).
+     * @param document
+     * @param x
+     * @param y
+     * @return the index of the shape, or -1 if no shape contains the point.
+     */
+    static int indexOfTopmostAt(Document document, double x, double y) {
+        PrimitiveStore store = storeOf(document);
+        if (!isParallel(document.size())) {
+            return topmost(document, store, x, y, 0, document.size());
+        }
+        return ForkJoinPool.commonPool().invoke(
+                new TopmostTask(document, store, x, y, 0, document.size(), new AtomicInteger(-1)));
+    }
+
+    /**
+     * Gives the PrimitiveStore of document if it is large enough to query through one.
+     * @param document
+     * @return the store, or null if the shapes are tested one by one.
+     */
+    private static PrimitiveStore storeOf(Document document) {
+        return document.size() >= PrimitiveStore.THRESHOLD ? PrimitiveStore.of(document) : null;
+    }
+
+    /**
+     * Gives the highest index from lo up to hi whose shape contains the point (x, y).
+     * @param document
+     * @param store the store of document, or null to test the shapes one by one.
+     * @param x
+     * @param y
+     * @param lo
+     * @param hi
+     * @return the index of the shape, or -1 if none of them contains the point.
+     */
+    private static int topmost(Document document, PrimitiveStore store, double x, double y, int lo, int hi) {
+        if (store != null) {
+            return store.topmostAt(document, x, y, lo, hi);
+        }
+        for (int i = hi - 1; i >= lo; i--) {
+            if (document.get(i).contains(x, y)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gives the shapes of document whose bounds intersect the rectangle from (x1, y1) to
+     * (x2, y2), from bottom to top.
+     * @param document
+     * @param x1
+     * @param y1
+     * @param x2
+     * @param y2
+     * @return the shapes intersecting the rectangle.
+     */
+    static List<Drawable> intersecting(Document document, double x1, double y1, double x2, double y2) {
+        PrimitiveStore store = storeOf(document);
+        if (!isParallel(document.size())) {
+            return scan(document, store, 0, document.size(), x1, y1, x2, y2);
+        }
+        return ForkJoinPool.commonPool().invoke(
+                new IntersectingTask(document, store, x1, y1, x2, y2, 0, document.size()));
+    }
+
+    /**
+     * Gives the shapes from index lo up to hi whose bounds intersect the rectangle, in order.
+     * @param document
+     * @param store the store of document, or null to test the shapes one by one.
+     * @param lo
+     * @param hi
+     * @param x1
+     * @param y1
+     * @param x2
+     * @param y2
+     * @return the shapes intersecting the rectangle.
+     */
+    private static List<Drawable> scan(Document document, PrimitiveStore store, int lo, int hi,
+                                       double x1, double y1, double x2, double y2) {
+        if (store != null) {
+            return store.intersecting(document, x1, y1, x2, y2, lo, hi);
+        }
+        List<Drawable> found = new ArrayList<>();
+        for (int i = lo; i < hi; i++) {
+            Drawable d = document.get(i);
+            double[] bounds = d.getBounds();
+            double shapeX = bounds[0];
+            double shapeY = bounds[1];
+            double shapeW = bounds[2];
+            double shapeH = bounds[3];
+            boolean intersects = !(shapeX + shapeW < x1 ||
+                    shapeX > x2 ||
+                    shapeY + shapeH < y1 ||
+                    shapeY > y2);
+
+            if (intersects) {
+                found.add(d);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds the highest index from lo up to hi whose shape contains the point. The upper
+     * half of a range is searched before the lower half, and a chunk stops as soon as a hit
+     * above it is known, so shapes under the topmost hit are mostly never tested.
+     */
+    @SuppressWarnings("serial")
+    private static final class TopmostTask extends RecursiveTask<Integer> {
+        private final Document document;
+        private final PrimitiveStore store;
+        private final double x, y;
+        private final int lo, hi;
+        /**
+         * AtomicInteger that holds the highest index found so far by any task of the query.
+         */
+        private final AtomicInteger best;
+
+        TopmostTask(Document document, PrimitiveStore store, double x, double y, int lo, int hi,
+                    AtomicInteger best) {
+            this.document = document;
+            this.store = store;
+            this.x = x;
+            this.y = y;
+            this.lo = lo;
+            this.hi = hi;
+            this.best = best;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (hi - lo <= CHUNK) {
+                if (store != null) {
+                    int i = hi > best.get() ? store.topmostAt(document, x, y, Math.max(lo, best.get() + 1), hi) : -1;
+                    if (i >= 0) {
+                        best.accumulateAndGet(i, Math::max);
+                    }
+                    return i;
+                }
+                for (int i = hi - 1; i >= lo && i > best.get(); i--) {
+                    if (document.get(i).contains(x, y)) {
+                        best.accumulateAndGet(i, Math::max);
+                        return i;
+                    }
+                }
+                return -1;
+            }
+            int mid = (lo + hi) >>> 1;
+            TopmostTask lower = new TopmostTask(document, store, x, y, lo, mid, best);
+            lower.fork();
+            int upper = new TopmostTask(document, store, x, y, mid, hi, best).compute();
+            int below = lower.join();
+            return upper >= 0 ? upper : below;
+        }
+    }
+
+    /**
+     * Collects the shapes from lo up to hi whose bounds intersect the rectangle, joining the
+     * lower half's shapes before the upper half's so the order is bottom to top.
+     */
+    @SuppressWarnings("serial")
+    private static final class IntersectingTask extends RecursiveTask<List<Drawable>> {
+        private final Document document;
+        private final PrimitiveStore store;
+        private final double x1, y1, x2, y2;
+        private final int lo, hi;
+
+        IntersectingTask(Document document, PrimitiveStore store, double x1, double y1, double x2, double y2,
+                         int lo, int hi) {
+            this.document = document;
+            this.store = store;
+            this.x1 = x1;
+            this.y1 = y1;
+            this.x2 = x2;
+            this.y2 = y2;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected List<Drawable> compute() {
+            if (hi - lo <= CHUNK) {
+                return scan(document, store, lo, hi, x1, y1, x2, y2);
+            }
+            int mid = (lo + hi) >>> 1;
+            IntersectingTask upper = new IntersectingTask(document, store, x1, y1, x2, y2, mid, hi);
+            upper.fork();
+            List<Drawable> found = new IntersectingTask(document, store, x1, y1, x2, y2, lo, mid).compute();
+            found.addAll(upper.join());
+            return found;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package paint.app;
 
+import paint.jfr.ImageDecodeEvent;
+import paint.log.EventLog;
 import paint.shapes.ImageS;
 import paint.strategy.DrawingStrategy;
 import javafx.application.Platform;
@@ -8,6 +10,7 @@ import javafx.event.EventHandler;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
@@ -16,6 +19,8 @@ import javafx.stage.Stage;
 import javafx.scene.image.Image;
 
 import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Represents the presentation of the application in which we create the JavaFX
@@ -55,6 +60,30 @@ public class View implements EventHandler<ActionEvent> {
      * Stage object that contains the JavaFX content
      */
     private Stage stage;
+    /**
+     * ExecutorService that runs saves on a background thread, one at a time.
+     */
+    private final ExecutorService saveExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "paint-save");
+        t.setDaemon(true);
+        return t;
+    });
+    /**
+     * SaveTask object that represents the save in progress, null when none is running.
+     */
+    private SaveTask saveTask;
+    /**
+     * Text object that shows the status of the program at the bottom of the window.
+     */
+    private Text statusText;
+    /**
+     * ProgressBar object that shows how far the save in progress has got.
+     */
+    private ProgressBar saveProgress;
+    /**
+     * Button object that cancels the save in progress.
+     */
+    private Button cancelSave;
 
     /**
      * Contracts a View object with the given paint model and stage
@@ -71,14 +100,25 @@ public class View implements EventHandler<ActionEvent> {
 
         BorderPane root = new BorderPane();
         root.setTop(createMenuBar());
-        StackPane canvasContainer = new StackPane(this.paintPanel);
+        StackPane canvasContainer = new StackPane(this.paintPanel, this.paintPanel.getOverlay());
         root.setCenter(canvasContainer);
         this.paintPanel.widthProperty().bind(canvasContainer.widthProperty());
         this.paintPanel.heightProperty().bind(canvasContainer.heightProperty());
         root.setLeft(this.shapeChooserPanel);
-        Text statusText = new Text("Ready");
-        statusText.setStyle("-fx-padding: 5px;");
-        root.setBottom(statusText);
+        this.statusText = new Text("Ready");
+        this.statusText.setStyle("-fx-padding: 5px;");
+        this.saveProgress = new ProgressBar(0);
+        this.cancelSave = new Button("Cancel");
+        this.cancelSave.setOnAction(e -> {
+            if (saveTask != null) {
+                saveTask.cancel();
+            }
+        });
+        this.saveProgress.setVisible(false);
+        this.cancelSave.setVisible(false);
+        HBox statusBar = new HBox(5, this.statusText, this.saveProgress, this.cancelSave);
+        statusBar.setStyle("-fx-padding: 0 5px 0 0; -fx-alignment: center-left;");
+        root.setBottom(statusBar);
         Scene scene = new Scene(root);
         stage.setScene(scene);
         stage.setTitle("Paint");
@@ -211,6 +251,16 @@ public class View implements EventHandler<ActionEvent> {
 
         menuBar.getMenus().add(menu);
 
+        // A menu for View
+
+        menu = new Menu("View");
+
+        menuItem = new CheckMenuItem("Performance HUD");
+        menuItem.setOnAction(this);
+        menu.getItems().add(menuItem);
+
+        menuBar.getMenus().add(menu);
+
         return menuBar;
     }
 
@@ -229,7 +279,17 @@ public class View implements EventHandler<ActionEvent> {
         File selectedFile = fc.showOpenDialog(stage);
         if (selectedFile != null) {
             try{
+                ImageDecodeEvent decode = new ImageDecodeEvent();
+                decode.begin();
                 Image i = new Image(selectedFile.toURI().toString());
+                decode.end();
+                if (decode.shouldCommit()) {
+                    decode.stage = "decode";
+                    decode.path = selectedFile.getAbsolutePath();
+                    decode.width = (int) i.getWidth();
+                    decode.height = (int) i.getHeight();
+                    decode.commit();
+                }
                 if (i.isError()) {
                     showErrorLog("Failed to load image",
                             "The selected file cannot be loded as an image.");
@@ -243,11 +303,12 @@ public class View implements EventHandler<ActionEvent> {
                     imgWidth *= scale;
                     imgHeight *= scale;
                 }
-                double x = (paintPanel.getWidth() - imgWidth) / 2;
-                double y = (paintPanel.getHeight() - imgHeight) / 2;
+                double[] visible = paintPanel.getVisibleBounds();
+                double x = visible[0] + (visible[2] - imgWidth) / 2;
+                double y = visible[1] + (visible[3] - imgHeight) / 2;
                 ImageS ishape = new ImageS(x, y, imgWidth, imgHeight, i, selectedFile.getAbsolutePath());
                 paintModel.addDrawableWithCommand(ishape);
-                System.out.println("Image Imported");
+                EventLog.info("Image Imported");
             } catch (Exception e) {
                 showErrorLog("Error while importing image"
                         ,"An error occurred while importing the image:\n" + e.getMessage());
@@ -256,6 +317,59 @@ public class View implements EventHandler<ActionEvent> {
         }
     }
 
+    /**
+     * Asks the user for a file and saves the drawing to it as SVG on the save thread.
+     * The save writes the version of the drawing current when it starts, so the user can keep
+     * drawing meanwhile; starting another save cancels the one in progress.
+     */
+    public void handleSave() {
+        FileChooser fc = new FileChooser();
+        fc.setTitle("Save");
+        fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("SVG Files", "*.svg"));
+        File selectedFile = fc.showSaveDialog(stage);
+        if (selectedFile == null) {
+            return;
+        }
+        if (!selectedFile.getName().contains(".")) {
+            selectedFile = new File(selectedFile.getParentFile(), selectedFile.getName() + ".svg");
+        }
+        if (saveTask != null) {
+            saveTask.cancel();
+        }
+        SaveTask task = new SaveTask(paintModel.getDocument(), selectedFile);
+        saveTask = task;
+        statusText.setText("Saving " + selectedFile.getName());
+        saveProgress.progressProperty().bind(task.progressProperty());
+        saveProgress.setVisible(true);
+        cancelSave.setVisible(true);
+        task.setOnSucceeded(e -> finishSave(task, "Saved " + task.getValue().getName()));
+        task.setOnCancelled(e -> finishSave(task, "Save cancelled"));
+        task.setOnFailed(e -> {
+            finishSave(task, "Save failed");
+            EventLog.warn("Save failed: ", task.getException());
+            showErrorLog("Error while saving",
+                    "The drawing could not be saved:\n" + task.getException().getMessage());
+        });
+        saveExecutor.execute(task);
+    }
+
+    /**
+     * Shows message in the status bar and hides the save progress, unless a newer save has
+     * started since task.
+     * @param task
+     * @param message
+     */
+    private void finishSave(SaveTask task, String message) {
+        if (saveTask != task) {
+            return;
+        }
+        saveTask = null;
+        saveProgress.progressProperty().unbind();
+        saveProgress.setVisible(false);
+        cancelSave.setVisible(false);
+        statusText.setText(message);
+    }
+
     /**
      * Creates and shows the error log.
      * @param title
@@ -282,29 +396,31 @@ public class View implements EventHandler<ActionEvent> {
             case "Exit" -> Platform.exit();
             case "Undo" -> {
                 paintModel.undo();
-                System.out.println("Undid");
+                EventLog.info("Undid");
             }
             case "Redo" -> {
                 paintModel.redo();
-                System.out.println("Redid");
+                EventLog.info("Redid");
             }
             case "Cut" -> {
                 paintModel.cut();
-                System.out.println("Cut");
+                EventLog.info("Cut");
             }
             case "Copy" -> {
                 paintModel.copy();
-                System.out.println("Copied");
+                EventLog.info("Copied");
             }
             case "Paste" -> {
                 paintModel.paste();
-                System.out.println("Pasted");
+                EventLog.info("Pasted");
             }
             case "Delete" -> {
                 paintModel.delete();
-                System.out.println("Deleted");
+                EventLog.info("Deleted");
             }
+            case "Save" -> handleSave();
             case "Import Image" -> handleImportImage();
+            case "Performance HUD" -> paintPanel.setHudVisible(((CheckMenuItem) event.getSource()).isSelected());
             default -> {
             }
         }
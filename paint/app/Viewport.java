@@ -0,0 +1,127 @@
+package paint.app;
+
+import paint.render.DrawingSurface;
+
+/**
+ * Representation of the view transform of the paint panel, mapping document coordinates
+ * (where the drawable shapes live) to screen coordinates (where the canvas draws them).
+ * A screen point (sx, sy) corresponds to the document point
+ * ((sx - translateX) / scale, (sy - translateY) / scale).
+ */
+public class Viewport {
+    /**
+     * double object that represents the smallest zoom factor allowed.
+     */
+    public static final double MIN_SCALE = 0.01;
+    /**
+     * double object that represents the largest zoom factor allowed.
+     */
+    public static final double MAX_SCALE = 64.0;
+    /**
+     * double object that represents the current zoom factor, the default is 1.
+     */
+    private double scale = 1.0;
+    /**
+     * double object translateX, translateY that represents the screen position of the
+     * document origin.
+     */
+    private double translateX = 0, translateY = 0;
+
+    /**
+     * RETURNS the current zoom factor.
+     * @return the scale attribute
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Converts the screen x-value sx to a document x-value.
+     * @param sx
+     * @return the document x-value under sx
+     */
+    public double toDocumentX(double sx) {
+        return (sx - translateX) / scale;
+    }
+
+    /**
+     * Converts the screen y-value sy to a document y-value.
+     * @param sy
+     * @return the document y-value under sy
+     */
+    public double toDocumentY(double sy) {
+        return (sy - translateY) / scale;
+    }
+
+    /**
+     * Converts the document x-value x to a screen x-value.
+     * @param x
+     * @return the screen x-value of x
+     */
+    public double toScreenX(double x) {
+        return x * scale + translateX;
+    }
+
+    /**
+     * Converts the document y-value y to a screen y-value.
+     * @param y
+     * @return the screen y-value of y
+     */
+    public double toScreenY(double y) {
+        return y * scale + translateY;
+    }
+
+    /**
+     * Moves the view by (dx, dy) screen pixels.
+     * @param dx
+     * @param dy
+     */
+    public void panBy(double dx, double dy) {
+        translateX += dx;
+        translateY += dy;
+    }
+
+    /**
+     * Multiplies the zoom by factor while keeping the document point under the screen
+     * point (sx, sy) fixed.
+     * @param factor
+     * @param sx
+     * @param sy
+     */
+    public void zoomAt(double factor, double sx, double sy) {
+        double newScale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale * factor));
+        double docX = toDocumentX(sx);
+        double docY = toDocumentY(sy);
+        scale = newScale;
+        translateX = sx - docX * scale;
+        translateY = sy - docY * scale;
+    }
+
+    /**
+     * Resets the view to a zoom of 1 with the document origin at the top left corner.
+     */
+    public void reset() {
+        scale = 1.0;
+        translateX = 0;
+        translateY = 0;
+    }
+
+    /**
+     * Gives the area of the document visible on a canvas of the given size.
+     * @param width
+     * @param height
+     * @return the visible bounds {x, y, width, height} in document coordinates
+     */
+    public double[] getVisibleBounds(double width, double height) {
+        return new double[]{toDocumentX(0), toDocumentY(0), width / scale, height / scale};
+    }
+
+    /**
+     * Applies the view transform to g2d so later drawing happens in document coordinates.
+     * @param g2d
+     */
+    public void apply(DrawingSurface g2d) {
+        g2d.translate(translateX, translateY);
+        g2d.scale(scale, scale);
+    }
+}
@@ -1,5 +1,6 @@
 package paint.command.pattern;
 
+import paint.app.Document;
 import paint.app.PaintModel;
 import paint.shapes.Drawable;
 
@@ -7,11 +8,7 @@ import paint.shapes.Drawable;
  * Implements the command interface to execute or undo specific actions
  * such as deleting, moving, pasting, etc.
  */
-public class AddCommand implements Command {
-    /**
-     * A PaintModel object to interact and execute or undo actions on screen.
-     */
-    private PaintModel model;
+public class AddCommand extends DocumentCommand {
     /**
      * A drawable shape that we execute or undo actions on.
      */
@@ -24,25 +21,17 @@ public class AddCommand implements Command {
      * @param drawable
      */
     public AddCommand(PaintModel model, Drawable drawable) {
-        this.model = model;
+        super(model);
         this.drawable = drawable;
     }
 
     /**
-     * Runs the action of the outlined command operation on the selected.
-     * drawable shape.
-     */
-    @Override
-    public void execute() {
-        model.addDrawableQuiet(drawable);
-    }
-
-    /**
-     * Undoes the most recent action of the outlined command operation on
-     * the selected drawable shape.
+     * Gives the document with the drawable shape added on top.
+     * @param document
+     * @return the document with the shape added.
      */
     @Override
-    public void undo() {
-        model.removeDrawableQuiet(drawable);
+    protected Document apply(Document document) {
+        return document.with(drawable);
     }
 }
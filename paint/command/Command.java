@@ -19,4 +19,22 @@ public interface Command {
      * executed.
      */
     void undo();
+
+    /**
+     * Gives the number of shapes the command acts on.
+     * @return the number of shapes, 1 unless the command acts on several shapes.
+     */
+    default int getShapeCount() {
+        return 1;
+    }
+
+    /**
+     * Merges the command next, which has just been executed, into this command so both are
+     * undone together, if they form one edit.
+     * @param next
+     * @return true if next was merged into this command, otherwise false.
+     */
+    default boolean mergeWith(Command next) {
+        return false;
+    }
 }
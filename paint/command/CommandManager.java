@@ -1,5 +1,7 @@
 package paint.command.pattern;
 
+import paint.jfr.CommandEvent;
+
 import java.util.Stack;
 
 /**
@@ -23,13 +25,20 @@ public class CommandManager {
     private final Stack<Command> redoStack = new Stack<>();
 
     /**
-     * Runs the action of the outlined command operation and adds the command to the undo stack.
-     * While clearing the redo stack.
+     * Runs the action of the outlined command operation and adds the command to the undo stack,
+     * unless the command on top of the undo stack merges it. While clearing the redo stack.
      */
     public void execute(Command command) {
+        CommandEvent event = new CommandEvent();
+        event.begin();
         command.execute();
-        undoStack.push(command);
         redoStack.clear();
+        if (!undoStack.isEmpty() && undoStack.peek().mergeWith(command)) {
+            commit(event, command, "merge");
+            return;
+        }
+        undoStack.push(command);
+        commit(event, command, "execute");
     }
 
     /**
@@ -38,9 +47,12 @@ public class CommandManager {
      */
     public void undo() {
         if (undoStack.isEmpty()) return;
+        CommandEvent event = new CommandEvent();
+        event.begin();
         Command command = undoStack.pop();
         command.undo();
         redoStack.push(command);
+        commit(event, command, "undo");
     }
 
     /**
@@ -49,10 +61,12 @@ public class CommandManager {
      */
     public void redo() {
         if (redoStack.isEmpty()) return;
+        CommandEvent event = new CommandEvent();
+        event.begin();
         Command command = redoStack.pop();
         command.execute();
         undoStack.push(command);
-
+        commit(event, command, "redo");
     }
 
     /**
@@ -70,4 +84,20 @@ public class CommandManager {
     public boolean canRedo() {
         return !redoStack.isEmpty();
     }
+
+    /**
+     * Commits the flight recorder event for a command operation if it is being recorded.
+     * @param event
+     * @param command
+     * @param operation
+     */
+    private void commit(CommandEvent event, Command command, String operation) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.commandType = command.getClass().getSimpleName();
+            event.operation = operation;
+            event.shapeCount = command.getShapeCount();
+            event.commit();
+        }
+    }
 }
@@ -39,4 +39,12 @@ public class Copy implements Command {
     public void undo() {
     }
 
+    /**
+     * Gives the number of shapes copied.
+     * @return the number of shapes the command acts on.
+     */
+    @Override
+    public int getShapeCount() {
+        return selectedShapes.size();
+    }
 }
@@ -1,10 +1,12 @@
 package paint.command.pattern;
 
 import paint.app.Clipboard;
+import paint.app.Document;
 import paint.app.PaintModel;
 import paint.shapes.Drawable;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -13,11 +15,7 @@ import java.util.List;
  * they can be pasted using the paste action.
  * We can execute the operation or undo our previous execution.
  */
-public class Cut implements Command {
-    /**
-     * A PaintModel object to interact and execute or undo actions on screen.
-     */
-    private final PaintModel model;
+public class Cut extends DocumentCommand {
     /**
      * Arraylist that contains the drawable shapes that will be cut
      * when the cut action is executed.
@@ -29,29 +27,35 @@ public class Cut implements Command {
      * @param selectedShapes
      */
     public Cut(PaintModel model, List<Drawable> selectedShapes) {
-        this.model = model;
+        super(model);
         this.cutShapes = new ArrayList<>(selectedShapes);
     }
 
     /**
-     * Runs the cut action on the selected shapes.
+     * Runs the cut action on the selected shapes, copying them to the clipboard.
      */
     @Override
     public void execute() {
         Clipboard.getInstance().copy(cutShapes);
-        for (Drawable s : cutShapes) {
-            model.removeDrawableQuiet(s);
-        }
+        super.execute();
+    }
+
+    /**
+     * Gives the document without the cut shapes.
+     * @param document
+     * @return the document with the shapes removed.
+     */
+    @Override
+    protected Document apply(Document document) {
+        return document.without(new HashSet<>(cutShapes));
     }
 
     /**
-     * Undoes the deletion process from the cut action such that the
-     * most recent deleted shapes are readded.
+     * Gives the number of shapes cut.
+     * @return the number of shapes the command acts on.
      */
     @Override
-    public void undo() {
-        for (Drawable s : cutShapes) {
-            model.addDrawableQuiet(s);
-        }
+    public int getShapeCount() {
+        return cutShapes.size();
     }
 }
@@ -1,9 +1,11 @@
 package paint.command.pattern;
 
+import paint.app.Document;
 import paint.app.PaintModel;
 import paint.shapes.Drawable;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -11,11 +13,7 @@ import java.util.List;
  * The delete operation removes the selected shapes from the paint panel.
  * We can execute the operation or undo our previous execution.
  */
-public class Delete implements Command {
-    /**
-     * A PaintModel object to interact and execute or undo actions on screen.
-     */
-    private final PaintModel model;
+public class Delete extends DocumentCommand {
     /**
      * Arraylist that contains the drawable shapes that will be deleted
      * when the delete action is executed.
@@ -28,27 +26,26 @@ public class Delete implements Command {
      * @param selectedShapes
      */
     public Delete(PaintModel model, List<Drawable> selectedShapes) {
-        this.model = model;
+        super(model);
         this.deletedShapes = new ArrayList<>(selectedShapes);
     }
 
     /**
-     * Runs the delete action on the selected shapes.
+     * Gives the document without the deleted shapes.
+     * @param document
+     * @return the document with the shapes removed.
      */
     @Override
-    public void execute() {
-        for (Drawable s : deletedShapes) {
-            model.removeDrawableQuiet(s);
-        }
+    protected Document apply(Document document) {
+        return document.without(new HashSet<>(deletedShapes));
     }
 
     /**
-     * Undoes the delete action such that the most recent deleted shapes are readded.
+     * Gives the number of shapes deleted.
+     * @return the number of shapes the command acts on.
      */
     @Override
-    public void undo() {
-        for (Drawable s : deletedShapes) {
-            model.addDrawableQuiet(s);
-        }
+    public int getShapeCount() {
+        return deletedShapes.size();
     }
 }
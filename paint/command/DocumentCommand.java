@@ -0,0 +1,85 @@
+package paint.command.pattern;
+
+import paint.app.Document;
+import paint.app.PaintModel;
+
+/**
+ * Representation of a command that changes the shapes of the drawing.
+ * The first time the command is executed it works out the new version of the document from
+ * the current one; afterwards executing and undoing it only switch the model between the
+ * two versions, so undo and redo take the same time however large the change was.
+ */
+public abstract class DocumentCommand implements Command {
+    /**
+     * A PaintModel object to interact and execute or undo actions on screen.
+     */
+    protected final PaintModel model;
+    /**
+     * Document objects before, after that represent the drawing before and after the command.
+     */
+    private Document before, after;
+
+    /**
+     * Constructs a DocumentCommand acting on the given paint model.
+     * @param model
+     */
+    protected DocumentCommand(PaintModel model) {
+        this.model = model;
+    }
+
+    /**
+     * Gives the version of the document after the command, given the version before it.
+     * This is only called the first time the command is executed.
+     * @param document
+     * @return the changed document.
+     */
+    protected abstract Document apply(Document document);
+
+    /**
+     * Switches the model to the version of the document after the command, working it out
+     * the first time.
+     */
+    @Override
+    public void execute() {
+        if (after == null) {
+            before = model.getDocument();
+            after = apply(before);
+        }
+        model.setDocument(after);
+    }
+
+    /**
+     * Switches the model back to the version of the document before the command.
+     */
+    @Override
+    public void undo() {
+        if (before != null) {
+            model.setDocument(before);
+        }
+    }
+
+    /**
+     * RETURNS the version of the document before the command.
+     * @return the before attribute
+     */
+    protected Document getBefore() {
+        return before;
+    }
+
+    /**
+     * RETURNS the version of the document after the command.
+     * @return the after attribute
+     */
+    protected Document getAfter() {
+        return after;
+    }
+
+    /**
+     * Changes the version of the document after the command, used when a following command
+     * is merged into this one.
+     * @param after
+     */
+    protected void setAfter(Document after) {
+        this.after = after;
+    }
+}
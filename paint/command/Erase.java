@@ -0,0 +1,79 @@
+package paint.command.pattern;
+
+import paint.app.Document;
+import paint.app.PaintModel;
+import paint.shapes.Drawable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representation of the erase operation, which replaces the strokes the eraser passed over
+ * with the pieces of them that are left.
+ * The pieces are views of the erased strokes' points, cut at new end points, so the command
+ * keeps only where each stroke was split rather than copies of the strokes. The erase
+ * commands of one drag are merged, so the whole drag is undone as one.
+ */
+public class Erase extends DocumentCommand {
+    /**
+     * Map of the pieces left of each erased shape, by the shape.
+     */
+    private final Map<Drawable, List<Drawable>> pieces;
+    /**
+     * Object that represents the drag the erasing was part of.
+     */
+    private final Object gesture;
+    /**
+     * int object that represents the number of shapes erased, including by merged commands.
+     */
+    private int erasedCount;
+
+    /**
+     * Constructs an Erase that replaces each shape that is a key of pieces with the shapes
+     * of its value, as part of the drag gesture.
+     * @param model
+     * @param pieces
+     * @param gesture
+     */
+    public Erase(PaintModel model, Map<Drawable, List<Drawable>> pieces, Object gesture) {
+        super(model);
+        this.pieces = pieces;
+        this.gesture = gesture;
+        this.erasedCount = pieces.size();
+    }
+
+    /**
+     * Gives the document with each erased shape replaced by its pieces.
+     * @param document
+     * @return the document with the shapes erased.
+     */
+    @Override
+    protected Document apply(Document document) {
+        return document.split(pieces);
+    }
+
+    /**
+     * Merges next into this command if it erased more of the drawing during the same drag,
+     * straight after this command.
+     * @param next
+     * @return true if next was merged into this command, otherwise false.
+     */
+    @Override
+    public boolean mergeWith(Command next) {
+        if (!(next instanceof Erase e) || e.gesture != gesture || e.getBefore() != getAfter()) {
+            return false;
+        }
+        setAfter(e.getAfter());
+        erasedCount += e.erasedCount;
+        return true;
+    }
+
+    /**
+     * Gives the number of shapes erased.
+     * @return the number of shapes the command acts on.
+     */
+    @Override
+    public int getShapeCount() {
+        return erasedCount;
+    }
+}
@@ -1,15 +1,23 @@
 package paint.command.pattern;
 
+import paint.app.Document;
+import paint.app.PaintModel;
 import paint.shapes.Drawable;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Representation of the move operation to move shapes from one position to another
  * based on the mouse clicking the shape, then dragging and releasing shapes to a new position.
  * We can execute the operation or undo our previous execution.
+ * The moved shapes are copies of the targets, which share their points with them and only
+ * differ by their translation, so the first execution takes the same time however many
+ * points the shapes have, and undo and redo switch between document versions.
  */
-public class Move implements Command {
+public class Move extends DocumentCommand {
     /**
      * Arraylist that contains the drawable shapes that are selected.
      */
@@ -18,36 +26,57 @@ public class Move implements Command {
      * double dx, dy represents the change in x-axis and y-axis.
      */
     private final double dx, dy;
+    /**
+     * Arraylist that contains the moved copies of the targets, in the same order.
+     */
+    private final List<Drawable> moved = new ArrayList<>();
 
     /**
      * Contracts a Move object with the selected shapes added to the
      * targets ArrayList and dx, dy are initialized.
+     * @param model
      * @param targets
+     * @param dx
+     * @param dy
      */
-    public Move(List<Drawable> targets, double dx, double dy) {
+    public Move(PaintModel model, List<Drawable> targets, double dx, double dy) {
+        super(model);
         this.targets = targets;
         this.dx = dx;
         this.dy = dy;
     }
 
     /**
-     * Runs the move action on the selected shapes.
+     * Gives the document with each target replaced by a copy of it moved by (dx, dy).
+     * @param document
+     * @return the document with the shapes moved.
      */
     @Override
-    public void execute() {
+    protected Document apply(Document document) {
+        Map<Drawable, Drawable> replacements = new IdentityHashMap<>();
         for (Drawable d : targets) {
-            d.offset(dx, dy);
+            Drawable copy = d.clone();
+            copy.offset(dx, dy);
+            replacements.put(d, copy);
+            moved.add(copy);
         }
+        return document.replaceAll(replacements);
+    }
+
+    /**
+     * RETURNS the moved copies of the targets, in the same order as the targets.
+     * @return the moved attribute
+     */
+    public List<Drawable> getMovedShapes() {
+        return moved;
     }
 
     /**
-     * Undoes the move action such that the selected shapes is moved back
-     * to their original position.
+     * Gives the number of shapes moved.
+     * @return the number of shapes the command acts on.
      */
     @Override
-    public void undo() {
-        for (Drawable d : targets) {
-            d.offset(-dx, -dy);
-        }
+    public int getShapeCount() {
+        return targets.size();
     }
 }
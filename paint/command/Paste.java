@@ -1,6 +1,7 @@
 package paint.command.pattern;
 
 import paint.app.Clipboard;
+import paint.app.Document;
 import paint.app.PaintModel;
 import paint.shapes.Drawable;
 
@@ -12,11 +13,7 @@ import java.util.List;
  * can be executed to paste the selected shapes.
  * We can execute the operation or undo our previous execution.
  */
-public class Paste implements Command {
-    /**
-     * A PaintModel object to interact and execute or undo actions on screen.
-     */
-    private final PaintModel model;
+public class Paste extends DocumentCommand {
     /**
      * Arraylist that contains the drawable shapes that will be pasted
      * when the paste action is executed.
@@ -28,30 +25,18 @@ public class Paste implements Command {
      * @param model
      */
     public Paste(PaintModel model) {
-        this.model = model;
+        super(model);
     }
 
     /**
-     * Gets the shapes copied to the clipboard and draws them onto the paint model.
+     * Gets the shapes copied to the clipboard and gives the document with them added on top.
+     * @param document
+     * @return the document with the pasted shapes.
      */
     @Override
-    public void execute() {
+    protected Document apply(Document document) {
         pastedShapes = Clipboard.getInstance().paste();
-        for (Drawable s : pastedShapes) {
-            model.addDrawableQuiet(s);
-        }
-    }
-
-    /**
-     * Undoes the Paste action such that the most recent pasted shapes are removed
-     */
-    @Override
-    public void undo() {
-        if (pastedShapes != null) {
-            for (Drawable s : pastedShapes) {
-                model.removeDrawableQuiet(s);
-            }
-        }
+        return document.withAll(pastedShapes);
     }
 
     /**
@@ -61,4 +46,13 @@ public class Paste implements Command {
     public List<Drawable> getPastedshapes() {
         return pastedShapes;
     }
+
+    /**
+     * Gives the number of shapes pasted.
+     * @return the number of shapes pasted, 0 before the paste is executed.
+     */
+    @Override
+    public int getShapeCount() {
+        return pastedShapes == null ? 0 : pastedShapes.size();
+    }
 }
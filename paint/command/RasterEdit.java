@@ -0,0 +1,67 @@
+package paint.command.pattern;
+
+import paint.app.RasterLayer;
+
+import java.util.Map;
+
+/**
+ * Representation of a change to the pixels of the raster layer, such as one brush stroke.
+ * The pixels are painted before the command is executed, so the first execution does
+ * nothing. The command keeps only the tiles the change touched as they were before it;
+ * undoing saves those tiles as they are now, for redo, and puts the earlier ones back.
+ */
+public class RasterEdit implements Command {
+    /**
+     * RasterLayer object that represents the layer that was changed.
+     */
+    private final RasterLayer layer;
+    /**
+     * Map of the changed tiles as they were before the change, by tile key.
+     */
+    private final Map<Long, int[]> before;
+    /**
+     * Map of the changed tiles as they were after the change, by tile key, kept while the
+     * command is undone; null otherwise.
+     */
+    private Map<Long, int[]> after = null;
+
+    /**
+     * Constructs a RasterEdit for a change already made to layer, given the tiles it changed
+     * as they were before it.
+     * @param layer
+     * @param before
+     */
+    public RasterEdit(RasterLayer layer, Map<Long, int[]> before) {
+        this.layer = layer;
+        this.before = before;
+    }
+
+    /**
+     * Redoes the change; the first execution does nothing since the change is already made.
+     */
+    @Override
+    public void execute() {
+        if (after != null) {
+            layer.restoreTiles(after);
+            after = null;
+        }
+    }
+
+    /**
+     * Puts back the tiles the change touched as they were before it.
+     */
+    @Override
+    public void undo() {
+        after = layer.copyTiles(before.keySet());
+        layer.restoreTiles(before);
+    }
+
+    /**
+     * Gives the number of tiles changed.
+     * @return the number of tiles the command acts on.
+     */
+    @Override
+    public int getShapeCount() {
+        return before.size();
+    }
+}
@@ -0,0 +1,108 @@
+package paint.command.pattern;
+
+import paint.app.Document;
+import paint.app.PaintModel;
+import paint.shapes.Drawable;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Representation of the restyle operation to change the color, line width or fill style
+ * of the selected shapes. The restyled shapes are copies of the targets with the style changed.
+ * Restyles made one after another during the same gesture, such as a drag of the line
+ * width slider, are merged so they are undone together.
+ * We can execute the operation or undo our previous execution.
+ */
+public class Restyle extends DocumentCommand {
+    /**
+     * Arraylist that contains the drawable shapes that are restyled.
+     */
+    private final List<Drawable> targets;
+    /**
+     * Consumer that changes the style of a shape.
+     */
+    private final Consumer<Drawable> change;
+    /**
+     * Object that represents the gesture the restyle was part of.
+     */
+    private final Object gesture;
+    /**
+     * Arraylist that contains the restyled copies of the targets, in the same order.
+     */
+    private List<Drawable> restyled = new ArrayList<>();
+
+    /**
+     * Contracts a Restyle object that applies change to copies of the targets, as part of
+     * the gesture.
+     * @param model
+     * @param targets
+     * @param change
+     * @param gesture
+     */
+    public Restyle(PaintModel model, List<Drawable> targets, Consumer<Drawable> change, Object gesture) {
+        super(model);
+        this.targets = targets;
+        this.change = change;
+        this.gesture = gesture;
+    }
+
+    /**
+     * Gives the document with each target replaced by a restyled copy of it.
+     * @param document
+     * @return the document with the shapes restyled.
+     */
+    @Override
+    protected Document apply(Document document) {
+        Map<Drawable, Drawable> replacements = new IdentityHashMap<>();
+        for (Drawable d : targets) {
+            Drawable copy = d.clone();
+            change.accept(copy);
+            replacements.put(d, copy);
+            restyled.add(copy);
+        }
+        return document.replaceAll(replacements);
+    }
+
+    /**
+     * RETURNS the restyled copies of the targets, in the same order as the targets.
+     * @return the restyled attribute
+     */
+    public List<Drawable> getRestyledShapes() {
+        return restyled;
+    }
+
+    /**
+     * Merges next into this restyle if it restyles the shapes this restyle produced during
+     * the same gesture, straight after it.
+     * @param next
+     * @return true if next was merged, otherwise false.
+     */
+    @Override
+    public boolean mergeWith(Command next) {
+        if (!(next instanceof Restyle r) || r.gesture != gesture
+                || r.getBefore() != getAfter() || r.targets.size() != restyled.size()) {
+            return false;
+        }
+        for (int i = 0; i < restyled.size(); i++) {
+            if (r.targets.get(i) != restyled.get(i)) {
+                return false;
+            }
+        }
+        setAfter(r.getAfter());
+        restyled = r.restyled;
+        return true;
+    }
+
+    /**
+     * Gives the number of shapes restyled.
+     * @return the number of shapes the command acts on.
+     */
+    @Override
+    public int getShapeCount() {
+        return targets.size();
+    }
+}
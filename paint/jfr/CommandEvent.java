@@ -0,0 +1,27 @@
+package paint.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a command run by the CommandManager, covering execute, undo and redo.
+ */
+@Name("paint.Command")
+@Label("Command")
+@Category({"Paint", "Editing"})
+@Description("An undoable command executed, undone or redone")
+public class CommandEvent extends Event {
+    @Label("Command Type")
+    public String commandType;
+
+    @Label("Operation")
+    @Description("execute, merge, undo or redo")
+    public String operation;
+
+    @Label("Shape Count")
+    @Description("Number of shapes the command acts on")
+    public int shapeCount;
+}
@@ -0,0 +1,27 @@
+package paint.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a query of the document for the shapes at a point or in an area.
+ */
+@Name("paint.HitTest")
+@Label("Hit Test")
+@Category({"Paint", "Selection"})
+@Description("A click or marquee query of the document")
+public class HitTestEvent extends Event {
+    @Label("Kind")
+    @Description("click or marquee, marked parallel when the document was searched in parallel")
+    public String kind;
+
+    @Label("Candidates Tested")
+    @Description("Number of shapes tested against the query")
+    public int candidatesTested;
+
+    @Label("Hits")
+    public int hits;
+}
@@ -0,0 +1,29 @@
+package paint.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for decoding an image or building its mipmaps.
+ */
+@Name("paint.ImageDecode")
+@Label("Image Decode")
+@Category({"Paint", "Images"})
+@Description("An image decoded from a file, or its mipmaps built from the decoded pixels")
+public class ImageDecodeEvent extends Event {
+    @Label("Stage")
+    @Description("decode or mipmaps")
+    public String stage;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+}
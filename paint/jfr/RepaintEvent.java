@@ -0,0 +1,26 @@
+package paint.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for one repaint of the paint panel.
+ */
+@Name("paint.Repaint")
+@Label("Repaint")
+@Category({"Paint", "Rendering"})
+@Description("One full repaint of the paint panel")
+public class RepaintEvent extends Event {
+    @Label("Shapes Drawn")
+    public int shapesDrawn;
+
+    @Label("Shapes Culled")
+    @Description("Shapes skipped because they were outside the visible area")
+    public int shapesCulled;
+
+    @Label("Selected Shapes")
+    public int selectedShapes;
+}
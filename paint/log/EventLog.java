@@ -0,0 +1,228 @@
+package paint.log;
+
+import java.io.PrintStream;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous, level-gated log for the paint program.
+ * Callers only compare the level and offer a message to a bounded queue, so the JavaFX
+ * thread is never blocked on console output: a daemon thread formats and writes the
+ * messages, and when the queue is full new messages are dropped and counted instead.
+ * The level comes from the system property paint.log.level (DEBUG, INFO, WARN or OFF)
+ * and defaults to INFO.
+ */
+public final class EventLog {
+    /**
+     * int object that represents the most messages waiting to be written.
+     */
+    public static final int CAPACITY = 1024;
+    /**
+     * LogLevel object that represents the least severe level that is written.
+     */
+    private static volatile LogLevel level = parseLevel(System.getProperty("paint.log.level"));
+    /**
+     * BlockingQueue object that represents the messages waiting to be written.
+     */
+    private static final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(CAPACITY);
+    /**
+     * AtomicLong object that represents the number of messages dropped because the queue was full.
+     */
+    private static final AtomicLong dropped = new AtomicLong();
+    /**
+     * PrintStream object that represents where messages are written.
+     */
+    private static final PrintStream out = System.out;
+    /**
+     * Thread object that represents the writer, started with the first message.
+     */
+    private static volatile Thread writer;
+
+    /**
+     * A message waiting to be written, with its detail kept unformatted until then.
+     */
+    private record Entry(long time, LogLevel level, String message, Object detail) {
+    }
+
+    private EventLog() {
+    }
+
+    /**
+     * Sets the least severe level that is written.
+     * @param level
+     */
+    public static void setLevel(LogLevel level) {
+        EventLog.level = level;
+    }
+
+    /**
+     * RETURNS the least severe level that is written.
+     * @return the level attribute
+     */
+    public static LogLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * RETURNS true if messages at the given level are written.
+     * @param messageLevel
+     * @return if the level is enabled.
+     */
+    public static boolean isEnabled(LogLevel messageLevel) {
+        LogLevel current = level;
+        return current != LogLevel.OFF && messageLevel.compareTo(current) >= 0;
+    }
+
+    /**
+     * RETURNS the number of messages dropped because the queue was full.
+     * @return the number of dropped messages.
+     */
+    public static long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Logs message at the DEBUG level.
+     * @param message
+     */
+    public static void debug(String message) {
+        log(LogLevel.DEBUG, message, null);
+    }
+
+    /**
+     * Logs message followed by detail at the DEBUG level. The detail is only turned into a
+     * string by the writer thread.
+     * @param message
+     * @param detail
+     */
+    public static void debug(String message, Object detail) {
+        log(LogLevel.DEBUG, message, detail);
+    }
+
+    /**
+     * Logs message at the INFO level.
+     * @param message
+     */
+    public static void info(String message) {
+        log(LogLevel.INFO, message, null);
+    }
+
+    /**
+     * Logs message followed by detail at the INFO level. The detail is only turned into a
+     * string by the writer thread.
+     * @param message
+     * @param detail
+     */
+    public static void info(String message, Object detail) {
+        log(LogLevel.INFO, message, detail);
+    }
+
+    /**
+     * Logs message followed by detail at the WARN level. The detail is only turned into a
+     * string by the writer thread.
+     * @param message
+     * @param detail
+     */
+    public static void warn(String message, Object detail) {
+        log(LogLevel.WARN, message, detail);
+    }
+
+    /**
+     * Queues message and its detail to be written if level is enabled, dropping them if the
+     * queue is full.
+     * @param messageLevel
+     * @param message
+     * @param detail
+     */
+    private static void log(LogLevel messageLevel, String message, Object detail) {
+        if (!isEnabled(messageLevel)) {
+            return;
+        }
+        startWriter();
+        if (!queue.offer(new Entry(System.currentTimeMillis(), messageLevel, message, detail))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Starts the writer thread if it is not running yet.
+     */
+    private static void startWriter() {
+        if (writer != null) {
+            return;
+        }
+        synchronized (EventLog.class) {
+            if (writer == null) {
+                Thread thread = new Thread(EventLog::write, "paint-log");
+                thread.setDaemon(true);
+                thread.start();
+                writer = thread;
+            }
+        }
+    }
+
+    /**
+     * Writes queued messages in batches until the program exits, reporting any dropped
+     * messages before the batch that follows them.
+     */
+    private static void write() {
+        List<Entry> batch = new ArrayList<>();
+        long reported = 0;
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+            long lost = dropped.get();
+            if (lost > reported) {
+                out.println("WARN  " + (lost - reported) + " log messages dropped");
+                reported = lost;
+            }
+            for (Entry entry : batch) {
+                StringBuilder line = new StringBuilder();
+                line.append(LocalTime.ofNanoOfDay(localNanos(entry.time())))
+                        .append(' ').append(String.format("%-5s", entry.level())).append(' ')
+                        .append(entry.message());
+                if (entry.detail() != null) {
+                    line.append(entry.detail());
+                }
+                out.println(line);
+            }
+            out.flush();
+            batch.clear();
+        }
+    }
+
+    /**
+     * Gives the nanoseconds since local midnight of the epoch millisecond time.
+     * @param time
+     * @return the nanosecond of the day.
+     */
+    private static long localNanos(long time) {
+        long offset = TimeZone.getDefault().getOffset(time);
+        return Math.floorMod(time + offset, 86_400_000L) * 1_000_000L;
+    }
+
+    /**
+     * Gives the level named by value, or INFO if value is missing or unknown.
+     * @param value
+     * @return the parsed level.
+     */
+    private static LogLevel parseLevel(String value) {
+        if (value != null) {
+            for (LogLevel l : LogLevel.values()) {
+                if (l.name().equalsIgnoreCase(value.trim())) {
+                    return l;
+                }
+            }
+        }
+        return LogLevel.INFO;
+    }
+}
@@ -0,0 +1,24 @@
+package paint.log;
+
+/**
+ * Severity of a log message, from the most detailed to the most serious.
+ * Messages below the level set on {@link EventLog} are discarded before any work is done.
+ */
+public enum LogLevel {
+    /**
+     * Per-shape and per-gesture detail, such as each shape added by a drawing strategy.
+     */
+    DEBUG,
+    /**
+     * User actions, such as undo, paste or a tool change.
+     */
+    INFO,
+    /**
+     * Recoverable problems, such as a missing icon.
+     */
+    WARN,
+    /**
+     * Disables logging.
+     */
+    OFF
+}
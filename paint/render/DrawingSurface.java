@@ -0,0 +1,101 @@
+package paint.render;
+
+import javafx.scene.image.Image;
+import javafx.scene.paint.Paint;
+
+/**
+ * Interface for the surfaces drawable shapes are drawn onto.
+ * Mirrors the parts of the JavaFX GraphicsContext the program draws with, so the same
+ * drawing code can target the screen or a stand-in such as a recording surface for
+ * headless benchmarks.
+ */
+public interface DrawingSurface {
+    /**
+     * Changes the paint used by the fill operations.
+     * @param p
+     */
+    void setFill(Paint p);
+
+    /**
+     * Changes the paint used by the stroke operations.
+     * @param p
+     */
+    void setStroke(Paint p);
+
+    /**
+     * Changes the width of stroked lines.
+     * @param lw
+     */
+    void setLineWidth(double lw);
+
+    /**
+     * Changes the dash pattern of stroked lines, no dashes gives solid lines.
+     * @param dashes
+     */
+    void setLineDashes(double... dashes);
+
+    void fillRect(double x, double y, double w, double h);
+
+    void strokeRect(double x, double y, double w, double h);
+
+    void clearRect(double x, double y, double w, double h);
+
+    void fillOval(double x, double y, double w, double h);
+
+    void strokeOval(double x, double y, double w, double h);
+
+    void strokeLine(double x1, double y1, double x2, double y2);
+
+    void fillPolygon(double[] xPoints, double[] yPoints, int nPoints);
+
+    void strokePolygon(double[] xPoints, double[] yPoints, int nPoints);
+
+    void strokePolyline(double[] xPoints, double[] yPoints, int nPoints);
+
+    void drawImage(Image img, double x, double y, double w, double h);
+
+    void fillText(String text, double x, double y);
+
+    /**
+     * Starts a new path, discarding the current one.
+     */
+    void beginPath();
+
+    /**
+     * Starts a new part of the current path at (x, y).
+     * @param x
+     * @param y
+     */
+    void moveTo(double x, double y);
+
+    /**
+     * Adds to the current path a cubic Bezier curve from the end of the path to (x, y), with
+     * the control points (c1x, c1y) and (c2x, c2y).
+     * @param c1x
+     * @param c1y
+     * @param c2x
+     * @param c2y
+     * @param x
+     * @param y
+     */
+    void bezierCurveTo(double c1x, double c1y, double c2x, double c2y, double x, double y);
+
+    /**
+     * Strokes the current path with the current stroke settings.
+     */
+    void stroke();
+
+    /**
+     * Saves the current state (paints, line width, dashes and transform) on a stack.
+     */
+    void save();
+
+    /**
+     * Restores the state most recently saved.
+     */
+    void restore();
+
+    void translate(double x, double y);
+
+    void scale(double x, double y);
+}
@@ -0,0 +1,147 @@
+package paint.render;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Paint;
+
+/**
+ * Representation of a drawing surface backed by a JavaFX GraphicsContext, forwarding every
+ * operation to the canvas it belongs to.
+ */
+public class GraphicsContextSurface implements DrawingSurface {
+    /**
+     * GraphicsContext object that is drawn onto.
+     */
+    private final GraphicsContext gc;
+
+    /**
+     * Constructs a new GraphicsContextSurface that draws onto gc.
+     * @param gc
+     */
+    public GraphicsContextSurface(GraphicsContext gc) {
+        this.gc = gc;
+    }
+
+    /**
+     * RETURNS the graphics context the surface draws onto.
+     * @return the gc attribute
+     */
+    public GraphicsContext getGraphicsContext() {
+        return gc;
+    }
+
+    @Override
+    public void setFill(Paint p) {
+        gc.setFill(p);
+    }
+
+    @Override
+    public void setStroke(Paint p) {
+        gc.setStroke(p);
+    }
+
+    @Override
+    public void setLineWidth(double lw) {
+        gc.setLineWidth(lw);
+    }
+
+    @Override
+    public void setLineDashes(double... dashes) {
+        gc.setLineDashes(dashes);
+    }
+
+    @Override
+    public void fillRect(double x, double y, double w, double h) {
+        gc.fillRect(x, y, w, h);
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double w, double h) {
+        gc.strokeRect(x, y, w, h);
+    }
+
+    @Override
+    public void clearRect(double x, double y, double w, double h) {
+        gc.clearRect(x, y, w, h);
+    }
+
+    @Override
+    public void fillOval(double x, double y, double w, double h) {
+        gc.fillOval(x, y, w, h);
+    }
+
+    @Override
+    public void strokeOval(double x, double y, double w, double h) {
+        gc.strokeOval(x, y, w, h);
+    }
+
+    @Override
+    public void strokeLine(double x1, double y1, double x2, double y2) {
+        gc.strokeLine(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void fillPolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        gc.fillPolygon(xPoints, yPoints, nPoints);
+    }
+
+    @Override
+    public void strokePolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        gc.strokePolygon(xPoints, yPoints, nPoints);
+    }
+
+    @Override
+    public void strokePolyline(double[] xPoints, double[] yPoints, int nPoints) {
+        gc.strokePolyline(xPoints, yPoints, nPoints);
+    }
+
+    @Override
+    public void drawImage(Image img, double x, double y, double w, double h) {
+        gc.drawImage(img, x, y, w, h);
+    }
+
+    @Override
+    public void fillText(String text, double x, double y) {
+        gc.fillText(text, x, y);
+    }
+
+    @Override
+    public void beginPath() {
+        gc.beginPath();
+    }
+
+    @Override
+    public void moveTo(double x, double y) {
+        gc.moveTo(x, y);
+    }
+
+    @Override
+    public void bezierCurveTo(double c1x, double c1y, double c2x, double c2y, double x, double y) {
+        gc.bezierCurveTo(c1x, c1y, c2x, c2y, x, y);
+    }
+
+    @Override
+    public void stroke() {
+        gc.stroke();
+    }
+
+    @Override
+    public void save() {
+        gc.save();
+    }
+
+    @Override
+    public void restore() {
+        gc.restore();
+    }
+
+    @Override
+    public void translate(double x, double y) {
+        gc.translate(x, y);
+    }
+
+    @Override
+    public void scale(double x, double y) {
+        gc.scale(x, y);
+    }
+}
@@ -0,0 +1,496 @@
+package paint.render;
+
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Representation of a drawing surface that records which cells of a grid are covered by what
+ * is drawn onto it, for finding the regions the shapes enclose. The grid covers a rectangle
+ * of the document, and each cell is a square of cellSize document units that counts as
+ * covered when its centre is.
+ * Paints are ignored apart from fully transparent ones, which cover nothing, and dashed lines
+ * count as solid so a dashed outline still closes a region. Lines are always at least wide
+ * enough that their cells connect edge to edge, so a thin diagonal line cannot be crossed.
+ * Text is not drawn.
+ */
+public class MaskSurface implements DrawingSurface {
+    /**
+     * double object that represents the smallest half width of a line, in cells, that still
+     * covers an edge-connected path of cells, just over half the diagonal of a cell.
+     */
+    private static final double MIN_HALF_WIDTH = 0.75;
+    /**
+     * The grid: one byte per cell, row by row, 1 where the cell is covered and 0 elsewhere.
+     */
+    private final byte[] mask;
+    /**
+     * int object width, height that represents the number of columns and rows of cells.
+     */
+    private final int width, height;
+    /**
+     * double object originX, originY, cellSize that represents the document position of the
+     * top left corner of the grid and the size of a cell in document units.
+     */
+    private final double originX, originY, cellSize;
+    /**
+     * State object that represents the current paints, line width and transform.
+     */
+    private State state = new State();
+    /**
+     * Deque of the states saved by save().
+     */
+    private final Deque<State> saved = new ArrayDeque<>();
+    /**
+     * The segments of the current path in cells, as x1, y1, x2, y2 each, with curves already
+     * flattened; pathSize is the number of values used.
+     */
+    private double[] path = new double[64];
+    private int pathSize = 0;
+    /**
+     * double object pathX, pathY that represents the end of the current path, in cells.
+     */
+    private double pathX, pathY;
+
+    /**
+     * The drawing state save() and restore() keep on a stack. Only translating and scaling
+     * are supported, so the transform is kept as a scale followed by a translation.
+     */
+    private static final class State implements Cloneable {
+        private boolean fillCovers = true, strokeCovers = true;
+        private double lineWidth = 1;
+        private double scaleX = 1, scaleY = 1, translateX = 0, translateY = 0;
+
+        @Override
+        protected State clone() {
+            try {
+                return (State) super.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    /**
+     * Constructs a new, uncovered, MaskSurface of width by height cells of cellSize document
+     * units, whose top left corner is at the document point (originX, originY).
+     * @param originX
+     * @param originY
+     * @param width
+     * @param height
+     * @param cellSize
+     */
+    public MaskSurface(double originX, double originY, int width, int height, double cellSize) {
+        this.originX = originX;
+        this.originY = originY;
+        this.width = width;
+        this.height = height;
+        this.cellSize = cellSize;
+        this.mask = new byte[width * height];
+    }
+
+    /**
+     * RETURNS the grid, one byte per cell row by row, 1 where the cell is covered.
+     * @return the mask attribute
+     */
+    public byte[] getMask() {
+        return mask;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public void setFill(Paint p) {
+        state.fillCovers = covers(p);
+    }
+
+    @Override
+    public void setStroke(Paint p) {
+        state.strokeCovers = covers(p);
+    }
+
+    /**
+     * Gives true if drawing with the paint p covers the cells it is drawn on.
+     * @param p
+     * @return false if p is a fully transparent color, otherwise true.
+     */
+    private static boolean covers(Paint p) {
+        return p != null && !(p instanceof Color c && c.getOpacity() == 0);
+    }
+
+    @Override
+    public void setLineWidth(double lw) {
+        state.lineWidth = lw;
+    }
+
+    @Override
+    public void setLineDashes(double... dashes) {
+    }
+
+    @Override
+    public void fillRect(double x, double y, double w, double h) {
+        if (state.fillCovers) {
+            fillCells(cellX(x), cellY(y), cellX(x + w), cellY(y + h));
+        }
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double w, double h) {
+        if (!state.strokeCovers) {
+            return;
+        }
+        double x1 = cellX(x), y1 = cellY(y), x2 = cellX(x + w), y2 = cellY(y + h);
+        double hw = halfWidth();
+        strokeSegment(x1, y1, x2, y1, hw);
+        strokeSegment(x2, y1, x2, y2, hw);
+        strokeSegment(x2, y2, x1, y2, hw);
+        strokeSegment(x1, y2, x1, y1, hw);
+    }
+
+    @Override
+    public void clearRect(double x, double y, double w, double h) {
+    }
+
+    @Override
+    public void fillOval(double x, double y, double w, double h) {
+        if (state.fillCovers) {
+            double x1 = cellX(x), y1 = cellY(y), x2 = cellX(x + w), y2 = cellY(y + h);
+            ring((x1 + x2) / 2, (y1 + y2) / 2, Math.abs(x2 - x1) / 2, Math.abs(y2 - y1) / 2, 0, 0);
+        }
+    }
+
+    @Override
+    public void strokeOval(double x, double y, double w, double h) {
+        if (state.strokeCovers) {
+            double x1 = cellX(x), y1 = cellY(y), x2 = cellX(x + w), y2 = cellY(y + h);
+            double hw = halfWidth();
+            double rx = Math.abs(x2 - x1) / 2, ry = Math.abs(y2 - y1) / 2;
+            ring((x1 + x2) / 2, (y1 + y2) / 2, rx + hw, ry + hw, rx - hw, ry - hw);
+        }
+    }
+
+    @Override
+    public void strokeLine(double x1, double y1, double x2, double y2) {
+        if (state.strokeCovers) {
+            strokeSegment(cellX(x1), cellY(y1), cellX(x2), cellY(y2), halfWidth());
+        }
+    }
+
+    @Override
+    public void fillPolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        if (!state.fillCovers || nPoints < 3) {
+            return;
+        }
+        double[] xs = new double[nPoints], ys = new double[nPoints];
+        double minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < nPoints; i++) {
+            xs[i] = cellX(xPoints[i]);
+            ys[i] = cellY(yPoints[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        double[] crossings = new double[nPoints];
+        int rowFrom = Math.max(0, (int) Math.ceil(minY - 0.5));
+        int rowTo = Math.min(height - 1, (int) Math.floor(maxY - 0.5));
+        for (int row = rowFrom; row <= rowTo; row++) {
+            double yc = row + 0.5;
+            int n = 0;
+            for (int i = 0, j = nPoints - 1; i < nPoints; j = i++) {
+                if ((ys[i] > yc) != (ys[j] > yc)) {
+                    crossings[n++] = xs[i] + (yc - ys[i]) / (ys[j] - ys[i]) * (xs[j] - xs[i]);
+                }
+            }
+            Arrays.sort(crossings, 0, n);
+            for (int k = 0; k + 1 < n; k += 2) {
+                fillSpan(row, crossings[k], crossings[k + 1]);
+            }
+        }
+    }
+
+    @Override
+    public void strokePolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        strokePath(xPoints, yPoints, nPoints, true);
+    }
+
+    @Override
+    public void strokePolyline(double[] xPoints, double[] yPoints, int nPoints) {
+        strokePath(xPoints, yPoints, nPoints, false);
+    }
+
+    /**
+     * Images cover their whole rectangle.
+     */
+    @Override
+    public void drawImage(Image img, double x, double y, double w, double h) {
+        fillCells(cellX(x), cellY(y), cellX(x + w), cellY(y + h));
+    }
+
+    @Override
+    public void fillText(String text, double x, double y) {
+    }
+
+    /**
+     * Covers every cell the rectangle touches, not only the cells whose centre it holds, so
+     * rows of pixels narrower than a cell still cover a connected path of cells.
+     * @param x
+     * @param y
+     * @param w
+     * @param h
+     */
+    public void coverRect(double x, double y, double w, double h) {
+        double x1 = cellX(x), y1 = cellY(y), x2 = cellX(x + w), y2 = cellY(y + h);
+        int from = Math.max(0, (int) Math.floor(Math.min(x1, x2)));
+        int to = Math.min(width - 1, (int) Math.ceil(Math.max(x1, x2)) - 1);
+        int rowFrom = Math.max(0, (int) Math.floor(Math.min(y1, y2)));
+        int rowTo = Math.min(height - 1, (int) Math.ceil(Math.max(y1, y2)) - 1);
+        for (int row = rowFrom; from <= to && row <= rowTo; row++) {
+            Arrays.fill(mask, row * width + from, row * width + to + 1, (byte) 1);
+        }
+    }
+
+    @Override
+    public void beginPath() {
+        pathSize = 0;
+    }
+
+    @Override
+    public void moveTo(double x, double y) {
+        pathX = cellX(x);
+        pathY = cellY(y);
+    }
+
+    /**
+     * Adds the curve to the path as straight segments, about a cell long, along it.
+     */
+    @Override
+    public void bezierCurveTo(double c1x, double c1y, double c2x, double c2y, double x, double y) {
+        double x0 = pathX, y0 = pathY;
+        double x1 = cellX(c1x), y1 = cellY(c1y), x2 = cellX(c2x), y2 = cellY(c2y);
+        double x3 = cellX(x), y3 = cellY(y);
+        double length = Math.hypot(x1 - x0, y1 - y0) + Math.hypot(x2 - x1, y2 - y1) + Math.hypot(x3 - x2, y3 - y2);
+        int steps = Math.max(1, Math.min(1024, (int) Math.ceil(length)));
+        for (int i = 1; i <= steps; i++) {
+            double t = (double) i / steps, u = 1 - t;
+            double px = u * u * u * x0 + 3 * u * u * t * x1 + 3 * u * t * t * x2 + t * t * t * x3;
+            double py = u * u * u * y0 + 3 * u * u * t * y1 + 3 * u * t * t * y2 + t * t * t * y3;
+            if (pathSize + 4 > path.length) {
+                path = Arrays.copyOf(path, path.length * 2);
+            }
+            path[pathSize++] = pathX;
+            path[pathSize++] = pathY;
+            path[pathSize++] = px;
+            path[pathSize++] = py;
+            pathX = px;
+            pathY = py;
+        }
+    }
+
+    @Override
+    public void stroke() {
+        if (!state.strokeCovers) {
+            return;
+        }
+        double hw = halfWidth();
+        for (int i = 0; i < pathSize; i += 4) {
+            strokeSegment(path[i], path[i + 1], path[i + 2], path[i + 3], hw);
+        }
+    }
+
+    @Override
+    public void save() {
+        saved.push(state.clone());
+    }
+
+    @Override
+    public void restore() {
+        if (!saved.isEmpty()) {
+            state = saved.pop();
+        }
+    }
+
+    @Override
+    public void translate(double x, double y) {
+        state.translateX += x * state.scaleX;
+        state.translateY += y * state.scaleY;
+    }
+
+    @Override
+    public void scale(double x, double y) {
+        state.scaleX *= x;
+        state.scaleY *= y;
+    }
+
+    /**
+     * Gives the grid x-value, in cells, of the x-value x drawn with the current transform.
+     * @param x
+     * @return the x-value in cells.
+     */
+    private double cellX(double x) {
+        return (x * state.scaleX + state.translateX - originX) / cellSize;
+    }
+
+    /**
+     * Gives the grid y-value, in cells, of the y-value y drawn with the current transform.
+     * @param y
+     * @return the y-value in cells.
+     */
+    private double cellY(double y) {
+        return (y * state.scaleY + state.translateY - originY) / cellSize;
+    }
+
+    /**
+     * Gives half the current line width in cells, at least MIN_HALF_WIDTH.
+     * @return the half width in cells.
+     */
+    private double halfWidth() {
+        double scale = Math.max(Math.abs(state.scaleX), Math.abs(state.scaleY));
+        return Math.max(MIN_HALF_WIDTH, state.lineWidth * scale / cellSize / 2);
+    }
+
+    /**
+     * Strokes the segments between the points, and from the last back to the first if closed.
+     * @param xPoints
+     * @param yPoints
+     * @param nPoints
+     * @param closed
+     */
+    private void strokePath(double[] xPoints, double[] yPoints, int nPoints, boolean closed) {
+        if (!state.strokeCovers || nPoints < 1) {
+            return;
+        }
+        double hw = halfWidth();
+        double px = cellX(xPoints[0]), py = cellY(yPoints[0]);
+        double firstX = px, firstY = py;
+        if (nPoints == 1) {
+            strokeSegment(px, py, px, py, hw);
+            return;
+        }
+        for (int i = 1; i < nPoints; i++) {
+            double x = cellX(xPoints[i]), y = cellY(yPoints[i]);
+            strokeSegment(px, py, x, y, hw);
+            px = x;
+            py = y;
+        }
+        if (closed) {
+            strokeSegment(px, py, firstX, firstY, hw);
+        }
+    }
+
+    /**
+     * Covers the cells whose centres are within hw of the segment from (x1, y1) to (x2, y2),
+     * given in cells. A horizontal line crosses this round-ended band in a single interval,
+     * which is found from the two end circles and the four sides of the band's middle.
+     * @param x1
+     * @param y1
+     * @param x2
+     * @param y2
+     * @param hw
+     */
+    private void strokeSegment(double x1, double y1, double x2, double y2, double hw) {
+        double dx = x2 - x1, dy = y2 - y1;
+        double length = Math.hypot(dx, dy);
+        double nx = length == 0 ? 0 : -dy / length * hw, ny = length == 0 ? 0 : dx / length * hw;
+        double[] cornersX = {x1 + nx, x2 + nx, x2 - nx, x1 - nx};
+        double[] cornersY = {y1 + ny, y2 + ny, y2 - ny, y1 - ny};
+        int rowFrom = Math.max(0, (int) Math.ceil(Math.min(y1, y2) - hw - 0.5));
+        int rowTo = Math.min(height - 1, (int) Math.floor(Math.max(y1, y2) + hw - 0.5));
+        for (int row = rowFrom; row <= rowTo; row++) {
+            double yc = row + 0.5;
+            double left = Double.MAX_VALUE, right = -Double.MAX_VALUE;
+            double d1 = yc - y1, d2 = yc - y2;
+            if (Math.abs(d1) <= hw) {
+                double half = Math.sqrt(hw * hw - d1 * d1);
+                left = Math.min(left, x1 - half);
+                right = Math.max(right, x1 + half);
+            }
+            if (Math.abs(d2) <= hw) {
+                double half = Math.sqrt(hw * hw - d2 * d2);
+                left = Math.min(left, x2 - half);
+                right = Math.max(right, x2 + half);
+            }
+            if (length > 0) {
+                for (int i = 0, j = 3; i < 4; j = i++) {
+                    if ((cornersY[i] > yc) != (cornersY[j] > yc)) {
+                        double x = cornersX[i] + (yc - cornersY[i]) / (cornersY[j] - cornersY[i])
+                                * (cornersX[j] - cornersX[i]);
+                        left = Math.min(left, x);
+                        right = Math.max(right, x);
+                    }
+                }
+            }
+            if (left <= right) {
+                fillSpan(row, left, right);
+            }
+        }
+    }
+
+    /**
+     * Covers the cells inside the ellipse centred on (cx, cy) with radii (rx, ry) but not
+     * inside the ellipse with radii (irx, iry), all in cells. Inner radii that are not
+     * positive give a solid ellipse.
+     * @param cx
+     * @param cy
+     * @param rx
+     * @param ry
+     * @param irx
+     * @param iry
+     */
+    private void ring(double cx, double cy, double rx, double ry, double irx, double iry) {
+        if (rx <= 0 || ry <= 0) {
+            return;
+        }
+        boolean hollow = irx > 0 && iry > 0;
+        int rowFrom = Math.max(0, (int) Math.ceil(cy - ry - 0.5));
+        int rowTo = Math.min(height - 1, (int) Math.floor(cy + ry - 0.5));
+        for (int row = rowFrom; row <= rowTo; row++) {
+            double dy = row + 0.5 - cy;
+            double outer = rx * Math.sqrt(Math.max(0, 1 - dy * dy / (ry * ry)));
+            if (hollow && Math.abs(dy) < iry) {
+                double inner = irx * Math.sqrt(1 - dy * dy / (iry * iry));
+                fillSpan(row, cx - outer, cx - inner);
+                fillSpan(row, cx + inner, cx + outer);
+            } else {
+                fillSpan(row, cx - outer, cx + outer);
+            }
+        }
+    }
+
+    /**
+     * Covers the cells whose centres lie in the rectangle from (x1, y1) to (x2, y2), in cells.
+     * @param x1
+     * @param y1
+     * @param x2
+     * @param y2
+     */
+    private void fillCells(double x1, double y1, double x2, double y2) {
+        int rowFrom = Math.max(0, (int) Math.ceil(Math.min(y1, y2) - 0.5));
+        int rowTo = Math.min(height - 1, (int) Math.floor(Math.max(y1, y2) - 0.5));
+        for (int row = rowFrom; row <= rowTo; row++) {
+            fillSpan(row, Math.min(x1, x2), Math.max(x1, x2));
+        }
+    }
+
+    /**
+     * Covers the cells of row whose centres lie between left and right, in cells.
+     * @param row
+     * @param left
+     * @param right
+     */
+    private void fillSpan(int row, double left, double right) {
+        int from = Math.max(0, (int) Math.ceil(left - 0.5));
+        int to = Math.min(width - 1, (int) Math.floor(right - 0.5));
+        if (from <= to) {
+            Arrays.fill(mask, row * width + from, row * width + to + 1, (byte) 1);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package paint.render;
+
+import javafx.scene.image.Image;
+import javafx.scene.paint.Paint;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Objects;
+
+/**
+ * Representation of a drawing surface that forwards to another surface, dropping changes of
+ * fill, stroke, line width and dashes that would set them to what they already are.
+ * Every shape sets its paints and line width before it draws, so when many shapes share a
+ * style most of those calls are dropped, and fewer commands reach the canvas.
+ * The surface keeps its own copy of the state, saved and restored along with the target's,
+ * so it must be the only way the target's state is changed.
+ */
+public class StateTrackingSurface implements DrawingSurface {
+    /**
+     * DrawingSurface object that the drawing is forwarded to.
+     */
+    private final DrawingSurface target;
+    /**
+     * State object that represents what the target's paints, line width and dashes are
+     * known to be.
+     */
+    private State state = new State();
+    /**
+     * Deque of the states saved along with the target's by save().
+     */
+    private final Deque<State> saved = new ArrayDeque<>();
+    /**
+     * long objects that count the state changes forwarded to the target and dropped.
+     */
+    private long forwarded, skipped;
+
+    /**
+     * The state of the target as far as it is known. A null paint or a NaN line width means
+     * that part of the state is not known, so the next change of it is always forwarded.
+     */
+    private static final class State {
+        private Paint fill, stroke;
+        private double lineWidth = Double.NaN;
+        private double[] dashes;
+        private boolean dashesKnown;
+
+        private State copy() {
+            State s = new State();
+            s.fill = fill;
+            s.stroke = stroke;
+            s.lineWidth = lineWidth;
+            s.dashes = dashes;
+            s.dashesKnown = dashesKnown;
+            return s;
+        }
+    }
+
+    /**
+     * Constructs a new StateTrackingSurface that draws onto target.
+     * @param target
+     */
+    public StateTrackingSurface(DrawingSurface target) {
+        this.target = target;
+    }
+
+    /**
+     * Forgets what the target's state is known to be, so the next change of each part is
+     * forwarded. Used when the target may have been changed other than through this surface.
+     */
+    public void invalidate() {
+        state = new State();
+        saved.clear();
+    }
+
+    /**
+     * RETURNS the number of state changes forwarded to the target.
+     * @return the forwarded attribute
+     */
+    public long getForwarded() {
+        return forwarded;
+    }
+
+    /**
+     * RETURNS the number of state changes dropped because they changed nothing.
+     * @return the skipped attribute
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    @Override
+    public void setFill(Paint p) {
+        if (p != null && Objects.equals(p, state.fill)) {
+            skipped++;
+            return;
+        }
+        forwarded++;
+        state.fill = p;
+        target.setFill(p);
+    }
+
+    @Override
+    public void setStroke(Paint p) {
+        if (p != null && Objects.equals(p, state.stroke)) {
+            skipped++;
+            return;
+        }
+        forwarded++;
+        state.stroke = p;
+        target.setStroke(p);
+    }
+
+    @Override
+    public void setLineWidth(double lw) {
+        if (lw == state.lineWidth) {
+            skipped++;
+            return;
+        }
+        forwarded++;
+        state.lineWidth = lw;
+        target.setLineWidth(lw);
+    }
+
+    /**
+     * Changes the dash pattern. A pattern of only zeros draws solid lines like no pattern,
+     * so both are treated as the same state.
+     */
+    @Override
+    public void setLineDashes(double... dashes) {
+        double[] normal = isSolid(dashes) ? null : dashes.clone();
+        if (state.dashesKnown && Arrays.equals(normal, state.dashes)) {
+            skipped++;
+            return;
+        }
+        forwarded++;
+        state.dashes = normal;
+        state.dashesKnown = true;
+        target.setLineDashes(dashes);
+    }
+
+    /**
+     * Gives true if the dash pattern draws solid lines.
+     * @param dashes
+     * @return true if there are no dashes or every dash is 0, otherwise false.
+     */
+    private static boolean isSolid(double[] dashes) {
+        if (dashes == null) {
+            return true;
+        }
+        for (double d : dashes) {
+            if (d != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void fillRect(double x, double y, double w, double h) {
+        target.fillRect(x, y, w, h);
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double w, double h) {
+        target.strokeRect(x, y, w, h);
+    }
+
+    @Override
+    public void clearRect(double x, double y, double w, double h) {
+        target.clearRect(x, y, w, h);
+    }
+
+    @Override
+    public void fillOval(double x, double y, double w, double h) {
+        target.fillOval(x, y, w, h);
+    }
+
+    @Override
+    public void strokeOval(double x, double y, double w, double h) {
+        target.strokeOval(x, y, w, h);
+    }
+
+    @Override
+    public void strokeLine(double x1, double y1, double x2, double y2) {
+        target.strokeLine(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void fillPolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        target.fillPolygon(xPoints, yPoints, nPoints);
+    }
+
+    @Override
+    public void strokePolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        target.strokePolygon(xPoints, yPoints, nPoints);
+    }
+
+    @Override
+    public void strokePolyline(double[] xPoints, double[] yPoints, int nPoints) {
+        target.strokePolyline(xPoints, yPoints, nPoints);
+    }
+
+    @Override
+    public void drawImage(Image img, double x, double y, double w, double h) {
+        target.drawImage(img, x, y, w, h);
+    }
+
+    @Override
+    public void fillText(String text, double x, double y) {
+        target.fillText(text, x, y);
+    }
+
+    @Override
+    public void beginPath() {
+        target.beginPath();
+    }
+
+    @Override
+    public void moveTo(double x, double y) {
+        target.moveTo(x, y);
+    }
+
+    @Override
+    public void bezierCurveTo(double c1x, double c1y, double c2x, double c2y, double x, double y) {
+        target.bezierCurveTo(c1x, c1y, c2x, c2y, x, y);
+    }
+
+    @Override
+    public void stroke() {
+        target.stroke();
+    }
+
+    @Override
+    public void save() {
+        saved.push(state.copy());
+        target.save();
+    }
+
+    @Override
+    public void restore() {
+        if (!saved.isEmpty()) {
+            state = saved.pop();
+        }
+        target.restore();
+    }
+
+    @Override
+    public void translate(double x, double y) {
+        target.translate(x, y);
+    }
+
+    @Override
+    public void scale(double x, double y) {
+        target.scale(x, y);
+    }
+}
@@ -0,0 +1,344 @@
+package paint.render;
+
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+
+/**
+ * Representation of a drawing surface that writes what is drawn onto it as SVG elements.
+ * It only touches the writer it was given, never the JavaFX scene, so shapes can be drawn
+ * onto it from a background thread.
+ */
+public class SvgSurface implements DrawingSurface {
+    /**
+     * Writer object that the SVG elements are written to.
+     */
+    private final Writer out;
+    /**
+     * State object that represents the current paints, line width, dashes and transform.
+     */
+    private State state = new State();
+    /**
+     * Deque of the states saved by save().
+     */
+    private final Deque<State> saved = new ArrayDeque<>();
+    /**
+     * StringBuilder that holds the path data of the current path.
+     */
+    private StringBuilder path = new StringBuilder();
+
+    /**
+     * The drawing state save() and restore() keep on a stack. Only translating and scaling
+     * are supported, so the transform is kept as a scale followed by a translation.
+     */
+    private static final class State implements Cloneable {
+        private Paint fill = Color.BLACK;
+        private Paint stroke = Color.BLACK;
+        private double lineWidth = 1;
+        private double[] dashes = null;
+        private double scaleX = 1, scaleY = 1, translateX = 0, translateY = 0;
+
+        @Override
+        protected State clone() {
+            try {
+                return (State) super.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    /**
+     * Constructs a new SvgSurface that writes to out an SVG document showing the area of the
+     * drawing of the given size whose top left corner is at (x, y).
+     * @param out
+     * @param x
+     * @param y
+     * @param width
+     * @param height
+     * @throws IOException if the header cannot be written.
+     */
+    public SvgSurface(Writer out, double x, double y, double width, double height) throws IOException {
+        this.out = out;
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write(String.format(Locale.ROOT,
+                "<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\""
+                        + " width=\"%s\" height=\"%s\" viewBox=\"%s %s %s %s\">\n",
+                num(width), num(height), num(x), num(y), num(width), num(height)));
+    }
+
+    /**
+     * Writes the end of the SVG document. Nothing may be drawn afterwards.
+     * @throws IOException if the end cannot be written.
+     */
+    public void finish() throws IOException {
+        out.write("</svg>\n");
+        out.flush();
+    }
+
+    @Override
+    public void setFill(Paint p) {
+        state.fill = p;
+    }
+
+    @Override
+    public void setStroke(Paint p) {
+        state.stroke = p;
+    }
+
+    @Override
+    public void setLineWidth(double lw) {
+        state.lineWidth = lw;
+    }
+
+    @Override
+    public void setLineDashes(double... dashes) {
+        state.dashes = dashes == null || dashes.length == 0 ? null : dashes.clone();
+    }
+
+    @Override
+    public void fillRect(double x, double y, double w, double h) {
+        element("rect", fillStyle(), "x", x, "y", y, "width", w, "height", h);
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double w, double h) {
+        element("rect", strokeStyle(), "x", x, "y", y, "width", w, "height", h);
+    }
+
+    /**
+     * Clearing has no meaning in a document that starts empty, so nothing is written.
+     */
+    @Override
+    public void clearRect(double x, double y, double w, double h) {
+    }
+
+    @Override
+    public void fillOval(double x, double y, double w, double h) {
+        element("ellipse", fillStyle(), "cx", x + w / 2, "cy", y + h / 2, "rx", w / 2, "ry", h / 2);
+    }
+
+    @Override
+    public void strokeOval(double x, double y, double w, double h) {
+        element("ellipse", strokeStyle(), "cx", x + w / 2, "cy", y + h / 2, "rx", w / 2, "ry", h / 2);
+    }
+
+    @Override
+    public void strokeLine(double x1, double y1, double x2, double y2) {
+        element("line", strokeStyle(), "x1", x1, "y1", y1, "x2", x2, "y2", y2);
+    }
+
+    @Override
+    public void fillPolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        points("polygon", fillStyle(), xPoints, yPoints, nPoints);
+    }
+
+    @Override
+    public void strokePolygon(double[] xPoints, double[] yPoints, int nPoints) {
+        points("polygon", strokeStyle(), xPoints, yPoints, nPoints);
+    }
+
+    @Override
+    public void strokePolyline(double[] xPoints, double[] yPoints, int nPoints) {
+        points("polyline", strokeStyle(), xPoints, yPoints, nPoints);
+    }
+
+    /**
+     * Writes a reference to the image's URL; images made in memory have no URL and are skipped.
+     */
+    @Override
+    public void drawImage(Image img, double x, double y, double w, double h) {
+        if (img.getUrl() == null) {
+            return;
+        }
+        write(String.format(Locale.ROOT,
+                "<image x=\"%s\" y=\"%s\" width=\"%s\" height=\"%s\" preserveAspectRatio=\"none\" xlink:href=\"%s\"%s/>\n",
+                num(x), num(y), num(w), num(h), escape(img.getUrl()), transform()));
+    }
+
+    @Override
+    public void fillText(String text, double x, double y) {
+        write(String.format(Locale.ROOT, "<text x=\"%s\" y=\"%s\" %s%s>%s</text>\n",
+                num(x), num(y), fillStyle(), transform(), escape(text)));
+    }
+
+    @Override
+    public void beginPath() {
+        path = new StringBuilder();
+    }
+
+    @Override
+    public void moveTo(double x, double y) {
+        path.append(path.isEmpty() ? "M" : " M").append(num(x)).append(' ').append(num(y));
+    }
+
+    @Override
+    public void bezierCurveTo(double c1x, double c1y, double c2x, double c2y, double x, double y) {
+        path.append(" C").append(num(c1x)).append(' ').append(num(c1y)).append(' ').append(num(c2x))
+                .append(' ').append(num(c2y)).append(' ').append(num(x)).append(' ').append(num(y));
+    }
+
+    /**
+     * Writes the current path as a path element, with the transform in effect when it is
+     * stroked.
+     */
+    @Override
+    public void stroke() {
+        if (!path.isEmpty()) {
+            write("<path d=\"" + path + "\" " + strokeStyle() + transform() + "/>\n");
+        }
+    }
+
+    @Override
+    public void save() {
+        saved.push(state.clone());
+    }
+
+    @Override
+    public void restore() {
+        if (!saved.isEmpty()) {
+            state = saved.pop();
+        }
+    }
+
+    @Override
+    public void translate(double x, double y) {
+        state.translateX += x * state.scaleX;
+        state.translateY += y * state.scaleY;
+    }
+
+    @Override
+    public void scale(double x, double y) {
+        state.scaleX *= x;
+        state.scaleY *= y;
+    }
+
+    /**
+     * Writes an element with the given name, style and numeric attributes.
+     * @param name
+     * @param style
+     * @param attributes pairs of attribute name and value.
+     */
+    private void element(String name, String style, Object... attributes) {
+        StringBuilder sb = new StringBuilder("<").append(name);
+        for (int i = 0; i < attributes.length; i += 2) {
+            sb.append(' ').append(attributes[i]).append("=\"").append(num((Double) attributes[i + 1])).append('"');
+        }
+        sb.append(' ').append(style).append(transform()).append("/>\n");
+        write(sb.toString());
+    }
+
+    /**
+     * Writes an element with the given name and style whose shape is a list of points.
+     * @param name
+     * @param style
+     * @param xPoints
+     * @param yPoints
+     * @param nPoints
+     */
+    private void points(String name, String style, double[] xPoints, double[] yPoints, int nPoints) {
+        StringBuilder sb = new StringBuilder("<").append(name).append(" points=\"");
+        for (int i = 0; i < nPoints; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(num(xPoints[i])).append(',').append(num(yPoints[i]));
+        }
+        sb.append("\" ").append(style).append(transform()).append("/>\n");
+        write(sb.toString());
+    }
+
+    /**
+     * Gives the style attributes of a filled element.
+     * @return the style attributes.
+     */
+    private String fillStyle() {
+        return paint("fill", state.fill) + " stroke=\"none\"";
+    }
+
+    /**
+     * Gives the style attributes of a stroked element.
+     * @return the style attributes.
+     */
+    private String strokeStyle() {
+        StringBuilder sb = new StringBuilder("fill=\"none\" ").append(paint("stroke", state.stroke))
+                .append(" stroke-width=\"").append(num(state.lineWidth)).append('"');
+        if (state.dashes != null) {
+            sb.append(" stroke-dasharray=\"");
+            for (int i = 0; i < state.dashes.length; i++) {
+                sb.append(i > 0 ? "," : "").append(num(state.dashes[i]));
+            }
+            sb.append('"');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Gives the attribute for the paint p, with its opacity when it is not opaque. Paints
+     * other than plain colors are written as black.
+     * @param attribute
+     * @param p
+     * @return the paint attribute.
+     */
+    private static String paint(String attribute, Paint p) {
+        Color c = p instanceof Color color ? color : Color.BLACK;
+        String s = String.format(Locale.ROOT, "%s=\"#%02x%02x%02x\"", attribute,
+                Math.round(c.getRed() * 255), Math.round(c.getGreen() * 255), Math.round(c.getBlue() * 255));
+        if (c.getOpacity() < 1) {
+            s += String.format(Locale.ROOT, " %s-opacity=\"%s\"", attribute, num(c.getOpacity()));
+        }
+        return s;
+    }
+
+    /**
+     * Gives the transform attribute for the current transform, or nothing if it is the identity.
+     * @return the transform attribute.
+     */
+    private String transform() {
+        if (state.scaleX == 1 && state.scaleY == 1 && state.translateX == 0 && state.translateY == 0) {
+            return "";
+        }
+        return String.format(Locale.ROOT, " transform=\"matrix(%s 0 0 %s %s %s)\"",
+                num(state.scaleX), num(state.scaleY), num(state.translateX), num(state.translateY));
+    }
+
+    /**
+     * Gives the shortest text for the number d, without a trailing ".0".
+     * @param d
+     * @return the number as text.
+     */
+    private static String num(double d) {
+        if (d == Math.rint(d) && Math.abs(d) < 1e15) {
+            return Long.toString((long) d);
+        }
+        return String.format(Locale.ROOT, "%.3f", d).replaceAll("\\.?0+$", "");
+    }
+
+    /**
+     * Gives s with the characters that are special in XML escaped.
+     * @param s
+     * @return the escaped text.
+     */
+    private static String escape(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    /**
+     * Writes s, rethrowing a failure unchecked since DrawingSurface methods cannot throw.
+     * @param s
+     */
+    private void write(String s) {
+        try {
+            out.write(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
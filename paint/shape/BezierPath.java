@@ -0,0 +1,312 @@
+package paint.shapes;
+
+import paint.app.FillStyle;
+import paint.render.DrawingSurface;
+import javafx.scene.paint.Color;
+
+import java.util.List;
+
+/**
+ * Representation of a freehand stroke stored as a chain of cubic Bezier curves fitted to the
+ * points it was drawn with, see Squiggle.fit. A curve usually stands in for tens of points,
+ * and stays smooth however far the view is zoomed in.
+ * The curves never change once made, so clones share them, and moving the path only changes
+ * its translation. Hit-testing flattens only the curves whose control points are near the
+ * point, splitting them in half until each part is close enough to a straight line. Erasing
+ * works on the path flattened into a squiggle, which is made once and kept.
+ */
+public class BezierPath implements Drawable, Erasable {
+    /**
+     * double object that represents how far, in document units, the middle control points of
+     * a part of a curve may be from its chord for the part to count as a straight line.
+     */
+    private static final double FLATNESS = 0.25;
+    /**
+     * The start point followed by the first control point, second control point and end
+     * point of each curve, as x, y pairs, before the translation is applied.
+     */
+    private final double[] coords;
+    /**
+     * double object tx, ty that represents the translation of the curves.
+     */
+    private double tx = 0, ty = 0;
+    /**
+     * Cached {minX, minY, maxX, maxY} of the untranslated control points, which bound the
+     * curves; null until first needed.
+     */
+    private volatile double[] extent = null;
+    /**
+     * Cached squiggle of the untranslated curves, see toSquiggle, kept with its SegmentIndex
+     * for the rest of an erase; null until first needed.
+     */
+    private volatile Squiggle flattened = null;
+    /**
+     * Color object that stores the color of the path.
+     */
+    private Color color;
+    /**
+     * double object that represents the line width of the path.
+     */
+    private double lineWidth;
+
+    /**
+     * Constructs a new BezierPath with the given curves, color and line width.
+     * @param coords the start point followed by the two control points and end point of
+     *               each curve, as x, y pairs.
+     * @param color
+     * @param lineWidth
+     */
+    public BezierPath(double[] coords, Color color, double lineWidth) {
+        this.coords = coords;
+        this.color = color;
+        this.lineWidth = lineWidth;
+    }
+
+    /**
+     * RETURNS the number of curves in the path.
+     * @return the number of curves.
+     */
+    public int getCurveCount() {
+        return (coords.length - 2) / 6;
+    }
+
+    @Override
+    public Color getColor() {
+        return color;
+    }
+
+    /**
+     * RETURNS the line width of the path.
+     * @return the lineWidth attribute of the path
+     */
+    public double getLineWidth() {
+        return lineWidth;
+    }
+
+    /**
+     * Draws the path as one stroked path of its curves.
+     * @param g2d DrawingSurface input.
+     */
+    @Override
+    public void draw(DrawingSurface g2d) {
+        g2d.setStroke(color);
+        g2d.setLineWidth(lineWidth);
+        g2d.beginPath();
+        g2d.moveTo(coords[0] + tx, coords[1] + ty);
+        for (int i = 2; i < coords.length; i += 6) {
+            g2d.bezierCurveTo(coords[i] + tx, coords[i + 1] + ty, coords[i + 2] + tx, coords[i + 3] + ty,
+                    coords[i + 4] + tx, coords[i + 5] + ty);
+        }
+        g2d.stroke();
+    }
+
+    /**
+     * Gives a duplicate of the path, sharing its curves.
+     * @return BezierPath with the same attributes as the current path.
+     */
+    @Override
+    public Drawable clone() {
+        BezierPath p = new BezierPath(coords, color, lineWidth);
+        p.extent = extent;
+        p.flattened = flattened;
+        p.tx = tx;
+        p.ty = ty;
+        return p;
+    }
+
+    /**
+     * Offsets the position of the path. Only the translation changes, so this takes the same
+     * time however many curves the path has.
+     * @param dx offset of x-value
+     * @param dy offset of y-value
+     */
+    @Override
+    public void offset(double dx, double dy) {
+        tx += dx;
+        ty += dy;
+    }
+
+    /**
+     * Returns true if the point is within the path's line, with the same margin as a squiggle.
+     * Otherwise, false.
+     * @param x x-value of a point
+     * @param y y-value of a point
+     * @return true if the point is on the path. Otherwise, false.
+     */
+    @Override
+    public boolean contains(double x, double y) {
+        double distance = lineWidth + 5;
+        double px = x - tx, py = y - ty;
+        double[] e = extent();
+        if (px < e[0] - distance || py < e[1] - distance || px > e[2] + distance || py > e[3] + distance) {
+            return false;
+        }
+        double distanceSquared = distance * distance;
+        for (int i = 0; i + 8 <= coords.length; i += 6) {
+            if (isNear(px, py, distance, distanceSquared, coords[i], coords[i + 1], coords[i + 2], coords[i + 3],
+                    coords[i + 4], coords[i + 5], coords[i + 6], coords[i + 7], 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the point (x, y) is within distance of the curve with the given points.
+     * Curves whose control points are all further than distance away are rejected; flat
+     * curves are tested as their chord, and the rest are split in half and tested again.
+     * @param x
+     * @param y
+     * @param distance
+     * @param distanceSquared
+     * @param x0 the start point, then the control points and the end point.
+     * @param depth the number of times the curve has been split.
+     * @return true if the point is near the curve, otherwise false.
+     */
+    private static boolean isNear(double x, double y, double distance, double distanceSquared,
+                                  double x0, double y0, double x1, double y1,
+                                  double x2, double y2, double x3, double y3, int depth) {
+        if (x < Math.min(Math.min(x0, x1), Math.min(x2, x3)) - distance
+                || x > Math.max(Math.max(x0, x1), Math.max(x2, x3)) + distance
+                || y < Math.min(Math.min(y0, y1), Math.min(y2, y3)) - distance
+                || y > Math.max(Math.max(y0, y1), Math.max(y2, y3)) + distance) {
+            return false;
+        }
+        double flatness = FLATNESS * FLATNESS;
+        if (depth >= 16 || (SegmentIndex.distanceSquaredToSegment(x1, y1, x0, y0, x3, y3) <= flatness
+                && SegmentIndex.distanceSquaredToSegment(x2, y2, x0, y0, x3, y3) <= flatness)) {
+            return SegmentIndex.distanceSquaredToSegment(x, y, x0, y0, x3, y3) <= distanceSquared;
+        }
+        double ax = (x0 + x1) / 2, ay = (y0 + y1) / 2;
+        double bx = (x1 + x2) / 2, by = (y1 + y2) / 2;
+        double cx = (x2 + x3) / 2, cy = (y2 + y3) / 2;
+        double abx = (ax + bx) / 2, aby = (ay + by) / 2;
+        double bcx = (bx + cx) / 2, bcy = (by + cy) / 2;
+        double mx = (abx + bcx) / 2, my = (aby + bcy) / 2;
+        return isNear(x, y, distance, distanceSquared, x0, y0, ax, ay, abx, aby, mx, my, depth + 1)
+                || isNear(x, y, distance, distanceSquared, mx, my, bcx, bcy, cx, cy, x3, y3, depth + 1);
+    }
+
+    /**
+     * Gives the pieces of the path left after erasing every part of it within radius of
+     * (x, y). Unless one of its curves is within reach of the point, the path is left as it
+     * is without being flattened; otherwise the pieces are those of its flattened squiggle.
+     * @param x
+     * @param y
+     * @param radius
+     * @return the pieces left, or null if the path is not within radius.
+     */
+    @Override
+    public List<Drawable> erase(double x, double y, double radius) {
+        double reach = radius + lineWidth / 2 + 2 * FLATNESS;
+        double px = x - tx, py = y - ty;
+        double[] e = extent();
+        if (px < e[0] - reach || py < e[1] - reach || px > e[2] + reach || py > e[3] + reach) {
+            return null;
+        }
+        boolean near = false;
+        double reachSquared = reach * reach;
+        for (int i = 0; i + 8 <= coords.length && !near; i += 6) {
+            near = isNear(px, py, reach, reachSquared, coords[i], coords[i + 1], coords[i + 2], coords[i + 3],
+                    coords[i + 4], coords[i + 5], coords[i + 6], coords[i + 7], 0);
+        }
+        if (!near) {
+            return null;
+        }
+        List<Drawable> pieces = flattened().erase(px, py, radius);
+        if (pieces != null && (tx != 0 || ty != 0)) {
+            for (Drawable piece : pieces) {
+                piece.offset(tx, ty);
+            }
+        }
+        return pieces;
+    }
+
+    /**
+     * Gives the path as a squiggle through points along its curves, close enough together
+     * that the squiggle strays no more than about FLATNESS from the curves.
+     * @return the flattened path.
+     */
+    public Squiggle toSquiggle() {
+        Drawable s = flattened().clone();
+        s.offset(tx, ty);
+        return (Squiggle) s;
+    }
+
+    /**
+     * Gives the squiggle of the untranslated curves, flattening them if it is not cached.
+     * @return the flattened curves.
+     */
+    private Squiggle flattened() {
+        Squiggle s = flattened;
+        if (s == null) {
+            s = new Squiggle(color, lineWidth);
+            s.addPoint(new Point(coords[0], coords[1], color));
+            for (int i = 0; i + 8 <= coords.length; i += 6) {
+                double x0 = coords[i], y0 = coords[i + 1], x1 = coords[i + 2], y1 = coords[i + 3];
+                double x2 = coords[i + 4], y2 = coords[i + 5], x3 = coords[i + 6], y3 = coords[i + 7];
+                double deviation = Math.max(Math.hypot(x0 - 2 * x1 + x2, y0 - 2 * y1 + y2),
+                        Math.hypot(x1 - 2 * x2 + x3, y1 - 2 * y2 + y3));
+                int steps = Math.max(1, Math.min(1024, (int) Math.ceil(Math.sqrt(0.75 * deviation / FLATNESS))));
+                for (int k = 1; k <= steps; k++) {
+                    double t = (double) k / steps, u = 1 - t;
+                    double px = u * u * u * x0 + 3 * u * u * t * x1 + 3 * u * t * t * x2 + t * t * t * x3;
+                    double py = u * u * u * y0 + 3 * u * u * t * y1 + 3 * u * t * t * y2 + t * t * t * y3;
+                    s.addPoint(new Point(px, py, color));
+                }
+            }
+            flattened = s;
+        }
+        return s;
+    }
+
+    /**
+     * Gives the bounds of the path's control points, which contain its curves, grown by the
+     * same margin as a squiggle's.
+     * @return the bounds of the path.
+     */
+    @Override
+    public double[] getBounds() {
+        double[] e = extent();
+        return new double[]{e[0] + tx - 5, e[1] + ty - 5, e[2] - e[0] + 10, e[3] - e[1] + 10};
+    }
+
+    /**
+     * Gives the {minX, minY, maxX, maxY} of the untranslated control points, computing it if
+     * it is not cached.
+     * @return the extent of the control points.
+     */
+    private double[] extent() {
+        double[] e = extent;
+        if (e == null) {
+            double minX = coords[0], minY = coords[1], maxX = minX, maxY = minY;
+            for (int i = 2; i < coords.length; i += 2) {
+                minX = Math.min(minX, coords[i]);
+                minY = Math.min(minY, coords[i + 1]);
+                maxX = Math.max(maxX, coords[i]);
+                maxY = Math.max(maxY, coords[i + 1]);
+            }
+            extent = e = new double[]{minX, minY, maxX, maxY};
+        }
+        return e;
+    }
+
+    @Override
+    public void setColor(Color color) {
+        this.color = color;
+        flattened = null;
+    }
+
+    @Override
+    public void setLineWidth(double lineWidth) {
+        this.lineWidth = lineWidth;
+        flattened = null;
+    }
+
+    /**
+     * A path is always stroked, so the fill style is ignored.
+     */
+    @Override
+    public void setFillStyle(FillStyle style) {
+    }
+}
@@ -1,7 +1,7 @@
 package paint.shapes;
 
 import paint.app.FillStyle;
-import javafx.scene.canvas.GraphicsContext;
+import paint.render.DrawingSurface;
 import javafx.scene.paint.Color;
 
 /**
@@ -63,6 +63,14 @@ public class Circle implements Drawable {
         return centre;
     }
 
+    /**
+     * Gives the circle's radius attribute
+     * @return the circle's radius
+     */
+    public double getRadius() {
+        return radius;
+    }
+
     /**
      * Gives the circle's line width attribute
      * @return the circle's line width
@@ -89,10 +97,10 @@ public class Circle implements Drawable {
 
     /**
      * Draws the circle object while considering the fill style of the circle.
-     * @param g2d GraphicsContext input.
+     * @param g2d DrawingSurface input.
      */
     @Override
-    public void draw(GraphicsContext g2d) {
+    public void draw(DrawingSurface g2d) {
         g2d.setFill(color);
         g2d.setStroke(color);
         g2d.setLineWidth(lineWidth);
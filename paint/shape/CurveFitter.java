@@ -0,0 +1,246 @@
+package paint.shapes;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Fits a sequence of cubic Bezier curves through the points of a freehand stroke, using
+ * Schneider's algorithm ("An Algorithm for Automatically Fitting Digitized Curves", Graphics
+ * Gems, 1990). A run of points is given one curve whose ends are the run's end points and
+ * whose end tangents are fixed, with the control points found by least squares over a
+ * chord-length parameterization. If the curve strays further than the tolerance from a
+ * point, the parameters are refined a few times by Newton-Raphson; if it still does not fit,
+ * the run is split at the worst point and each half is fitted on its own, with matching
+ * tangents so the curves join smoothly. Runs waiting to be fitted are kept on a stack rather
+ * than fitted by recursion, so long strokes cannot overflow the call stack.
+ */
+final class CurveFitter {
+    /**
+     * int object that represents how many times the parameters are refined before a run is
+     * split.
+     */
+    private static final int MAX_REFINEMENTS = 4;
+
+    /**
+     * A run of points from first to last, inclusive, waiting to be fitted, with the unit
+     * tangents its curve must leave the first point along and arrive at the last one from.
+     */
+    private record Run(int first, int last, double t1x, double t1y, double t2x, double t2y) {
+    }
+
+    private CurveFitter() {
+    }
+
+    /**
+     * Gives the curves that pass within tolerance of the n points (xs[i], ys[i]), which must
+     * have no two equal points in a row and be at least two.
+     * @param xs
+     * @param ys
+     * @param n
+     * @param tolerance
+     * @return the start point followed by the first control point, second control point and
+     * end point of each curve, as x, y pairs.
+     */
+    static double[] fit(double[] xs, double[] ys, int n, double tolerance) {
+        double[] out = new double[32];
+        out[0] = xs[0];
+        out[1] = ys[0];
+        int size = 2;
+        double errorSquared = tolerance * tolerance;
+        double[] t1 = unit(xs[1] - xs[0], ys[1] - ys[0]);
+        double[] t2 = unit(xs[n - 2] - xs[n - 1], ys[n - 2] - ys[n - 1]);
+        Deque<Run> runs = new ArrayDeque<>();
+        runs.push(new Run(0, n - 1, t1[0], t1[1], t2[0], t2[1]));
+        double[] u = new double[n];
+        double[] bezier = new double[8];
+        while (!runs.isEmpty()) {
+            Run run = runs.pop();
+            int split = fitRun(xs, ys, run, errorSquared, u, bezier);
+            if (split < 0) {
+                if (size + 6 > out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                System.arraycopy(bezier, 2, out, size, 6);
+                size += 6;
+                continue;
+            }
+            double[] center = unit(xs[split - 1] - xs[split + 1], ys[split - 1] - ys[split + 1]);
+            if (center[0] == 0 && center[1] == 0) {
+                center = unit(ys[split] - ys[split - 1], xs[split - 1] - xs[split]);
+            }
+            runs.push(new Run(split, run.last, -center[0], -center[1], run.t2x, run.t2y));
+            runs.push(new Run(run.first, split, run.t1x, run.t1y, center[0], center[1]));
+        }
+        return Arrays.copyOf(out, size);
+    }
+
+    /**
+     * Fits one curve to the run, leaving it in bezier as four x, y pairs.
+     * @param xs
+     * @param ys
+     * @param run
+     * @param errorSquared
+     * @param u scratch space for the parameters, at least as long as the points.
+     * @param bezier
+     * @return -1 if the curve is within tolerance of every point of the run, otherwise the
+     * index of the point the run should be split at.
+     */
+    private static int fitRun(double[] xs, double[] ys, Run run, double errorSquared, double[] u, double[] bezier) {
+        int first = run.first, last = run.last;
+        if (last - first == 1) {
+            double d = Math.hypot(xs[last] - xs[first], ys[last] - ys[first]) / 3;
+            setBezier(bezier, xs[first], ys[first], xs[first] + run.t1x * d, ys[first] + run.t1y * d,
+                    xs[last] + run.t2x * d, ys[last] + run.t2y * d, xs[last], ys[last]);
+            return -1;
+        }
+        u[first] = 0;
+        for (int i = first + 1; i <= last; i++) {
+            u[i] = u[i - 1] + Math.hypot(xs[i] - xs[i - 1], ys[i] - ys[i - 1]);
+        }
+        for (int i = first + 1; i <= last; i++) {
+            u[i] /= u[last];
+        }
+        generate(xs, ys, run, u, bezier);
+        int[] worst = new int[1];
+        double error = maxError(xs, ys, first, last, u, bezier, worst);
+        if (error < errorSquared) {
+            return -1;
+        }
+        if (error < errorSquared * 4) {
+            for (int k = 0; k < MAX_REFINEMENTS; k++) {
+                for (int i = first + 1; i < last; i++) {
+                    u[i] = newtonStep(bezier, xs[i], ys[i], u[i]);
+                }
+                generate(xs, ys, run, u, bezier);
+                error = maxError(xs, ys, first, last, u, bezier, worst);
+                if (error < errorSquared) {
+                    return -1;
+                }
+            }
+        }
+        return worst[0];
+    }
+
+    /**
+     * Finds by least squares the control points of the curve through the run's end points,
+     * along its end tangents, that best fits its points at the parameters u. When that would
+     * put a control point on or behind its end point, both are put a third of the way along
+     * the chord instead.
+     * @param xs
+     * @param ys
+     * @param run
+     * @param u
+     * @param bezier
+     */
+    private static void generate(double[] xs, double[] ys, Run run, double[] u, double[] bezier) {
+        int first = run.first, last = run.last;
+        double x0 = xs[first], y0 = ys[first], x3 = xs[last], y3 = ys[last];
+        double c00 = 0, c01 = 0, c11 = 0, xr0 = 0, xr1 = 0;
+        for (int i = first; i <= last; i++) {
+            double t = u[i], s = 1 - t;
+            double b0 = s * s * s, b1 = 3 * t * s * s, b2 = 3 * t * t * s, b3 = t * t * t;
+            double a1x = run.t1x * b1, a1y = run.t1y * b1, a2x = run.t2x * b2, a2y = run.t2y * b2;
+            c00 += a1x * a1x + a1y * a1y;
+            c01 += a1x * a2x + a1y * a2y;
+            c11 += a2x * a2x + a2y * a2y;
+            double rx = xs[i] - (x0 * (b0 + b1) + x3 * (b2 + b3));
+            double ry = ys[i] - (y0 * (b0 + b1) + y3 * (b2 + b3));
+            xr0 += a1x * rx + a1y * ry;
+            xr1 += a2x * rx + a2y * ry;
+        }
+        double det = c00 * c11 - c01 * c01;
+        double alpha1 = det == 0 ? 0 : (xr0 * c11 - xr1 * c01) / det;
+        double alpha2 = det == 0 ? 0 : (c00 * xr1 - c01 * xr0) / det;
+        double chord = Math.hypot(x3 - x0, y3 - y0);
+        double epsilon = 1e-6 * chord;
+        if (alpha1 < epsilon || alpha2 < epsilon) {
+            alpha1 = alpha2 = chord / 3;
+        }
+        setBezier(bezier, x0, y0, x0 + run.t1x * alpha1, y0 + run.t1y * alpha1,
+                x3 + run.t2x * alpha2, y3 + run.t2y * alpha2, x3, y3);
+    }
+
+    /**
+     * Gives the largest squared distance between a point of the run and the curve at the
+     * point's parameter, leaving the index of that point in worst[0], never an end point.
+     * @param xs
+     * @param ys
+     * @param first
+     * @param last
+     * @param u
+     * @param bezier
+     * @param worst
+     * @return the largest squared distance.
+     */
+    private static double maxError(double[] xs, double[] ys, int first, int last, double[] u, double[] bezier,
+                                   int[] worst) {
+        double max = 0;
+        worst[0] = (first + last) / 2;
+        for (int i = first + 1; i < last; i++) {
+            double t = u[i], s = 1 - t;
+            double b0 = s * s * s, b1 = 3 * t * s * s, b2 = 3 * t * t * s, b3 = t * t * t;
+            double dx = b0 * bezier[0] + b1 * bezier[2] + b2 * bezier[4] + b3 * bezier[6] - xs[i];
+            double dy = b0 * bezier[1] + b1 * bezier[3] + b2 * bezier[5] + b3 * bezier[7] - ys[i];
+            double d = dx * dx + dy * dy;
+            if (d >= max) {
+                max = d;
+                worst[0] = i;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Gives the parameter t improved by one Newton-Raphson step towards the parameter of the
+     * point of the curve nearest to (x, y).
+     * @param b
+     * @param x
+     * @param y
+     * @param t
+     * @return the improved parameter, or t if the step cannot be taken.
+     */
+    private static double newtonStep(double[] b, double x, double y, double t) {
+        double s = 1 - t;
+        double qx = s * s * s * b[0] + 3 * t * s * s * b[2] + 3 * t * t * s * b[4] + t * t * t * b[6];
+        double qy = s * s * s * b[1] + 3 * t * s * s * b[3] + 3 * t * t * s * b[5] + t * t * t * b[7];
+        double d1x = 3 * (s * s * (b[2] - b[0]) + 2 * t * s * (b[4] - b[2]) + t * t * (b[6] - b[4]));
+        double d1y = 3 * (s * s * (b[3] - b[1]) + 2 * t * s * (b[5] - b[3]) + t * t * (b[7] - b[5]));
+        double d2x = 6 * (s * (b[4] - 2 * b[2] + b[0]) + t * (b[6] - 2 * b[4] + b[2]));
+        double d2y = 6 * (s * (b[5] - 2 * b[3] + b[1]) + t * (b[7] - 2 * b[5] + b[3]));
+        double numerator = (qx - x) * d1x + (qy - y) * d1y;
+        double denominator = d1x * d1x + d1y * d1y + (qx - x) * d2x + (qy - y) * d2y;
+        if (denominator == 0) {
+            return t;
+        }
+        return Math.max(0, Math.min(1, t - numerator / denominator));
+    }
+
+    /**
+     * Gives the vector (x, y) scaled to length 1, or (0, 0) if it has no length.
+     * @param x
+     * @param y
+     * @return the unit vector.
+     */
+    private static double[] unit(double x, double y) {
+        double length = Math.hypot(x, y);
+        return length == 0 ? new double[]{0, 0} : new double[]{x / length, y / length};
+    }
+
+    /**
+     * Puts the four points of a curve into bezier.
+     * @param bezier
+     * @param x0 the start point, then the control points and the end point.
+     */
+    private static void setBezier(double[] bezier, double x0, double y0, double x1, double y1,
+                                  double x2, double y2, double x3, double y3) {
+        bezier[0] = x0;
+        bezier[1] = y0;
+        bezier[2] = x1;
+        bezier[3] = y1;
+        bezier[4] = x2;
+        bezier[5] = y2;
+        bezier[6] = x3;
+        bezier[7] = y3;
+    }
+}
@@ -1,7 +1,7 @@
 package paint.shapes;
 
 import paint.app.FillStyle;
-import javafx.scene.canvas.GraphicsContext;
+import paint.render.DrawingSurface;
 import javafx.scene.paint.Color;
 
 /**
@@ -14,7 +14,18 @@ public interface Drawable {
      * Draws the drawable shape.
      * @param g2d
      */
-    void draw(GraphicsContext g2d);
+    void draw(DrawingSurface g2d);
+
+    /**
+     * Draws the drawable shape at the given view scale, where scale is the number of
+     * screen pixels per document unit. Shapes may draw a simplified version of
+     * themselves when zoomed out.
+     * @param g2d
+     * @param scale
+     */
+    default void draw(DrawingSurface g2d, double scale) {
+        draw(g2d);
+    }
 
     /**
      * Gives a duplicate of the shape.
@@ -29,6 +40,13 @@ public interface Drawable {
      */
     void offset(double dx, double dy);
 
+    /**
+     * Moves the coordinates of the shape into a more compact store, if one is enabled.
+     * This is called before the shape is added to the document, never after.
+     */
+    default void compact() {
+    }
+
     /**
      * Gives us true if the point given is within the bounds of the shape.
      * @param x
@@ -43,6 +61,12 @@ public interface Drawable {
      */
     double[] getBounds();
 
+    /**
+     * Gives the color of the shape.
+     * @return the color the shape is drawn with.
+     */
+    Color getColor();
+
     /**
      * Changes the color of the shape.
      * @param color
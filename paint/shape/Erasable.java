@@ -0,0 +1,20 @@
+package paint.shapes;
+
+import java.util.List;
+
+/**
+ * Interface for the drawable shapes that can be partly erased, which splits them into the
+ * pieces that are left.
+ */
+public interface Erasable {
+    /**
+     * Gives the pieces of the shape left after erasing every part of it within radius of the
+     * point (x, y). The shape itself does not change.
+     * @param x
+     * @param y
+     * @param radius
+     * @return the pieces left, which may be none, or null if no part of the shape is within
+     * radius.
+     */
+    List<Drawable> erase(double x, double y, double radius);
+}
@@ -0,0 +1,243 @@
+package paint.shapes;
+
+import paint.app.FillStyle;
+import paint.render.DrawingSurface;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+
+/**
+ * Representation of an area filled by the bucket tool, kept as a grid of square cells.
+ * Each row of the grid is stored as the runs of filled cells in it, so a large area costs a
+ * few ints per row rather than one value per cell. For drawing, runs that repeat in the rows
+ * below are merged into rectangles once, when the region is made.
+ * The runs and rectangles never change after that, so clones share them and only keep a
+ * position of their own.
+ */
+public class FillRegion implements Drawable {
+    /**
+     * double object x and y that represents the document position of the top left corner of
+     * the grid. double object cellSize that represents the size of a cell in document units.
+     */
+    private double x, y;
+    private final double cellSize;
+    /**
+     * int array that represents where the runs of each row start in runs, with one extra
+     * entry at the end, so the runs of row r are runs[rowStarts[r]] to runs[rowStarts[r + 1]].
+     */
+    private final int[] rowStarts;
+    /**
+     * int array that represents the runs of filled cells, as pairs of the first column of the
+     * run and the column just after it, row by row from left to right.
+     */
+    private final int[] runs;
+    /**
+     * int array that represents the rectangles the region is drawn with, as the column, row,
+     * width and height of each, in cells.
+     */
+    private final int[] rects;
+    /**
+     * int object that represents the number of columns from the left of the grid to the
+     * right edge of the region.
+     */
+    private final int columns;
+    /**
+     * Color object that stores the color of the region.
+     */
+    private Color color;
+
+    /**
+     * Constructs a new FillRegion whose grid's top left corner is at (x, y), with cells of
+     * cellSize document units, from the runs of filled cells of each row.
+     * @param x
+     * @param y
+     * @param cellSize
+     * @param rowStarts where the runs of each row start in runs, plus the end of the last row.
+     * @param runs pairs of the first column of a run and the column after it, row by row.
+     * @param color
+     */
+    public FillRegion(double x, double y, double cellSize, int[] rowStarts, int[] runs, Color color) {
+        this(x, y, cellSize, rowStarts, runs, mergeRuns(rowStarts, runs), color);
+    }
+
+    /**
+     * Constructs a new FillRegion sharing the given, already merged, runs and rectangles.
+     * @param x
+     * @param y
+     * @param cellSize
+     * @param rowStarts
+     * @param runs
+     * @param rects
+     * @param color
+     */
+    private FillRegion(double x, double y, double cellSize, int[] rowStarts, int[] runs, int[] rects, Color color) {
+        this.x = x;
+        this.y = y;
+        this.cellSize = cellSize;
+        this.rowStarts = rowStarts;
+        this.runs = runs;
+        this.rects = rects;
+        this.color = color;
+        int right = 0;
+        for (int i = 1; i < runs.length; i += 2) {
+            right = Math.max(right, runs[i]);
+        }
+        this.columns = right;
+    }
+
+    /**
+     * Gives the rectangles covering the runs, where a run that is repeated exactly in the
+     * rows below it becomes one rectangle.
+     * @param rowStarts
+     * @param runs
+     * @return the column, row, width and height of each rectangle, in cells.
+     */
+    private static int[] mergeRuns(int[] rowStarts, int[] runs) {
+        int rows = rowStarts.length - 1;
+        int[] rects = new int[runs.length * 2];
+        // For each run of the previous row, the rectangle it is the bottom of.
+        int[] openRect = new int[0];
+        int count = 0;
+        for (int r = 0; r < rows; r++) {
+            int prevFrom = r == 0 ? 0 : rowStarts[r - 1], prevTo = r == 0 ? 0 : rowStarts[r];
+            int from = rowStarts[r], to = rowStarts[r + 1];
+            int[] nowOpen = new int[(to - from) / 2];
+            int p = prevFrom;
+            for (int i = from; i < to; i += 2) {
+                while (p < prevTo && runs[p] < runs[i]) {
+                    p += 2;
+                }
+                if (p < prevTo && runs[p] == runs[i] && runs[p + 1] == runs[i + 1]) {
+                    int rect = openRect[(p - prevFrom) / 2];
+                    rects[rect * 4 + 3]++;
+                    nowOpen[(i - from) / 2] = rect;
+                } else {
+                    rects[count * 4] = runs[i];
+                    rects[count * 4 + 1] = r;
+                    rects[count * 4 + 2] = runs[i + 1] - runs[i];
+                    rects[count * 4 + 3] = 1;
+                    nowOpen[(i - from) / 2] = count++;
+                }
+            }
+            openRect = nowOpen;
+        }
+        return Arrays.copyOf(rects, count * 4);
+    }
+
+    /**
+     * RETURNS the number of runs of filled cells.
+     * @return the number of runs.
+     */
+    public int getRunCount() {
+        return runs.length / 2;
+    }
+
+    /**
+     * RETURNS the number of rectangles the region is drawn with.
+     * @return the number of rectangles.
+     */
+    public int getRectCount() {
+        return rects.length / 4;
+    }
+
+    /**
+     * RETURNS the size of a cell in document units.
+     * @return the cellSize attribute
+     */
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    @Override
+    public Color getColor() {
+        return color;
+    }
+
+    @Override
+    public void setColor(Color color) {
+        this.color = color;
+    }
+
+    /**
+     * Draws the region as its rectangles.
+     * @param g2d DrawingSurface input.
+     */
+    @Override
+    public void draw(DrawingSurface g2d) {
+        g2d.setFill(color);
+        for (int i = 0; i < rects.length; i += 4) {
+            g2d.fillRect(x + rects[i] * cellSize, y + rects[i + 1] * cellSize,
+                    rects[i + 2] * cellSize, rects[i + 3] * cellSize);
+        }
+    }
+
+    /**
+     * Clones the region, sharing its runs.
+     * @return a duplicate of the current region.
+     */
+    @Override
+    public Drawable clone() {
+        return new FillRegion(x, y, cellSize, rowStarts, runs, rects, color);
+    }
+
+    /**
+     * Offsets the position of the region.
+     * @param dx offset of x-value
+     * @param dy offset of y-value
+     */
+    @Override
+    public void offset(double dx, double dy) {
+        this.x += dx;
+        this.y += dy;
+    }
+
+    /**
+     * Returns true if the point is in a filled cell of the region. Otherwise, false.
+     * @param px x-value of a point
+     * @param py y-value of a point
+     * @return true if the point is within the region. Otherwise, false.
+     */
+    @Override
+    public boolean contains(double px, double py) {
+        double cx = (px - x) / cellSize, cy = (py - y) / cellSize;
+        if (cx < 0 || cy < 0 || cy >= rowStarts.length - 1) {
+            return false;
+        }
+        int column = (int) cx, row = (int) cy;
+        int lo = rowStarts[row] / 2, hi = rowStarts[row + 1] / 2 - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (runs[mid * 2 + 1] <= column) {
+                lo = mid + 1;
+            } else if (runs[mid * 2] > column) {
+                hi = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gives the bounds of the grid up to the right edge of the region.
+     * @return the bounds of the region.
+     */
+    @Override
+    public double[] getBounds() {
+        return new double[]{x, y, columns * cellSize, (rowStarts.length - 1) * cellSize};
+    }
+
+    /**
+     * A region has no outline, so the line width is ignored.
+     */
+    @Override
+    public void setLineWidth(double lineWidth) {
+    }
+
+    /**
+     * A region is always filled, so the fill style is ignored.
+     */
+    @Override
+    public void setFillStyle(FillStyle style) {
+    }
+}
@@ -0,0 +1,227 @@
+package paint.shapes;
+
+import paint.log.EventLog;
+import javafx.scene.paint.Color;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An optional store that keeps the points of committed strokes off the Java heap, so that
+ * drawings with millions of points do not fill the heap with Point objects for the garbage
+ * collector to trace. It is enabled with the system property paint.geometry.offheap=true.
+ * Points are copied, as x, y pairs of doubles, into large slabs of native memory allocated
+ * through the Foreign Function and Memory API; a stroke then holds only its slab, the offset
+ * of its first point and its length. Each slab comes from an automatic Arena, so it is freed
+ * once no stroke refers to it any more, and stored points never change, so they can be read
+ * from any thread.
+ * The API is final only from JDK 22, so the slabs are allocated by NativeSlabs, which is
+ * compiled from the offheap source directory and loaded by name. Without it the store stays
+ * disabled and strokes keep their points on the heap.
+ */
+public final class GeometryArena {
+    /**
+     * String object that represents the name of the class that allocates the slabs.
+     */
+    private static final String ALLOCATOR = "paint.shapes.NativeSlabs";
+    /**
+     * Allocator object that represents where slabs come from, null if the store is disabled.
+     */
+    private static final Allocator allocator = Boolean.getBoolean("paint.geometry.offheap") ? loadAllocator() : null;
+    /**
+     * int object that represents the number of points each slab holds. Strokes with more
+     * points than this are given a slab of their own.
+     */
+    private static final int SLAB_POINTS = 1 << 18;
+    /**
+     * Slab object that represents the slab points are being copied into, null until the first
+     * stroke is stored.
+     */
+    private static Slab slab = null;
+    /**
+     * long object that represents the number of points already stored in the slab.
+     */
+    private static long slabUsed = 0;
+
+    /**
+     * Native memory holding doubles, read and written by index.
+     */
+    interface Slab {
+        /**
+         * Gives the double at index.
+         * @param index
+         * @return the double.
+         */
+        double get(long index);
+
+        /**
+         * Writes value at index.
+         * @param index
+         * @param value
+         */
+        void set(long index, double value);
+    }
+
+    /**
+     * Allocates the slabs of the store.
+     */
+    interface Allocator {
+        /**
+         * Gives a new slab of count doubles, freed when it is no longer reachable.
+         * @param count
+         * @return the slab.
+         */
+        Slab allocate(long count);
+    }
+
+    private GeometryArena() {
+    }
+
+    /**
+     * Gives a new instance of the ALLOCATOR class, or null if it is missing or cannot be run
+     * by this JVM, such as when it was compiled with preview features that are not enabled.
+     * @return the allocator, or null.
+     */
+    private static Allocator loadAllocator() {
+        try {
+            return (Allocator) Class.forName(ALLOCATOR).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            EventLog.warn("Off-heap stroke geometry is unavailable: ", e);
+            return null;
+        }
+    }
+
+    /**
+     * RETURNS true if committed strokes are moved into the store, otherwise false.
+     * @return if the store is enabled.
+     */
+    public static boolean isEnabled() {
+        return allocator != null;
+    }
+
+    /**
+     * Gives a copy of the points in off-heap memory, or null if they cannot be stored because
+     * they are not all the same color.
+     * @param points
+     * @return the stored points, or null.
+     */
+    static synchronized Points store(List<Point> points) {
+        int n = points.size();
+        if (n == 0) {
+            return null;
+        }
+        Color color = points.get(0).color;
+        for (Point p : points) {
+            if (p.color != color && (p.color == null || !p.color.equals(color))) {
+                return null;
+            }
+        }
+        Slab segment;
+        long offset;
+        if (n > SLAB_POINTS) {
+            segment = allocate(n);
+            offset = 0;
+        } else {
+            if (slab == null || slabUsed + n > SLAB_POINTS) {
+                slab = allocate(SLAB_POINTS);
+                slabUsed = 0;
+            }
+            segment = slab;
+            offset = slabUsed * 2;
+            slabUsed += n;
+        }
+        for (int i = 0; i < n; i++) {
+            Point p = points.get(i);
+            segment.set(offset + 2L * i, p.x);
+            segment.set(offset + 2L * i + 1, p.y);
+        }
+        return new Points(segment, offset, n, color);
+    }
+
+    /**
+     * Gives a new slab of native memory for count points, freed when it is no longer reachable.
+     * @param count
+     * @return the slab.
+     */
+    private static Slab allocate(long count) {
+        return allocator.allocate(count * 2);
+    }
+
+    /**
+     * The points of one stroke in the store: a run of x, y pairs in a slab, all with the same
+     * color. The coordinates are read straight from native memory with x and y; reading a
+     * Point with get makes a new Point each time, so it is only used where speed does not matter.
+     */
+    static final class Points extends AbstractList<Point> implements RandomAccess {
+        /**
+         * Slab object that represents the slab holding the points.
+         */
+        private final Slab segment;
+        /**
+         * long object that represents the index, in doubles, of the first point's x-value.
+         */
+        private final long offset;
+        /**
+         * int object that represents the number of points.
+         */
+        private final int size;
+        /**
+         * Color object that stores the color of every point.
+         */
+        private final Color color;
+
+        /**
+         * Constructs the points stored in segment from offset, in doubles.
+         * @param segment
+         * @param offset
+         * @param size
+         * @param color
+         */
+        private Points(Slab segment, long offset, int size, Color color) {
+            this.segment = segment;
+            this.offset = offset;
+            this.size = size;
+            this.color = color;
+        }
+
+        /**
+         * Gives the x-value of the point at index i.
+         * @param i
+         * @return the x-value of the point.
+         */
+        double x(int i) {
+            return segment.get(offset + 2L * i);
+        }
+
+        /**
+         * Gives the y-value of the point at index i.
+         * @param i
+         * @return the y-value of the point.
+         */
+        double y(int i) {
+            return segment.get(offset + 2L * i + 1);
+        }
+
+        /**
+         * RETURNS the color of every point.
+         * @return the color attribute
+         */
+        Color color() {
+            return color;
+        }
+
+        @Override
+        public Point get(int i) {
+            if (i < 0 || i >= size) {
+                throw new IndexOutOfBoundsException(i);
+            }
+            return new Point(x(i), y(i), color);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
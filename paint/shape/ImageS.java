@@ -1,9 +1,16 @@
 package paint.shapes;
 
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import paint.app.FillStyle;
+import paint.jfr.ImageDecodeEvent;
+import paint.render.DrawingSurface;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Representation of for the image.
@@ -23,6 +30,11 @@ public class ImageS implements Drawable{
      * String path stores the image path.
      */
     private String path;
+    /**
+     * Image array that stores the image followed by copies of it halved in size down to
+     * a single pixel, built the first time the image is drawn.
+     */
+    private Image[] mipmaps;
 
     /**
      * Constructs a new ImageS object.
@@ -60,22 +72,122 @@ public class ImageS implements Drawable{
 
     /**
      * Draws the ImageS object.
-     * @param g2d GraphicsContext input.
+     * @param g2d DrawingSurface input.
      */
     @Override
-    public void draw(GraphicsContext g2d) {
+    public void draw(DrawingSurface g2d) {
         if (image != null) {
             g2d.drawImage(image, x, y, width, height);
         }
     }
 
     /**
-     * Gives the duplicate of the current ImageS object.
+     * Draws the ImageS object at the given view scale, using the smallest mipmap that still
+     * covers the on-screen size of the image.
+     * @param g2d DrawingSurface input.
+     * @param scale the number of screen pixels per document unit.
+     */
+    @Override
+    public void draw(DrawingSurface g2d, double scale) {
+        if (image == null) {
+            return;
+        }
+        Image[] levels = getMipmaps();
+        double screenWidth = width * scale;
+        double screenHeight = height * scale;
+        Image best = levels[0];
+        for (Image level : levels) {
+            if (level.getWidth() < screenWidth || level.getHeight() < screenHeight) {
+                break;
+            }
+            best = level;
+        }
+        g2d.drawImage(best, x, y, width, height);
+    }
+
+    /**
+     * Gives the mipmaps of the image, building them if the image has finished loading.
+     * @return the image followed by its mipmaps, or just the image if it is not loaded yet.
+     */
+    private Image[] getMipmaps() {
+        if (mipmaps != null) {
+            return mipmaps;
+        }
+        PixelReader reader = image.getPixelReader();
+        if (reader == null || image.getProgress() < 1 || image.isError()) {
+            return new Image[]{image};
+        }
+        ImageDecodeEvent event = new ImageDecodeEvent();
+        event.begin();
+        int w = (int) image.getWidth();
+        int h = (int) image.getHeight();
+        int[] pixels = new int[w * h];
+        reader.getPixels(0, 0, w, h, PixelFormat.getIntArgbInstance(), pixels, 0, w);
+        List<Image> levels = new ArrayList<>();
+        levels.add(image);
+        while (w > 1 || h > 1) {
+            int nw = Math.max(1, w / 2);
+            int nh = Math.max(1, h / 2);
+            pixels = halve(pixels, w, h, nw, nh);
+            WritableImage level = new WritableImage(nw, nh);
+            level.getPixelWriter().setPixels(0, 0, nw, nh, PixelFormat.getIntArgbInstance(), pixels, 0, nw);
+            levels.add(level);
+            w = nw;
+            h = nh;
+        }
+        mipmaps = levels.toArray(new Image[0]);
+        event.end();
+        if (event.shouldCommit()) {
+            event.stage = "mipmaps";
+            event.path = path;
+            event.width = (int) image.getWidth();
+            event.height = (int) image.getHeight();
+            event.commit();
+        }
+        return mipmaps;
+    }
+
+    /**
+     * Gives the pixels of a w by h ARGB image scaled down to nw by nh by averaging each
+     * 2x2 block of pixels.
+     * @param src
+     * @param w
+     * @param h
+     * @param nw
+     * @param nh
+     * @return the scaled down ARGB pixels.
+     */
+    private static int[] halve(int[] src, int w, int h, int nw, int nh) {
+        int[] dst = new int[nw * nh];
+        for (int y = 0; y < nh; y++) {
+            int y0 = Math.min(h - 1, y * 2);
+            int y1 = Math.min(h - 1, y * 2 + 1);
+            for (int x = 0; x < nw; x++) {
+                int x0 = Math.min(w - 1, x * 2);
+                int x1 = Math.min(w - 1, x * 2 + 1);
+                int p0 = src[y0 * w + x0], p1 = src[y0 * w + x1];
+                int p2 = src[y1 * w + x0], p3 = src[y1 * w + x1];
+                int argb = 0;
+                for (int shift = 0; shift < 32; shift += 8) {
+                    int sum = ((p0 >>> shift) & 0xFF) + ((p1 >>> shift) & 0xFF)
+                            + ((p2 >>> shift) & 0xFF) + ((p3 >>> shift) & 0xFF);
+                    argb |= ((sum + 2) / 4) << shift;
+                }
+                dst[y * nw + x] = argb;
+            }
+        }
+        return dst;
+    }
+
+    /**
+     * Gives the duplicate of the current ImageS object, sharing the image and its mipmaps.
      * @return a duplicate of the current ImageS object.
      */
     @Override
     public Drawable clone() {
-        return new ImageS(x, y, width, height, image, path);
+        ImageS copy = new ImageS(x, y, width, height, image, path);
+        copy.mipmaps = mipmaps;
+        return copy;
     }
 
     /**
@@ -109,6 +221,23 @@ public class ImageS implements Drawable{
         return new double[]{x, y, width, height};
     }
 
+    /**
+     * Gives the average color of the image, taken from its single pixel mipmap.
+     * @return the average color of the image, or gray if it has not been loaded yet.
+     */
+    @Override
+    public Color getColor() {
+        if (image == null) {
+            return Color.GRAY;
+        }
+        Image[] levels = getMipmaps();
+        Image smallest = levels[levels.length - 1];
+        if (levels.length == 1 && (smallest.getWidth() > 1 || smallest.getHeight() > 1)) {
+            return Color.GRAY;
+        }
+        return smallest.getPixelReader().getColor(0, 0);
+    }
+
     /**
      * Changes the color of the image.
      * @param color
@@ -1,11 +1,10 @@
 package paint.shapes;
 
 import paint.app.FillStyle;
-import javafx.scene.canvas.GraphicsContext;
+import paint.render.DrawingSurface;
 import javafx.scene.paint.Color;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -13,11 +12,11 @@ import java.util.List;
  * such as the color and line width.
  * While outlining how the polyline is drawn.
  */
-public class Polyline implements Drawable {
+public class Polyline implements Drawable, Erasable {
     /**
-     * ArrayList that contains all the points in the polyline.
+     * StrokeGeometry that contains all the points in the polyline.
      */
-    private final List<Point> points = new ArrayList<>();
+    private StrokeGeometry points = new StrokeGeometry();
     /**
      * Color object that stores the color of the polyline.
      */
@@ -26,10 +25,6 @@ public class Polyline implements Drawable {
      * double object that represents the line width of the polyline.
      */
     private double lineWidth;
-    /**
-     * Point object that represents the last point in the polyline.
-     */
-    private Point previewPoint = null;
 
     /**
      *  Constructs a new Polyline object with a specific color and line width.
@@ -46,7 +41,9 @@ public class Polyline implements Drawable {
      * @param p
      */
     public void addPoint(Point p) {
-        if (p != null) points.add(p);
+        if (p != null) {
+            points.add(p);
+        }
     }
 
     /**
@@ -58,83 +55,122 @@ public class Polyline implements Drawable {
     }
 
     /**
-     * Changes the current preview point to point p.
-     * @param p
+     * RETURNS the color attribute of the polyline.
+     * @return the color of the polyline
      */
-    public void setPreview(Point p) {
-        this.previewPoint = p;
+    @Override
+    public Color getColor() {
+        return color;
     }
 
     /**
-     * Gives the distance from the line segments.
-     * @param x
-     * @param y
-     * @param x1
-     * @param y1
-     * @param x2
-     * @param y2
-     * @return the distance from the line segments.
-     */
-    private double distanceToLineSegment(double x, double y, double x1, double y1, double x2, double y2) {
-        double dx = x2 - x1;
-        double dy = y2 - y1;
-        double lengthSquared = dx * dx + dy * dy;
-        if (lengthSquared == 0) {
-            return Math.hypot(x - x1, y - y1);
-        }
-        double t = Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / lengthSquared));
-        double pX = x1 + t * dx;
-        double pY = y1 + t * dy;
-        return Math.hypot(pX - x, pY - y);
+     * RETURNS the line width of the polyline.
+     * @return the lineWidth attribute of the polyline
+     */
+    public double getLineWidth() {
+        return lineWidth;
+    }
+
+    /**
+     * RETURNS the x-value of the point at index i.
+     * @param i
+     * @return the x-value of the point.
+     */
+    public double getX(int i) {
+        return points.getX(i);
+    }
+
+    /**
+     * RETURNS the y-value of the point at index i.
+     * @param i
+     * @return the y-value of the point.
+     */
+    public double getY(int i) {
+        return points.getY(i);
     }
 
     /**
      * Draws the Polyline object.
-     * @param g GraphicsContext input.
+     * @param g DrawingSurface input.
      */
     @Override
-    public void draw(GraphicsContext g) {
+    public void draw(DrawingSurface g) {
         if (g == null) return;
         g.setStroke(color);
         g.setLineWidth(lineWidth);
-        for (int i = 0; i + 1 < points.size(); i++) {
-            Point a = points.get(i), b = points.get(i + 1);
-            g.strokeLine(a.getX(), a.getY(), b.getX(), b.getY());
-        }
-        if (!points.isEmpty() && previewPoint != null) {
-            g.setLineDashes(8);
-            Point last = points.get(points.size() - 1);
-            g.strokeLine(last.getX(), last.getY(), previewPoint.getX(), previewPoint.getY());
-            g.setLineDashes();
+        points.strokeSegments(g);
+    }
+
+    /**
+     * Draws the Polyline object at the given view scale. When zoomed out, points that fall
+     * within the same screen pixel are skipped and the rest are drawn as a single polyline.
+     * @param g DrawingSurface input.
+     * @param scale the number of screen pixels per document unit.
+     */
+    @Override
+    public void draw(DrawingSurface g, double scale) {
+        double tolerance = StrokeSimplifier.toleranceFor(scale);
+        if (g == null || tolerance == 0 || points.size() < 2) {
+            draw(g);
+            return;
         }
+        g.setStroke(color);
+        g.setLineWidth(lineWidth);
+        points.strokeSimplified(g, tolerance);
     }
 
     /**
      * Gives a duplicate of the polyline
+     * The duplicate shares the polyline's points until either of them adds a point.
      * @return polyline with the same attributes as the current instance polyline.
      */
     @Override
     public Drawable clone() {
         Polyline p = new Polyline(color, lineWidth);
-        for (Point point : points) {
-            p.addPoint(new Point(point.getX(), point.getY(), point.getColor()));
-        }
+        p.points = points.copy();
         return p;
     }
 
     /**
-     * Offsets the position of the polyline
+     * Offsets the position of the polyline. Only the polyline's translation changes, so this
+     * takes the same time however many points the polyline has.
      * @param dx
      * @param dy
      */
     @Override
     public void offset(double dx, double dy) {
-        List<Point> newPoints = new ArrayList<>();
-        for (Point p : points) {
-            newPoints.add(new Point(p.getX() + dx, p.getY() + dy, p.getColor()));
+        points.translate(dx, dy);
+    }
+
+    /**
+     * Gives the pieces of the polyline left after erasing every part of it within radius of
+     * (x, y), measured to the edge of its line. The pieces share the polyline's points.
+     * @param x
+     * @param y
+     * @param radius
+     * @return the pieces left, or null if the polyline is not within radius.
+     */
+    @Override
+    public List<Drawable> erase(double x, double y, double radius) {
+        List<StrokeGeometry> kept = points.erase(x, y, radius + lineWidth / 2);
+        if (kept == null) {
+            return null;
+        }
+        List<Drawable> pieces = new ArrayList<>(kept.size());
+        for (StrokeGeometry g : kept) {
+            Polyline piece = new Polyline(color, lineWidth);
+            piece.points = g;
+            pieces.add(piece);
         }
-        points.clear();
-        points.addAll(newPoints);
+        return pieces;
+    }
+
+    /**
+     * Moves the polyline's points into the GeometryArena if it is enabled.
+     */
+    @Override
+    public void compact() {
+        points.compact();
     }
 
     /**
@@ -145,38 +181,18 @@ public class Polyline implements Drawable {
      */
     @Override
     public boolean contains(double dx, double dy) {
-        for (int i = 0; i < points.size() - 1; i++) {
-            Point p1 = points.get(i);
-            Point p2 = points.get(i + 1);
-            double d = distanceToLineSegment(dx, dy, p1.getX(), p1.getY(), p2.getX(), p2.getY());
-            if (d <= lineWidth + 5) {
-                return true;
-            }
-        }
-        return false;
+        return points.isNear(dx, dy, lineWidth + 5);
     }
 
     /**
      * RETURNS the bounds of the polyline. Where the minX and MinY are the smallest x and y value.
      * And maxX and maxY are the largest x and y value to contain the entire polyline.
+     * The bounds are cached until the points change.
      * @return the bounds of the polyline
      */
     @Override
     public double[] getBounds() {
-        if (points.isEmpty()) {
-            return new double[]{0, 0, 0, 0};
-        }
-        double minX = points.get(0).getX();
-        double minY = points.get(0).getY();
-        double maxX = minX;
-        double maxY = minY;
-        for (Point p : points) {
-            minX = Math.min(minX, p.getX());
-            minY = Math.min(minY, p.getY());
-            maxX = Math.max(maxX, p.getX());
-            maxY = Math.max(maxY, p.getY());
-        }
-        return new double[]{minX - 5, minY - 5, maxX - minX + 10, maxY - minY + 10};
+        return points.getBounds(5);
     }
 
     /**
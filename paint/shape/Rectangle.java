@@ -1,7 +1,7 @@
 package paint.shapes;
 
 import paint.app.FillStyle;
-import javafx.scene.canvas.GraphicsContext;
+import paint.render.DrawingSurface;
 import javafx.scene.paint.Color;
 
 /**
@@ -156,10 +156,10 @@ public class Rectangle implements Drawable {
 
     /**
      * Draws the rectangle object while considering the fill style of the rectangle.
-     * @param g2d GraphicsContext input.
+     * @param g2d DrawingSurface input.
      */
     @Override
-    public void draw(GraphicsContext g2d) {
+    public void draw(DrawingSurface g2d) {
         g2d.setFill(color);
         g2d.setStroke(color);
         g2d.setLineWidth(lineWidth);
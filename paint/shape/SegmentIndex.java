@@ -0,0 +1,411 @@
+package paint.shapes;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * A bounding volume hierarchy over the segments of a long stroke, so finding whether a point
+ * is near the stroke, or which of its segments are, only tests the segments whose boxes are
+ * near it.
+ * The segments are grouped in runs of LEAF segments, each with the box of its points; pairs
+ * of boxes are then merged level by level up to a single box. The index is built for one
+ * list of points and never changes, so strokes sharing their points can share it too and it
+ * can be read from any thread. For points in the GeometryArena the index keeps only its boxes
+ * and reads the segments from there, so it adds little to the heap.
+ * The pieces left after erasing part of a stroke are a run of its points with a new point at
+ * each cut end, so a piece's index is a slice of the stroke's: it shares the boxes, skips those
+ * outside the run and tests the segments to the new points on their own. Indices given and
+ * taken by a slice are those of the piece's points.
+ */
+final class SegmentIndex {
+    /**
+     * int object that represents the number of segments in each leaf box.
+     */
+    private static final int LEAF = 32;
+    /**
+     * The points the index was built for.
+     */
+    private final List<Point> points;
+    /**
+     * The x-values and y-values of the points, copied out of the Point objects so the leaves
+     * are tested over plain arrays; null when the points are read from stored instead.
+     */
+    private final double[] xs, ys;
+    /**
+     * The points in the GeometryArena the segments are read from, null when they are copied
+     * into xs and ys.
+     */
+    private final GeometryArena.Points stored;
+    /**
+     * int object that represents the number of points the index was built for.
+     */
+    private final int size;
+    /**
+     * The boxes of each level from the leaves up, each stored as minX, minY, maxX, maxY.
+     */
+    private final double[][] levels;
+    /**
+     * int object from, to that represents the run of points covered, from index from up to
+     * but not including index to; all of them unless the index is a slice.
+     */
+    private final int from, to;
+    /**
+     * Point objects head, tail that represent the new points before and after the run of a
+     * slice, null where there is none.
+     */
+    private final Point head, tail;
+
+    /**
+     * Constructs the index for the stroke through points, which must hold at least two points.
+     * @param points
+     */
+    SegmentIndex(List<Point> points) {
+        int n = points.size();
+        this.points = points;
+        size = n;
+        from = 0;
+        to = n;
+        head = tail = null;
+        if (points instanceof GeometryArena.Points p) {
+            stored = p;
+            xs = ys = null;
+        } else {
+            stored = null;
+            xs = new double[n];
+            ys = new double[n];
+            for (int i = 0; i < n; i++) {
+                Point p = points.get(i);
+                xs[i] = p.x;
+                ys[i] = p.y;
+            }
+        }
+        int leaves = (n - 2) / LEAF + 1;
+        double[] boxes = new double[leaves * 4];
+        for (int leaf = 0; leaf < leaves; leaf++) {
+            int first = leaf * LEAF;
+            int last = Math.min(first + LEAF, n - 1);
+            double minX = x(first), minY = y(first), maxX = minX, maxY = minY;
+            for (int i = first + 1; i <= last; i++) {
+                double x = x(i), y = y(i);
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+            }
+            boxes[leaf * 4] = minX;
+            boxes[leaf * 4 + 1] = minY;
+            boxes[leaf * 4 + 2] = maxX;
+            boxes[leaf * 4 + 3] = maxY;
+        }
+        int depth = 1;
+        for (int count = leaves; count > 1; count = (count + 1) / 2) {
+            depth++;
+        }
+        levels = new double[depth][];
+        levels[0] = boxes;
+        for (int level = 1; level < depth; level++) {
+            double[] below = levels[level - 1];
+            int count = below.length / 4;
+            double[] merged = new double[(count + 1) / 2 * 4];
+            for (int i = 0; i < count; i += 2) {
+                int a = i * 4, b = Math.min(i + 1, count - 1) * 4, m = i / 2 * 4;
+                merged[m] = Math.min(below[a], below[b]);
+                merged[m + 1] = Math.min(below[a + 1], below[b + 1]);
+                merged[m + 2] = Math.max(below[a + 2], below[b + 2]);
+                merged[m + 3] = Math.max(below[a + 3], below[b + 3]);
+            }
+            levels[level] = merged;
+        }
+    }
+
+    /**
+     * Constructs the slice of index covering its points from index from up to but not
+     * including index to, with head before them and tail after them where not null.
+     * @param index
+     * @param from
+     * @param to
+     * @param head
+     * @param tail
+     */
+    private SegmentIndex(SegmentIndex index, int from, int to, Point head, Point tail) {
+        points = index.points;
+        xs = index.xs;
+        ys = index.ys;
+        stored = index.stored;
+        size = index.size;
+        levels = index.levels;
+        this.from = from;
+        this.to = to;
+        this.head = head;
+        this.tail = tail;
+    }
+
+    /**
+     * Gives the index of the run of base from index from up to but not including index to,
+     * with head before it and tail after it where not null, if this index was built for
+     * base; otherwise null.
+     * @param base
+     * @param from
+     * @param to
+     * @param head
+     * @param tail
+     * @return the slice of this index, or null.
+     */
+    SegmentIndex slice(List<Point> base, int from, int to, Point head, Point tail) {
+        return base == points ? new SegmentIndex(this, from, to, head, tail) : null;
+    }
+
+    /**
+     * Gives the x-value of the point at index i.
+     * @param i
+     * @return the x-value of the point.
+     */
+    private double x(int i) {
+        return xs != null ? xs[i] : stored.x(i);
+    }
+
+    /**
+     * Gives the y-value of the point at index i.
+     * @param i
+     * @return the y-value of the point.
+     */
+    private double y(int i) {
+        return ys != null ? ys[i] : stored.y(i);
+    }
+
+    /**
+     * Gives the {minX, minY, maxX, maxY} of the points covered. Boxes wholly inside the run
+     * are taken as they are, so only the points of the leaves at its ends are read.
+     * @return the extent of the points.
+     */
+    double[] extent() {
+        double[] e = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        if (to - from == 1) {
+            include(e, x(from), y(from));
+        } else if (to > from) {
+            addExtent(levels.length - 1, 0, e);
+        }
+        if (head != null) {
+            include(e, head.x, head.y);
+        }
+        if (tail != null) {
+            include(e, tail.x, tail.y);
+        }
+        return e;
+    }
+
+    /**
+     * Grows e to hold the points of the run under box i of level.
+     * @param level
+     * @param i
+     * @param e
+     */
+    private void addExtent(int level, int i, double[] e) {
+        double[] boxes = levels[level];
+        int first = i * LEAF << level;
+        int last = Math.min((i + 1) * LEAF << level, size - 1);
+        if (i * 4 >= boxes.length || last < from || first >= to) {
+            return;
+        }
+        if (first >= from && last < to) {
+            int b = i * 4;
+            e[0] = Math.min(e[0], boxes[b]);
+            e[1] = Math.min(e[1], boxes[b + 1]);
+            e[2] = Math.max(e[2], boxes[b + 2]);
+            e[3] = Math.max(e[3], boxes[b + 3]);
+        } else if (level > 0) {
+            addExtent(level - 1, i * 2, e);
+            addExtent(level - 1, i * 2 + 1, e);
+        } else {
+            for (int p = Math.max(first, from); p <= Math.min(last, to - 1); p++) {
+                include(e, x(p), y(p));
+            }
+        }
+    }
+
+    /**
+     * Grows e to hold the point (x, y).
+     * @param e
+     * @param x
+     * @param y
+     */
+    private static void include(double[] e, double x, double y) {
+        e[0] = Math.min(e[0], x);
+        e[1] = Math.min(e[1], y);
+        e[2] = Math.max(e[2], x);
+        e[3] = Math.max(e[3], y);
+    }
+
+    /**
+     * Returns true if the point (x, y) is within distance of one of the segments.
+     * @param x
+     * @param y
+     * @param distance
+     * @return true if the point is near the stroke, otherwise false.
+     */
+    boolean isNear(double x, double y, double distance) {
+        double distanceSquared = distance * distance;
+        return headNear(x, y, distanceSquared) || tailNear(x, y, distanceSquared)
+                || isNear(levels.length - 1, 0, x, y, distance, distanceSquared);
+    }
+
+    /**
+     * Returns true if the point (x, y) is within distance of a segment of the run under box i
+     * of level.
+     * @param level
+     * @param i
+     * @param x
+     * @param y
+     * @param distance
+     * @param distanceSquared
+     * @return true if the point is near a segment under the box, otherwise false.
+     */
+    private boolean isNear(int level, int i, double x, double y, double distance, double distanceSquared) {
+        double[] boxes = levels[level];
+        if (i * 4 >= boxes.length || !inRun(level, i)) {
+            return false;
+        }
+        int b = i * 4;
+        if (x < boxes[b] - distance || y < boxes[b + 1] - distance
+                || x > boxes[b + 2] + distance || y > boxes[b + 3] + distance) {
+            return false;
+        }
+        if (level > 0) {
+            return isNear(level - 1, i * 2, x, y, distance, distanceSquared)
+                    || isNear(level - 1, i * 2 + 1, x, y, distance, distanceSquared);
+        }
+        int first = Math.max(i * LEAF, from);
+        int last = Math.min(Math.min(i * LEAF + LEAF, size - 1), to - 1);
+        for (int s = first; s < last; s++) {
+            if (distanceSquaredToSegment(x, y, x(s), y(s), x(s + 1), y(s + 1)) <= distanceSquared) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gives the segments within distance of the point (x, y), where segment s runs from
+     * point s to point s + 1.
+     * @param x
+     * @param y
+     * @param distance
+     * @return the indices of the segments near the point, in increasing order.
+     */
+    int[] segmentsNear(double x, double y, double distance) {
+        double distanceSquared = distance * distance;
+        IntStream.Builder found = IntStream.builder();
+        boolean headNear = headNear(x, y, distanceSquared);
+        if (headNear) {
+            found.add(0);
+        }
+        collectNear(levels.length - 1, 0, x, y, distance, distanceSquared, found);
+        if (tailNear(x, y, distanceSquared) && !(headNear && to == from)) {
+            found.add(to - from + (head == null ? 0 : 1) - 1);
+        }
+        return found.build().toArray();
+    }
+
+    /**
+     * Adds to found, in increasing order, the segments of the run under box i of level that
+     * are within distance of the point (x, y).
+     * @param level
+     * @param i
+     * @param x
+     * @param y
+     * @param distance
+     * @param distanceSquared
+     * @param found
+     */
+    private void collectNear(int level, int i, double x, double y, double distance, double distanceSquared,
+                             IntStream.Builder found) {
+        double[] boxes = levels[level];
+        if (i * 4 >= boxes.length || !inRun(level, i)) {
+            return;
+        }
+        int b = i * 4;
+        if (x < boxes[b] - distance || y < boxes[b + 1] - distance
+                || x > boxes[b + 2] + distance || y > boxes[b + 3] + distance) {
+            return;
+        }
+        if (level > 0) {
+            collectNear(level - 1, i * 2, x, y, distance, distanceSquared, found);
+            collectNear(level - 1, i * 2 + 1, x, y, distance, distanceSquared, found);
+            return;
+        }
+        int first = Math.max(i * LEAF, from);
+        int last = Math.min(Math.min(i * LEAF + LEAF, size - 1), to - 1);
+        int shift = (head == null ? 0 : 1) - from;
+        for (int s = first; s < last; s++) {
+            if (distanceSquaredToSegment(x, y, x(s), y(s), x(s + 1), y(s + 1)) <= distanceSquared) {
+                found.add(s + shift);
+            }
+        }
+    }
+
+    /**
+     * Returns true if box i of level holds a segment of the run.
+     * @param level
+     * @param i
+     * @return true if the box holds a segment of the run, otherwise false.
+     */
+    private boolean inRun(int level, int i) {
+        long first = (long) i * LEAF << level;
+        long last = (long) (i + 1) * LEAF << level;
+        return first < to - 1 && last > from;
+    }
+
+    /**
+     * Returns true if the segment from the head to the point after it is within the distance
+     * whose square is distanceSquared of the point (x, y).
+     * @param x
+     * @param y
+     * @param distanceSquared
+     * @return true if there is a head and its segment is near the point, otherwise false.
+     */
+    private boolean headNear(double x, double y, double distanceSquared) {
+        if (head == null) {
+            return false;
+        }
+        double nx = to > from ? x(from) : tail.x, ny = to > from ? y(from) : tail.y;
+        return distanceSquaredToSegment(x, y, head.x, head.y, nx, ny) <= distanceSquared;
+    }
+
+    /**
+     * Returns true if the segment from the point before the tail to the tail is within the
+     * distance whose square is distanceSquared of the point (x, y).
+     * @param x
+     * @param y
+     * @param distanceSquared
+     * @return true if there is a tail and its segment is near the point, otherwise false.
+     */
+    private boolean tailNear(double x, double y, double distanceSquared) {
+        if (tail == null) {
+            return false;
+        }
+        double px = to > from ? x(to - 1) : head.x, py = to > from ? y(to - 1) : head.y;
+        return distanceSquaredToSegment(x, y, px, py, tail.x, tail.y) <= distanceSquared;
+    }
+
+    /**
+     * Gives the squared distance from the point (x, y) to the segment from (x1, y1) to (x2, y2).
+     * @param x
+     * @param y
+     * @param x1
+     * @param y1
+     * @param x2
+     * @param y2
+     * @return the squared distance from the segment.
+     */
+    static double distanceSquaredToSegment(double x, double y, double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0
+                : Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / lengthSquared));
+        double ex = x - (x1 + t * dx);
+        double ey = y - (y1 + t * dy);
+        return ex * ex + ey * ey;
+    }
+}
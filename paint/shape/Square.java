@@ -1,7 +1,7 @@
 package paint.shapes;
 
 import paint.app.FillStyle;
-import javafx.scene.canvas.GraphicsContext;
+import paint.render.DrawingSurface;
 import javafx.scene.paint.Color;
 
 /**
@@ -141,10 +141,10 @@ public class Square implements Drawable {
 
     /**
      * Draws the rectangle object while considering the fill style of the rectangle.
-     * @param g2d GraphicsContext input.
+     * @param g2d DrawingSurface input.
      */
     @Override
-    public void draw(GraphicsContext g2d) {
+    public void draw(DrawingSurface g2d) {
         if (dragging) {
             g2d.setStroke(color);
             g2d.setLineDashes(4);
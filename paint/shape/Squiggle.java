@@ -1,20 +1,22 @@
 package paint.shapes;
 
 import paint.app.FillStyle;
-import javafx.scene.canvas.GraphicsContext;
+import paint.render.DrawingSurface;
 import javafx.scene.paint.Color;
+
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Representation of the Squiggle Object with getting and setting the characteristics of the squiggle
  * such as the color, centre, line width, etc.
  * While outlining how the squiggle is drawn.
  */
-public class Squiggle implements Drawable {
+public class Squiggle implements Drawable, Erasable {
     /**
-     * ArrayList that contains all the points in the squiggle.
+     * StrokeGeometry that contains all the points in the squiggle.
      */
-    private ArrayList<Point> points = new ArrayList<>();
+    private StrokeGeometry points = new StrokeGeometry();
     /**
      * Color object that stores the color of the squiggle.
      */
@@ -59,71 +61,136 @@ public class Squiggle implements Drawable {
     }
 
     /**
-     * Gives the distance from the line segments.
-     * @param x
-     * @param y
-     * @param x1
-     * @param y1
-     * @param x2
-     * @param y2
-     * @return the distance from the line segments.
-     */
-    private double distanceToLineSegment(double x, double y, double x1, double y1, double x2, double y2) {
-        double dx = x2 - x1;
-        double dy = y2 - y1;
-        double lengthSquared = dx * dx + dy * dy;
-        if (lengthSquared == 0) {
-            return Math.hypot(x - x1, y - y1);
+     * Draws the squiggle object.
+     * @param g2d DrawingSurface input.
+     */
+    @Override
+    public void draw(DrawingSurface g2d) {
+        if (points.size() < 2) {
+            return;
         }
-        double t = Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / lengthSquared));
-        double pX = x1 + t * dx;
-        double pY = y1 + t * dy;
-        return Math.hypot(x - pX, y - pY);
+        g2d.setStroke(color);
+        g2d.setLineWidth(lineWidth);
+        points.strokeSegments(g2d);
     }
 
     /**
-     * Draws the squiggle object.
-     * @param g2d GraphicsContext input.
+     * RETURNS the number of points in the squiggle.
+     * @return the number of points.
+     */
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Draws only the part of the squiggle after its first drawnPoints points, for a squiggle
+     * that is still being drawn and whose earlier part is already on screen.
+     * @param g2d DrawingSurface input.
+     * @param drawnPoints the number of points already drawn.
+     * @return the number of points drawn once this part is drawn.
+     */
+    public int drawFrom(DrawingSurface g2d, int drawnPoints) {
+        if (points.size() >= 2 && drawnPoints < points.size()) {
+            g2d.setStroke(color);
+            g2d.setLineWidth(lineWidth);
+            points.strokeSegments(g2d, drawnPoints - 1);
+        }
+        return points.size();
+    }
+
+    /**
+     * Gives the squiggle as a BezierPath of curves that pass within tolerance of its points,
+     * which takes far less memory and stays smooth when zoomed in.
+     * @param tolerance the furthest, in document units, a curve may be from a point.
+     * @return the fitted path, or this squiggle if it has fewer than two distinct points.
+     */
+    public Drawable fit(double tolerance) {
+        int size = points.size();
+        double[] xs = new double[size], ys = new double[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            double x = points.getX(i), y = points.getY(i);
+            if (n == 0 || x != xs[n - 1] || y != ys[n - 1]) {
+                xs[n] = x;
+                ys[n++] = y;
+            }
+        }
+        if (n < 2) {
+            return this;
+        }
+        return new BezierPath(CurveFitter.fit(xs, ys, n, tolerance), color, lineWidth);
+    }
+
+    /**
+     * Draws the squiggle object at the given view scale. When zoomed out, points that fall
+     * within the same screen pixel are skipped and the rest are drawn as a single polyline.
+     * @param g2d DrawingSurface input.
+     * @param scale the number of screen pixels per document unit.
      */
     @Override
-    public void draw(GraphicsContext g2d) {
-        if (points.size() < 2) {
+    public void draw(DrawingSurface g2d, double scale) {
+        double tolerance = StrokeSimplifier.toleranceFor(scale);
+        if (tolerance == 0 || points.size() < 2) {
+            draw(g2d);
             return;
         }
         g2d.setStroke(color);
         g2d.setLineWidth(lineWidth);
-        for (int i = 0; i < points.size() - 1; i++) {
-            Point p1 = points.get(i);
-            Point p2 = points.get(i + 1);
-            g2d.strokeLine(p1.x, p1.y, p2.x, p2.y);
-        }
+        points.strokeSimplified(g2d, tolerance);
     }
 
     /**
      * Gives a duplicate of the squiggle
+     * The duplicate shares the squiggle's points until either of them adds a point.
      * @return Squiggle object with the same attributes as the current instance squiggle.
      */
     @Override
     public Drawable clone() {
         Squiggle s = new Squiggle(color, lineWidth);
-        for (Point p : points) {
-            s.addPoint(new Point(p.x, p.y, p.color));
-        }
+        s.points = points.copy();
         return s;
     }
 
     /**
-     * Offsets the position of the squiggle.
+     * Offsets the position of the squiggle. Only the squiggle's translation changes, so this
+     * takes the same time however many points the squiggle has.
      * @param dx offset of x-value
      * @param dy offset of y-value
      */
     @Override
     public void offset(double dx, double dy) {
-        ArrayList<Point> newPoints = new ArrayList<>();
-        for (Point p : points) {
-            newPoints.add(new Point(p.x + dx, p.y + dy, p.color));
+        points.translate(dx, dy);
+    }
+
+    /**
+     * Gives the pieces of the squiggle left after erasing every part of it within radius of
+     * (x, y), measured to the edge of its line. The pieces share the squiggle's points.
+     * @param x
+     * @param y
+     * @param radius
+     * @return the pieces left, or null if the squiggle is not within radius.
+     */
+    @Override
+    public List<Drawable> erase(double x, double y, double radius) {
+        List<StrokeGeometry> kept = points.erase(x, y, radius + lineWidth / 2);
+        if (kept == null) {
+            return null;
+        }
+        List<Drawable> pieces = new ArrayList<>(kept.size());
+        for (StrokeGeometry g : kept) {
+            Squiggle piece = new Squiggle(color, lineWidth);
+            piece.points = g;
+            pieces.add(piece);
         }
-        points = newPoints;
+        return pieces;
+    }
+
+    /**
+     * Moves the squiggle's points into the GeometryArena if it is enabled.
+     */
+    @Override
+    public void compact() {
+        points.compact();
     }
 
     /**
@@ -134,38 +201,18 @@ public class Squiggle implements Drawable {
      */
     @Override
     public boolean contains(double dx, double dy) {
-        for (int i = 0; i < points.size() - 1; i++) {
-            Point p1 = points.get(i);
-            Point p2 = points.get(i + 1);
-            double dist = distanceToLineSegment(dx, dy, p1.x, p1.y, p2.x, p2.y);
-            if (dist <= lineWidth + 5) {
-                return true;
-            }
-        }
-        return false;
+        return points.isNear(dx, dy, lineWidth + 5);
     }
 
     /**
      * RETURNS the bounds of the squiggle. Where the minX and MinY are the smallest x and y value.
      * And maxX and maxY are the largest x and y value to contain the entire squiggle.
+     * The bounds are cached until the points change.
      * @return the bounds of the squiggle
      */
     @Override
     public double[] getBounds() {
-        if (points.isEmpty()) {
-            return new double[]{0, 0, 0, 0};
-        }
-        double minX = points.get(0).x;
-        double minY = points.get(0).y;
-        double maxX = minX;
-        double maxY = minY;
-        for (Point p : points) {
-            minX = Math.min(minX, p.x);
-            minY = Math.min(minY, p.y);
-            maxX = Math.max(maxX, p.x);
-            maxY = Math.max(maxY, p.y);
-        }
-        return new double[]{minX - 5, minY - 5, maxX - minX + 10, maxY - minY + 10};
+        return points.getBounds(5);
     }
 
     /**
@@ -0,0 +1,597 @@
+package paint.shapes;
+
+import paint.render.DrawingSurface;
+import javafx.scene.paint.Color;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The points of a freehand or multi-point stroke together with a translation that is applied
+ * when the stroke is drawn, hit-tested or measured. Moving the stroke only changes the
+ * translation, so it costs the same however many points the stroke has; the translation is
+ * never written into the points, since they may be shared with other versions of the drawing.
+ * Copies share their points with the stroke they were copied from until one of them adds a
+ * point, so copying a stroke costs the same however many points it has. Likewise the pieces
+ * left after erasing part of a stroke are views of a run of its points, with at most a new
+ * point at each cut end, so erasing part of a stroke does not copy its points.
+ * When the GeometryArena is enabled, compacting a stroke before it is added to the drawing
+ * moves its points off the Java heap; drawing, hit-testing and measuring then read the
+ * coordinates straight from there.
+ */
+final class StrokeGeometry {
+    /**
+     * int object that represents the number of points from which hit-testing uses a
+     * SegmentIndex instead of testing every segment.
+     */
+    static final int INDEX_THRESHOLD = 256;
+    /**
+     * ArrayList that contains the points of the stroke, before the translation is applied, or
+     * the points in the GeometryArena once it has been compacted.
+     */
+    private List<Point> points = new ArrayList<>();
+    /**
+     * double object tx, ty that represents the translation of the points.
+     */
+    private double tx = 0, ty = 0;
+    /**
+     * Cached {minX, minY, maxX, maxY} of the untranslated points, null when the points have
+     * changed since they were computed. It is volatile because a background save may be the
+     * first to compute it for a stroke that is in a document.
+     */
+    private volatile double[] extent = null;
+    /**
+     * Cached simplified x-values and y-values of the untranslated points used when drawing
+     * zoomed out, and the tolerance they were simplified with.
+     */
+    private double[][] simplified = null;
+    private double simplifiedTolerance;
+    /**
+     * Cached SegmentIndex of the untranslated points for long strokes, null when the points
+     * have changed since it was built. It is volatile because hit-tests may run on the
+     * threads of a parallel query.
+     */
+    private volatile SegmentIndex index = null;
+    /**
+     * Boolean that is true if the points may be shared with another stroke, and must be
+     * copied before they are changed, else false.
+     */
+    private boolean shared = false;
+
+    /**
+     * Adds the point p, given in document coordinates, to the end of the stroke.
+     * @param p
+     */
+    void add(Point p) {
+        unshare();
+        points.add(tx == 0 && ty == 0 ? p : new Point(p.x - tx, p.y - ty, p.color));
+        if (extent != null) {
+            double x = p.x - tx, y = p.y - ty;
+            extent[0] = Math.min(extent[0], x);
+            extent[1] = Math.min(extent[1], y);
+            extent[2] = Math.max(extent[2], x);
+            extent[3] = Math.max(extent[3], y);
+        }
+        simplified = null;
+        index = null;
+    }
+
+    /**
+     * Gives the number of points in the stroke.
+     * @return the number of points.
+     */
+    int size() {
+        return points.size();
+    }
+
+    /**
+     * Gives the x-value of the point at index i in document coordinates.
+     * @param i
+     * @return the x-value of the point.
+     */
+    double getX(int i) {
+        return pointX(i) + tx;
+    }
+
+    /**
+     * Gives the y-value of the point at index i in document coordinates.
+     * @param i
+     * @return the y-value of the point.
+     */
+    double getY(int i) {
+        return pointY(i) + ty;
+    }
+
+    /**
+     * Gives the untranslated x-value of the point at index i, read without making a Point
+     * when the points, or the points a piece is a run of, are in the GeometryArena.
+     * @param i
+     * @return the x-value of the point.
+     */
+    private double pointX(int i) {
+        List<Point> p = points;
+        if (p instanceof GeometryArena.Points stored) {
+            return stored.x(i);
+        }
+        return p instanceof PointRun run ? run.x(i) : p.get(i).x;
+    }
+
+    /**
+     * Gives the untranslated y-value of the point at index i, read without making a Point
+     * when the points, or the points a piece is a run of, are in the GeometryArena.
+     * @param i
+     * @return the y-value of the point.
+     */
+    private double pointY(int i) {
+        List<Point> p = points;
+        if (p instanceof GeometryArena.Points stored) {
+            return stored.y(i);
+        }
+        return p instanceof PointRun run ? run.y(i) : p.get(i).y;
+    }
+
+    /**
+     * Gives the color of the point at index i.
+     * @param i
+     * @return the color of the point.
+     */
+    Color getColor(int i) {
+        List<Point> p = points;
+        if (p instanceof GeometryArena.Points stored) {
+            return stored.color();
+        }
+        return p instanceof PointRun run ? run.color(i) : p.get(i).color;
+    }
+
+    /**
+     * Moves the stroke by (dx, dy) without touching its points.
+     * @param dx
+     * @param dy
+     */
+    void translate(double dx, double dy) {
+        tx += dx;
+        ty += dy;
+    }
+
+    /**
+     * Moves the points into the GeometryArena if it is enabled. The translation is kept apart
+     * from the points for good, so this never changes where the stroke is. It is only called
+     * before the stroke is added to the document, since the strokes of the document are
+     * shared with the undo versions and read by the save thread.
+     */
+    void compact() {
+        if (GeometryArena.isEnabled() && !isStored()) {
+            GeometryArena.Points stored = GeometryArena.store(points);
+            if (stored != null) {
+                points = stored;
+                index = null;
+            }
+        }
+    }
+
+    /**
+     * Gives true if the points are in the GeometryArena, or are a run of points that are.
+     * @return if the points are stored off the heap.
+     */
+    private boolean isStored() {
+        return points instanceof GeometryArena.Points
+                || points instanceof PointRun run && run.stored != null;
+    }
+
+    /**
+     * Gives the bounds of the stroke grown by padding on every side.
+     * @param padding
+     * @return the bounds {x, y, width, height}, or all zeros if the stroke has no points.
+     */
+    double[] getBounds(double padding) {
+        if (points.isEmpty()) {
+            return new double[]{0, 0, 0, 0};
+        }
+        double[] e = extent();
+        return new double[]{e[0] + tx - padding, e[1] + ty - padding,
+                e[2] - e[0] + padding * 2, e[3] - e[1] + padding * 2};
+    }
+
+    /**
+     * Gives the {minX, minY, maxX, maxY} of the untranslated points, computing it if it is
+     * not cached, from the boxes of the SegmentIndex when there is one. The stroke must have
+     * at least one point.
+     * @return the extent of the points.
+     */
+    private double[] extent() {
+        double[] e = extent;
+        if (e == null && index != null) {
+            extent = e = index.extent();
+        } else if (e == null) {
+            double minX = pointX(0);
+            double minY = pointY(0);
+            double maxX = minX;
+            double maxY = minY;
+            for (int i = 1; i < points.size(); i++) {
+                double x = pointX(i), y = pointY(i);
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+            }
+            extent = e = new double[]{minX, minY, maxX, maxY};
+        }
+        return e;
+    }
+
+    /**
+     * Returns true if the point (x, y) is within distance of one of the stroke's segments.
+     * Points outside the stroke's bounds grown by distance are rejected at once; long strokes
+     * are searched through their SegmentIndex, short ones segment by segment.
+     * @param x
+     * @param y
+     * @param distance
+     * @return true if the point is near the stroke, otherwise false.
+     */
+    boolean isNear(double x, double y, double distance) {
+        if (points.size() < 2) {
+            return false;
+        }
+        double px = x - tx, py = y - ty;
+        double[] e = extent();
+        if (px < e[0] - distance || py < e[1] - distance || px > e[2] + distance || py > e[3] + distance) {
+            return false;
+        }
+        if (points.size() >= INDEX_THRESHOLD) {
+            return index().isNear(px, py, distance);
+        }
+        double distanceSquared = distance * distance;
+        for (int i = 0; i < points.size() - 1; i++) {
+            if (SegmentIndex.distanceSquaredToSegment(px, py, pointX(i), pointY(i), pointX(i + 1), pointY(i + 1))
+                    <= distanceSquared) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gives the SegmentIndex of the untranslated points, building it if it is not cached.
+     * @return the index of the stroke's segments.
+     */
+    private SegmentIndex index() {
+        SegmentIndex idx = index;
+        if (idx == null) {
+            index = idx = new SegmentIndex(points);
+        }
+        return idx;
+    }
+
+    /**
+     * Gives the pieces of the stroke left after erasing every part of it within radius of the
+     * point (x, y). Segments that cross the edge of the erased circle are cut where they cross
+     * it. The candidate segments of long strokes are found through their SegmentIndex. The
+     * stroke itself does not change.
+     * @param x
+     * @param y
+     * @param radius
+     * @return the pieces left, each of at least two points, which may be none; or null if no
+     * part of the stroke is within radius.
+     */
+    List<StrokeGeometry> erase(double x, double y, double radius) {
+        int n = points.size();
+        if (n == 0) {
+            return null;
+        }
+        double px = x - tx, py = y - ty;
+        double[] e = extent();
+        if (px < e[0] - radius || py < e[1] - radius || px > e[2] + radius || py > e[3] + radius) {
+            return null;
+        }
+        if (n == 1) {
+            double dx = pointX(0) - px, dy = pointY(0) - py;
+            boolean inside = dx * dx + dy * dy <= radius * radius;
+            return inside ? List.of() : null;
+        }
+        int[] near;
+        if (n >= INDEX_THRESHOLD) {
+            near = index().segmentsNear(px, py, radius);
+        } else {
+            double radiusSquared = radius * radius;
+            int count = 0;
+            near = new int[n - 1];
+            for (int i = 0; i < n - 1; i++) {
+                if (SegmentIndex.distanceSquaredToSegment(px, py, pointX(i), pointY(i), pointX(i + 1), pointY(i + 1))
+                        <= radiusSquared) {
+                    near[count++] = i;
+                }
+            }
+            near = Arrays.copyOf(near, count);
+        }
+        List<StrokeGeometry> pieces = new ArrayList<>();
+        boolean erased = false;
+        int from = 0;
+        Point head = null;
+        for (int s : near) {
+            double x1 = pointX(s), y1 = pointY(s);
+            double dx = pointX(s + 1) - x1, dy = pointY(s + 1) - y1, fx = x1 - px, fy = y1 - py;
+            double a = dx * dx + dy * dy, b = fx * dx + fy * dy, c = fx * fx + fy * fy - radius * radius;
+            double t0 = 0, t1 = 1;
+            if (a > 0) {
+                double root = Math.sqrt(Math.max(0, b * b - a * c));
+                t0 = Math.max(0, (-b - root) / a);
+                t1 = Math.min(1, (-b + root) / a);
+                if (t1 <= t0) {
+                    continue;
+                }
+            }
+            erased = true;
+            addPiece(pieces, from, s, head, t0 > 0 ? pointAlong(s, t0) : null);
+            from = s + 1;
+            head = t1 < 1 ? pointAlong(s, t1) : null;
+        }
+        if (!erased) {
+            return null;
+        }
+        addPiece(pieces, from, n - 1, head, null);
+        return pieces;
+    }
+
+    /**
+     * Gives the untranslated point a fraction t of the way along segment s, from point s to
+     * point s + 1, with the color of point s.
+     * @param s
+     * @param t
+     * @return the point along the segment.
+     */
+    private Point pointAlong(int s, double t) {
+        double x1 = pointX(s), y1 = pointY(s);
+        return new Point(x1 + (pointX(s + 1) - x1) * t, y1 + (pointY(s + 1) - y1) * t, getColor(s));
+    }
+
+    /**
+     * Adds to pieces the piece of the stroke made of head, if not null, the points from index
+     * from to index to, and tail, if not null, unless it would have fewer than two points.
+     * The piece shares the points of this stroke, and a long piece shares its SegmentIndex
+     * too, so neither its bounds nor its index are worked out again from its points.
+     * @param pieces
+     * @param from
+     * @param to
+     * @param head
+     * @param tail
+     */
+    private void addPiece(List<StrokeGeometry> pieces, int from, int to, Point head, Point tail) {
+        int count = to - from + 1 + (head == null ? 0 : 1) + (tail == null ? 0 : 1);
+        if (count < 2) {
+            return;
+        }
+        StrokeGeometry piece = new StrokeGeometry();
+        PointRun run = points instanceof PointRun r ? r.slice(from, to, head, tail)
+                : new PointRun(points, from, to + 1, head, tail);
+        piece.points = run;
+        SegmentIndex idx = index;
+        if (idx != null && count >= INDEX_THRESHOLD) {
+            piece.index = idx.slice(run.base, run.from, run.to, run.head, run.tail);
+        }
+        piece.tx = tx;
+        piece.ty = ty;
+        piece.shared = true;
+        shared = true;
+        pieces.add(piece);
+    }
+
+    /**
+     * Strokes every segment of the stroke with the current stroke settings of g2d.
+     * @param g2d
+     */
+    void strokeSegments(DrawingSurface g2d) {
+        strokeSegments(g2d, 0);
+    }
+
+    /**
+     * Strokes the segments that start at point index from or later with the current stroke
+     * settings of g2d.
+     * @param g2d
+     * @param from
+     */
+    void strokeSegments(DrawingSurface g2d, int from) {
+        for (int i = Math.max(from, 0); i < points.size() - 1; i++) {
+            g2d.strokeLine(pointX(i) + tx, pointY(i) + ty, pointX(i + 1) + tx, pointY(i + 1) + ty);
+        }
+    }
+
+    /**
+     * Strokes the stroke as one polyline through its points that are at least tolerance
+     * apart, with the current stroke settings of g2d.
+     * @param g2d
+     * @param tolerance
+     */
+    void strokeSimplified(DrawingSurface g2d, double tolerance) {
+        if (simplified == null || simplifiedTolerance != tolerance) {
+            simplified = StrokeSimplifier.simplify(points, tolerance);
+            simplifiedTolerance = tolerance;
+        }
+        boolean translated = tx != 0 || ty != 0;
+        if (translated) {
+            g2d.save();
+            g2d.translate(tx, ty);
+        }
+        g2d.strokePolyline(simplified[0], simplified[1], simplified[0].length);
+        if (translated) {
+            g2d.restore();
+        }
+    }
+
+    /**
+     * Gives a copy of the stroke that shares its points, and the caches computed from them,
+     * with this stroke until either of them changes the points.
+     * @return the copied stroke.
+     */
+    StrokeGeometry copy() {
+        StrokeGeometry g = new StrokeGeometry();
+        g.points = points;
+        g.extent = extent;
+        g.simplified = simplified;
+        g.simplifiedTolerance = simplifiedTolerance;
+        g.index = index;
+        g.tx = tx;
+        g.ty = ty;
+        g.shared = true;
+        shared = true;
+        return g;
+    }
+
+    /**
+     * Gives this stroke its own copy of the points on the heap if they may be shared or are in
+     * the GeometryArena, before they are changed.
+     */
+    private void unshare() {
+        if (!shared && !(points instanceof GeometryArena.Points)) {
+            return;
+        }
+        points = new ArrayList<>(points);
+        if (extent != null) {
+            extent = extent.clone();
+        }
+        shared = false;
+    }
+
+    /**
+     * The points of a piece of an erased stroke: a run of another stroke's points, viewed
+     * without copying them, with an optional new point before and after it where the stroke
+     * was cut. Slicing a run again gives a run over the same points, so pieces of pieces do
+     * not nest views.
+     */
+    private static final class PointRun extends AbstractList<Point> implements RandomAccess {
+        /**
+         * The points viewed, which never change while they are shared.
+         */
+        private final List<Point> base;
+        /**
+         * int object from, to that represents the run of base viewed, from index from up to
+         * but not including index to.
+         */
+        private final int from, to;
+        /**
+         * Point objects head, tail that represent the new points before and after the run,
+         * null where there is none.
+         */
+        private final Point head, tail;
+        /**
+         * The base points when they are in the GeometryArena, read without making Points;
+         * otherwise null.
+         */
+        private final GeometryArena.Points stored;
+
+        /**
+         * Constructs the run of base from index from up to but not including index to, with
+         * head before it and tail after it where not null.
+         * @param base
+         * @param from
+         * @param to
+         * @param head
+         * @param tail
+         */
+        PointRun(List<Point> base, int from, int to, Point head, Point tail) {
+            this.base = base;
+            this.from = from;
+            this.to = to;
+            this.head = head;
+            this.tail = tail;
+            this.stored = base instanceof GeometryArena.Points p ? p : null;
+        }
+
+        @Override
+        public Point get(int i) {
+            if (head != null) {
+                if (i == 0) {
+                    return head;
+                }
+                i--;
+            }
+            if (i >= 0 && i < to - from) {
+                return base.get(from + i);
+            }
+            if (tail != null && i == to - from) {
+                return tail;
+            }
+            throw new IndexOutOfBoundsException(i);
+        }
+
+        @Override
+        public int size() {
+            return to - from + (head == null ? 0 : 1) + (tail == null ? 0 : 1);
+        }
+
+        /**
+         * Gives the x-value of the point at index i, without making a Point for a base point.
+         * @param i
+         * @return the x-value of the point.
+         */
+        double x(int i) {
+            int b = baseIndex(i);
+            if (b >= 0) {
+                return stored != null ? stored.x(b) : base.get(b).x;
+            }
+            return get(i).x;
+        }
+
+        /**
+         * Gives the y-value of the point at index i, without making a Point for a base point.
+         * @param i
+         * @return the y-value of the point.
+         */
+        double y(int i) {
+            int b = baseIndex(i);
+            if (b >= 0) {
+                return stored != null ? stored.y(b) : base.get(b).y;
+            }
+            return get(i).y;
+        }
+
+        /**
+         * Gives the color of the point at index i, without making a Point for a base point.
+         * @param i
+         * @return the color of the point.
+         */
+        Color color(int i) {
+            int b = baseIndex(i);
+            if (b >= 0) {
+                return stored != null ? stored.color() : base.get(b).color;
+            }
+            return get(i).color;
+        }
+
+        /**
+         * Gives the index in base of the point at index i of the run.
+         * @param i
+         * @return the index in base, or -1 if the point is the head or tail or out of range.
+         */
+        private int baseIndex(int i) {
+            int j = head == null ? i : i - 1;
+            return j >= 0 && j < to - from ? from + j : -1;
+        }
+
+        /**
+         * Gives the run of the points of this run from index a to index b, inclusive, with
+         * newHead before them and newTail after them where not null. A new head is only given
+         * when a is after this run's head, and a new tail only when b is before its tail.
+         * @param a
+         * @param b
+         * @param newHead
+         * @param newTail
+         * @return the run over the same base points.
+         */
+        PointRun slice(int a, int b, Point newHead, Point newTail) {
+            int offset = head == null ? 0 : 1;
+            if (head != null && a == 0) {
+                newHead = head;
+                a = 1;
+            }
+            if (tail != null && b == offset + to - from) {
+                newTail = tail;
+                b--;
+            }
+            return new PointRun(base, from + a - offset, Math.max(from + a - offset, from + b - offset + 1),
+                    newHead, newTail);
+        }
+    }
+}
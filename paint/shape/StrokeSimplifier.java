@@ -0,0 +1,59 @@
+package paint.shapes;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Simplifies the points of freehand and multi-point strokes for drawing when zoomed out,
+ * where many points fall within the same screen pixel.
+ */
+final class StrokeSimplifier {
+
+    private StrokeSimplifier() {
+    }
+
+    /**
+     * Gives the simplification tolerance, in document units, for drawing at the given scale.
+     * The tolerance is rounded up to a power of two so a stroke's simplified points can be
+     * reused while zooming instead of being recomputed every frame.
+     * @param scale the number of screen pixels per document unit
+     * @return the tolerance, or 0 if the stroke should be drawn in full.
+     */
+    static double toleranceFor(double scale) {
+        if (scale >= 1) {
+            return 0;
+        }
+        return Math.pow(2, Math.ceil(Math.log(1 / scale) / Math.log(2)));
+    }
+
+    /**
+     * Gives the x-values and y-values of the points that are at least tolerance apart,
+     * always keeping the first and last point.
+     * @param points
+     * @param tolerance
+     * @return a two element array holding the x-values then the y-values.
+     */
+    static double[][] simplify(List<Point> points, double tolerance) {
+        int size = points.size();
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        double toleranceSquared = tolerance * tolerance;
+        xs[0] = points.get(0).x;
+        ys[0] = points.get(0).y;
+        int n = 1;
+        for (int i = 1; i < size - 1; i++) {
+            Point p = points.get(i);
+            double dx = p.x - xs[n - 1];
+            double dy = p.y - ys[n - 1];
+            if (dx * dx + dy * dy >= toleranceSquared) {
+                xs[n] = p.x;
+                ys[n] = p.y;
+                n++;
+            }
+        }
+        xs[n] = points.get(size - 1).x;
+        ys[n] = points.get(size - 1).y;
+        n++;
+        return new double[][]{Arrays.copyOf(xs, n), Arrays.copyOf(ys, n)};
+    }
+}
@@ -1,7 +1,7 @@
 package paint.shapes;
 
 import paint.app.FillStyle;
-import javafx.scene.canvas.GraphicsContext;
+import paint.render.DrawingSurface;
 import javafx.scene.paint.Color;
 
 /**
@@ -95,10 +95,10 @@ public class Triangle implements Drawable {
 
     /**
      * Draws the triangle object while considering the fill style of the triangle.
-     * @param g2d GraphicsContext input.
+     * @param g2d DrawingSurface input.
      */
     @Override
-    public void draw(GraphicsContext g2d) {
+    public void draw(DrawingSurface g2d) {
         double[] xPoints = {a.x, b.x, c.x};
         double[] yPoints = {a.y, b.y, c.y};
         g2d.setStroke(color);
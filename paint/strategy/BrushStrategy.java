@@ -0,0 +1,144 @@
+package paint.strategy;
+
+import paint.app.FillStyle;
+import paint.app.PaintModel;
+import paint.app.RasterLayer;
+import paint.log.EventLog;
+import paint.shapes.Drawable;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+import java.util.List;
+
+/**
+ * BrushStrategy handles painting pixels onto the model's raster layer. Using MouseEvent to
+ * receive the mouse interaction, round dabs are painted along the path of the mouse, so a
+ * long stroke costs pixels rather than an ever growing list of points. Each stroke is
+ * undone as one.
+ */
+public class BrushStrategy implements DrawingStrategy {
+    /**
+     * MoveEngine that moves the selected shapes when they are dragged.
+     */
+    private final MoveEngine mover = new MoveEngine();
+    /**
+     * boolean object that represents if the selection of the shape is cleared
+     */
+    private boolean clearedSelection = false;
+    /**
+     * boolean object that represents if a stroke is being painted.
+     */
+    private boolean painting = false;
+    /**
+     * double object lastX, lastY that represents where the stroke was last painted.
+     */
+    private double lastX, lastY;
+
+    /**
+     * Handles painting with the brush. When the mouse is first clicked a dab is painted,
+     * while dragging the stroke is painted along the mouse's path, and when the mouse is
+     * released the stroke becomes one undoable edit.
+     * @param e
+     * @param model
+     * @param color
+     * @param lineWidth
+     * @param fillStyle
+     */
+    @Override
+    public void handle(MouseEvent e, PaintModel model, Color color, double lineWidth, FillStyle fillStyle) {
+        switch (e.getEventType().getName()) {
+            case "MOUSE_PRESSED" -> {
+                Drawable hit = mover.hitTest(e, model);
+                if (hit != null && model.getSelectedShapes().contains(hit)) {
+                    mover.begin(e, model);
+                    clearedSelection = false;
+                } else if (!model.getSelectedShapes().isEmpty()) {
+                    model.clearSelection();
+                    clearedSelection = true;
+                } else {
+                    clearedSelection = false;
+                    painting = true;
+                    model.beginRasterEdit();
+                    model.getRasterLayer().paintDab(e.getX(), e.getY(), radius(lineWidth), argb(color));
+                    lastX = e.getX();
+                    lastY = e.getY();
+                    model.rasterChanged();
+                }
+            }
+            case "MOUSE_DRAGGED" -> {
+                if (mover.isMoving()) {
+                    mover.drag(e, model);
+                } else if (painting) {
+                    paintTo(e, model.getRasterLayer(), color, lineWidth);
+                    model.rasterChanged();
+                }
+            }
+            case "MOUSE_RELEASED" -> {
+                if (mover.isMoving()) {
+                    mover.release(model);
+                } else if (painting) {
+                    painting = false;
+                    model.endRasterEdit();
+                    EventLog.debug("Painted brush stroke");
+                }
+                clearedSelection = false;
+            }
+        }
+    }
+
+    /**
+     * Handles the drag events that arrived between two frames. While painting, the stroke
+     * is painted through every sample and the observers are updated once; otherwise each
+     * event is handled on its own.
+     * @param events
+     * @param model
+     * @param color
+     * @param lineWidth
+     * @param fillStyle
+     */
+    @Override
+    public void handleBatch(List<MouseEvent> events, PaintModel model, Color color, double lineWidth,
+                            FillStyle fillStyle) {
+        if (mover.isMoving() || !painting) {
+            DrawingStrategy.super.handleBatch(events, model, color, lineWidth, fillStyle);
+            return;
+        }
+        for (MouseEvent e : events) {
+            paintTo(e, model.getRasterLayer(), color, lineWidth);
+        }
+        model.rasterChanged();
+    }
+
+    /**
+     * Paints the stroke from where it was last painted to the position of e.
+     * @param e
+     * @param layer
+     * @param color
+     * @param lineWidth
+     */
+    private void paintTo(MouseEvent e, RasterLayer layer, Color color, double lineWidth) {
+        layer.paintLine(lastX, lastY, e.getX(), e.getY(), radius(lineWidth), argb(color));
+        lastX = e.getX();
+        lastY = e.getY();
+    }
+
+    /**
+     * Gives the radius of the brush for the line width.
+     * @param lineWidth
+     * @return the brush radius, at least 1.
+     */
+    private static double radius(double lineWidth) {
+        return Math.max(1, lineWidth / 2);
+    }
+
+    /**
+     * Gives color as a packed ARGB int.
+     * @param color
+     * @return the ARGB value of the color.
+     */
+    private static int argb(Color color) {
+        return (int) Math.round(color.getOpacity() * 255) << 24
+                | (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8
+                | (int) Math.round(color.getBlue() * 255);
+    }
+}
@@ -2,17 +2,14 @@ package paint.strategy;
 
 import paint.app.FillStyle;
 import paint.app.PaintModel;
+import paint.log.EventLog;
 import paint.shapes.Circle;
 import paint.shapes.Drawable;
 import paint.shapes.Point;
 import paint.shapes.ShapeFactory;
-import javafx.scene.canvas.Canvas;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.paint.Color;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * CircleStrategy handles teh drawing process for the circles. Using MouseEvent to receive the
  * mouse interaction to draw the drawable shapes based on the mouse interactions.
@@ -22,33 +19,19 @@ public class CircleStrategy implements DrawingStrategy {
      * Circle object that represents the current circle
      */
     private Circle currentCircle;
-    /**
-     * Boolean that is true if the shape is moving, else false.
-     */
-    private boolean isMoving = false;
     /**
      * Boolean that is true if the shape is being dragged by the mouse, else false.
      */
     private boolean isDragging = false;
     /**
-     * Arraylist for all the circles that are being moved.
-     */
-    private final List<Drawable> moving = new ArrayList<>();
-    /**
-     * double object lastX, lastY that represents the position of last click
-     * from the mouse.
+     * MoveEngine that moves the selected shapes when they are dragged.
      */
-    private double lastX, lastY;
+    private final MoveEngine mover = new MoveEngine();
     /**
      * double object pressX, pressY that represents the position of initial click
      * from the mouse.
      */
     private double pressX, pressY;
-    /**
-     * double object totalDX, totalDY represents the change of position from the
-     * initial click to when the mouse is released.
-     */
-    private double totalDX, totalDY;
     /**
      * boolean object that represents if the selection of the shape is cleared
      */
@@ -59,7 +42,6 @@ public class CircleStrategy implements DrawingStrategy {
      */
     private static final double DRAG_THRESHOLD = 3.0;
 
-
     /**
      * Handles the drawing process for drawing circles. When the mouse is first clicked the initial click
      * position is saved and when dragging your mouse the feedback is updated to animate the
@@ -79,33 +61,10 @@ public class CircleStrategy implements DrawingStrategy {
                 pressY = e.getY();
                 isDragging = false;
 
-                Drawable hit = null;
-                List<Drawable> ds = model.getDrawables();
-                for (Drawable selected : model.getSelectedShapes()) {
-                    double[] bounds = selected.getBounds();
-                    double x = bounds[0], y = bounds[1], w = bounds[2], h = bounds[3];
-                    if (e.getX() >= x && e.getX() <= x + w &&
-                            e.getY() >= y && e.getY() <= y + h) {
-                        hit = selected;
-                        break;
-                    }
-                }
-                if (hit == null) {
-                    for (int i = ds.size() - 1; i >= 0; i--) {
-                        if (ds.get(i).contains(e.getX(), e.getY())) {
-                            hit = ds.get(i);
-                            break;
-                        }
-                    }
-                }
+                Drawable hit = mover.hitTest(e, model);
                 if (hit != null) {
                     if (model.getSelectedShapes().contains(hit)) {
-                        isMoving = true;
-                        moving.clear();
-                        moving.addAll(model.getSelectedShapes());
-                        lastX = e.getX();
-                        lastY = e.getY();
-                        totalDX = totalDY = 0.0;
+                        mover.begin(e, model);
                         clearedSelection = false;
                     } else {
                         model.selectShapeAt(e.getX(), e.getY());
@@ -116,7 +75,6 @@ public class CircleStrategy implements DrawingStrategy {
                         model.clearSelection();
                         clearedSelection = true;
                     } else {
-                        isMoving = false;
                         clearedSelection = false;
                         currentCircle = null;
                     }
@@ -128,31 +86,8 @@ public class CircleStrategy implements DrawingStrategy {
                     isDragging = true;
                 }
 
-                if (isMoving) {
-                    Canvas c = (Canvas) e.getSource();
-                    double W = c.getWidth(), H = c.getHeight();
-                    double reqDX = e.getX() - lastX;
-                    double reqDY = e.getY() - lastY;
-                    double minDx = Double.NEGATIVE_INFINITY, maxDx = Double.POSITIVE_INFINITY;
-                    double minDy = Double.NEGATIVE_INFINITY, maxDy = Double.POSITIVE_INFINITY;
-                    for (Drawable d : moving) {
-                        double[] b = d.getBounds();
-                        double x = b[0], y = b[1], w = b[2], h = b[3];
-                        minDx = Math.max(minDx, -x);
-                        maxDx = Math.min(maxDx, W - (x + w));
-                        minDy = Math.max(minDy, -y);
-                        maxDy = Math.min(maxDy, H - (y + h));
-                    }
-                    double dx = Math.max(minDx, Math.min(maxDx, reqDX));
-                    double dy = Math.max(minDy, Math.min(maxDy, reqDY));
-                    for (Drawable d : moving) {
-                        d.offset(dx, dy);
-                    }
-                    model.moveUpdate();
-                    totalDX += dx;
-                    totalDY += dy;
-                    lastX = e.getX();
-                    lastY = e.getY();
+                if (mover.isMoving()) {
+                    mover.drag(e, model);
                 } else if (!clearedSelection && isDragging) {
                     if (currentCircle == null) {
                         currentCircle = (Circle) ShapeFactory.createShape("circle", color, lineWidth, fillStyle,
@@ -166,14 +101,8 @@ public class CircleStrategy implements DrawingStrategy {
                 }
             }
             case "MOUSE_RELEASED" -> {
-                if (isMoving) {
-                    if (Math.abs(totalDX) > 0.1 || Math.abs(totalDY) > 0.1) {
-                        for (Drawable d : moving) d.offset(-totalDX, -totalDY);
-                        model.moveUpdate();
-                        model.moveSelectedBy(totalDX, totalDY);
-                    }
-                    moving.clear();
-                    isMoving = false;
+                if (mover.isMoving()) {
+                    mover.release(model);
                 } else if (currentCircle != null && isDragging) {
                     double dx = Math.abs(e.getX() - currentCircle.getCentre().getX());
                     double dy = Math.abs(e.getY() - currentCircle.getCentre().getY());
@@ -181,7 +110,7 @@ public class CircleStrategy implements DrawingStrategy {
                     currentCircle.setRadius(radius);
                     model.addDrawableWithCommand(currentCircle);
                     currentCircle = null;
-                    System.out.println("Added circle");
+                    EventLog.debug("Added circle");
                 }
                 model.clearCurrentDrawable();
                 clearedSelection = false;
@@ -0,0 +1,33 @@
+package paint.strategy;
+
+import paint.app.PaintPanel;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.input.MouseEvent;
+
+/**
+ * DragArea gives the area, in document coordinates, that shapes being moved by the mouse
+ * are kept inside of.
+ */
+final class DragArea {
+
+    private DragArea() {
+    }
+
+    /**
+     * Gives the area shapes dragged by the mouse event e must stay within. This is the
+     * visible part of the document for the paint panel, the whole canvas for any other
+     * canvas, and unbounded for events without a canvas source.
+     * @param e
+     * @return the area {x, y, width, height} in document coordinates.
+     */
+    static double[] of(MouseEvent e) {
+        if (e.getSource() instanceof PaintPanel panel) {
+            return panel.getVisibleBounds();
+        }
+        if (e.getSource() instanceof Canvas c) {
+            return new double[]{0, 0, c.getWidth(), c.getHeight()};
+        }
+        return new double[]{-Double.MAX_VALUE / 2, -Double.MAX_VALUE / 2,
+                Double.MAX_VALUE, Double.MAX_VALUE};
+    }
+}
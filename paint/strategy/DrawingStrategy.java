@@ -5,6 +5,8 @@ import paint.app.PaintModel;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.paint.Color;
 
+import java.util.List;
+
 /**
  * DrawingStrategy interface handles the drawing process of drawable shapes.
  * Using MouseEvent to receive the mouse interaction to draw the drawable shapes
@@ -20,4 +22,20 @@ public interface DrawingStrategy {
      * @param fillStyle
      */
     void handle(MouseEvent e, PaintModel model, Color color, double lineWidth, FillStyle fillStyle);
+
+    /**
+     * Handles the drag events that arrived between two frames, in order. By default each
+     * event is handled on its own; strategies that can take many samples at once override this.
+     * @param events
+     * @param model
+     * @param color
+     * @param lineWidth
+     * @param fillStyle
+     */
+    default void handleBatch(List<MouseEvent> events, PaintModel model, Color color, double lineWidth,
+                             FillStyle fillStyle) {
+        for (MouseEvent e : events) {
+            handle(e, model, color, lineWidth, fillStyle);
+        }
+    }
 }
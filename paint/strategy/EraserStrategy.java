@@ -0,0 +1,124 @@
+package paint.strategy;
+
+import paint.app.FillStyle;
+import paint.app.PaintModel;
+import paint.log.EventLog;
+import paint.shapes.Drawable;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+import java.util.List;
+
+/**
+ * EraserStrategy handles erasing parts of squiggles and polylines. Using MouseEvent to
+ * receive the mouse interaction, the parts of the strokes the mouse passes over are erased,
+ * splitting the strokes into the pieces that are left. Each drag is undone as one.
+ */
+public class EraserStrategy implements DrawingStrategy {
+    /**
+     * MoveEngine that moves the selected shapes when they are dragged.
+     */
+    private final MoveEngine mover = new MoveEngine();
+    /**
+     * Object that represents the drag being erased with, null when not erasing.
+     */
+    private Object gesture = null;
+    /**
+     * double object lastX, lastY that represents where the eraser last was.
+     */
+    private double lastX, lastY;
+    /**
+     * int object that represents the number of shapes erased during the drag.
+     */
+    private int erased;
+
+    /**
+     * Handles erasing. When the mouse is first clicked the strokes under it are erased, while
+     * dragging the strokes along the mouse's path are erased, and when the mouse is released
+     * the drag becomes one undoable edit.
+     * @param e
+     * @param model
+     * @param color
+     * @param lineWidth
+     * @param fillStyle
+     */
+    @Override
+    public void handle(MouseEvent e, PaintModel model, Color color, double lineWidth, FillStyle fillStyle) {
+        switch (e.getEventType().getName()) {
+            case "MOUSE_PRESSED" -> {
+                Drawable hit = mover.hitTest(e, model);
+                if (hit != null && model.getSelectedShapes().contains(hit)) {
+                    mover.begin(e, model);
+                } else if (!model.getSelectedShapes().isEmpty()) {
+                    model.clearSelection();
+                } else {
+                    gesture = new Object();
+                    lastX = e.getX();
+                    lastY = e.getY();
+                    erased = model.erase(new double[]{lastX}, new double[]{lastY}, radius(lineWidth), gesture);
+                }
+            }
+            case "MOUSE_DRAGGED" -> {
+                if (mover.isMoving()) {
+                    mover.drag(e, model);
+                } else if (gesture != null) {
+                    eraseTo(List.of(e), model, lineWidth);
+                }
+            }
+            case "MOUSE_RELEASED" -> {
+                if (mover.isMoving()) {
+                    mover.release(model);
+                } else if (gesture != null) {
+                    gesture = null;
+                    EventLog.debug("Erased shapes: ", erased);
+                }
+            }
+        }
+    }
+
+    /**
+     * Handles the drag events that arrived between two frames. While erasing, the path
+     * through every sample is erased at once; otherwise each event is handled on its own.
+     * @param events
+     * @param model
+     * @param color
+     * @param lineWidth
+     * @param fillStyle
+     */
+    @Override
+    public void handleBatch(List<MouseEvent> events, PaintModel model, Color color, double lineWidth,
+                            FillStyle fillStyle) {
+        if (mover.isMoving() || gesture == null) {
+            DrawingStrategy.super.handleBatch(events, model, color, lineWidth, fillStyle);
+            return;
+        }
+        eraseTo(events, model, lineWidth);
+    }
+
+    /**
+     * Erases along the path from where the eraser last was through the positions of events.
+     * @param events
+     * @param model
+     * @param lineWidth
+     */
+    private void eraseTo(List<MouseEvent> events, PaintModel model, double lineWidth) {
+        double[] xs = new double[events.size() + 1], ys = new double[events.size() + 1];
+        xs[0] = lastX;
+        ys[0] = lastY;
+        for (int i = 0; i < events.size(); i++) {
+            xs[i + 1] = events.get(i).getX();
+            ys[i + 1] = events.get(i).getY();
+        }
+        lastX = xs[events.size()];
+        lastY = ys[events.size()];
+        erased += model.erase(xs, ys, radius(lineWidth), gesture);
+    }
+
+    /**
+     * Gives the radius of the eraser for the line width.
+     * @param lineWidth
+     * @return the eraser radius, at least 4.
+     */
+    private static double radius(double lineWidth) {
+        return Math.max(4, lineWidth);
+    }
+}
@@ -0,0 +1,61 @@
+package paint.strategy;
+
+import paint.app.FillStyle;
+import paint.app.PaintModel;
+import paint.log.EventLog;
+import paint.shapes.Drawable;
+import paint.shapes.FillRegion;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+
+/**
+ * FillStrategy handles the bucket fill. Using MouseEvent to receive the mouse interaction,
+ * a click fills the area the shapes enclose around the mouse with the drawing color.
+ */
+public class FillStrategy implements DrawingStrategy {
+    /**
+     * MoveEngine that moves the selected shapes when they are dragged.
+     */
+    private final MoveEngine mover = new MoveEngine();
+
+    /**
+     * Handles the bucket fill. When the mouse is clicked on a selected shape it is moved as
+     * with the other tools, clicking elsewhere while shapes are selected clears the selection,
+     * and otherwise the area enclosed around the mouse is filled.
+     * @param e
+     * @param model
+     * @param color
+     * @param lineWidth
+     * @param fillStyle
+     */
+    @Override
+    public void handle(MouseEvent e, PaintModel model, Color color, double lineWidth, FillStyle fillStyle) {
+        switch (e.getEventType().getName()) {
+            case "MOUSE_PRESSED" -> {
+                Drawable hit = mover.hitTest(e, model);
+                if (hit != null && model.getSelectedShapes().contains(hit)) {
+                    mover.begin(e, model);
+                } else if (!model.getSelectedShapes().isEmpty()) {
+                    model.clearSelection();
+                } else {
+                    FillRegion region = model.fillAt(e.getX(), e.getY(), color);
+                    if (region == null) {
+                        EventLog.debug("Nothing to fill: the point is on a shape or not enclosed");
+                    } else {
+                        EventLog.info("Filled region, runs: ", region.getRunCount());
+                    }
+                }
+            }
+            case "MOUSE_DRAGGED" -> {
+                if (mover.isMoving()) {
+                    mover.drag(e, model);
+                }
+            }
+            case "MOUSE_RELEASED" -> {
+                if (mover.isMoving()) {
+                    mover.release(model);
+                }
+            }
+        }
+    }
+}
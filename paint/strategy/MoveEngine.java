@@ -0,0 +1,126 @@
+package paint.strategy;
+
+import paint.app.PaintModel;
+import paint.shapes.Drawable;
+import javafx.scene.input.MouseEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MoveEngine moves the selected shapes when they are dragged with the mouse, for every
+ * drawing strategy. The shapes that can be moved and how far are worked out once when the
+ * mouse is pressed, from the union of the shapes' bounds; while dragging the model only
+ * draws the shapes translated, and one Move command is committed when the mouse is released.
+ * So each drag event costs the same however many shapes are selected.
+ */
+final class MoveEngine {
+    /**
+     * Boolean that is true if the selected shapes are being moved, else false.
+     */
+    private boolean moving = false;
+    /**
+     * double object startX, startY that represents the position the mouse was pressed at.
+     */
+    private double startX, startY;
+    /**
+     * double object minDX, maxDX, minDY, maxDY that represents how far the shapes may be
+     * moved before they leave the drag area.
+     */
+    private double minDX, maxDX, minDY, maxDY;
+    /**
+     * double object dx, dy that represents how far the shapes have been moved so far.
+     */
+    private double dx, dy;
+
+    /**
+     * Gives the shape under the mouse event e, preferring the selected shapes, which are hit
+     * anywhere inside their bounds, then the topmost shape that contains the point.
+     * @param e
+     * @param model
+     * @return the shape under the mouse, or null if there is none.
+     */
+    Drawable hitTest(MouseEvent e, PaintModel model) {
+        for (Drawable selected : model.getSelectedShapes()) {
+            double[] bounds = selected.getBounds();
+            double x = bounds[0], y = bounds[1], w = bounds[2], h = bounds[3];
+            if (e.getX() >= x && e.getX() <= x + w &&
+                    e.getY() >= y && e.getY() <= y + h) {
+                return selected;
+            }
+        }
+        return model.getShapeAt(e.getX(), e.getY());
+    }
+
+    /**
+     * Starts moving the selected shapes of model from the position of the mouse event e.
+     * @param e
+     * @param model
+     */
+    void begin(MouseEvent e, PaintModel model) {
+        List<Drawable> selected = model.getSelectedShapes();
+        double[] area = DragArea.of(e);
+        double left = Double.POSITIVE_INFINITY, top = Double.POSITIVE_INFINITY;
+        double right = Double.NEGATIVE_INFINITY, bottom = Double.NEGATIVE_INFINITY;
+        for (Drawable d : selected) {
+            double[] b = d.getBounds();
+            left = Math.min(left, b[0]);
+            top = Math.min(top, b[1]);
+            right = Math.max(right, b[0] + b[2]);
+            bottom = Math.max(bottom, b[1] + b[3]);
+        }
+        minDX = Math.min(0, area[0] - left);
+        maxDX = Math.max(0, area[0] + area[2] - right);
+        minDY = Math.min(0, area[1] - top);
+        maxDY = Math.max(0, area[1] + area[3] - bottom);
+        startX = e.getX();
+        startY = e.getY();
+        dx = dy = 0.0;
+        moving = true;
+        model.beginMovePreview(new ArrayList<>(selected));
+    }
+
+    /**
+     * RETURNS true if the selected shapes are being moved.
+     * @return the moving attribute
+     */
+    boolean isMoving() {
+        return moving;
+    }
+
+    /**
+     * Moves the shapes to follow the mouse event e, kept inside the drag area.
+     * @param e
+     * @param model
+     */
+    void drag(MouseEvent e, PaintModel model) {
+        if (!moving) {
+            return;
+        }
+        double newDX = Math.max(minDX, Math.min(maxDX, e.getX() - startX));
+        double newDY = Math.max(minDY, Math.min(maxDY, e.getY() - startY));
+        if (newDX != dx || newDY != dy) {
+            dx = newDX;
+            dy = newDY;
+            model.setMovePreviewOffset(dx, dy);
+        }
+    }
+
+    /**
+     * Finishes moving the shapes, committing the move as one undoable Move command if
+     * they were moved at all.
+     * @param model
+     */
+    void release(PaintModel model) {
+        if (!moving) {
+            return;
+        }
+        moving = false;
+        model.endMovePreview();
+        if (Math.abs(dx) > 0.1 || Math.abs(dy) > 0.1) {
+            model.moveSelectedBy(dx, dy);
+        } else {
+            model.moveUpdate();
+        }
+    }
+}
@@ -2,11 +2,12 @@ package paint.strategy;
 
 import paint.app.FillStyle;
 import paint.app.PaintModel;
+import paint.app.PaintPanel;
+import paint.log.EventLog;
 import paint.shapes.Drawable;
 import paint.shapes.Point;
 import paint.shapes.ShapeFactory;
 import paint.shapes.Squiggle;
-import javafx.scene.canvas.Canvas;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.paint.Color;
 import java.util.List;
@@ -18,27 +19,18 @@ import java.util.List;
  */
 public class SquiggleStrategy implements DrawingStrategy {
     /**
-     * Squiggle object that represents the current squiggle shape.
-     */
-    private Squiggle currentSquiggle = null;
-    /**
-     * Boolean that is true if the shape is being dragged by the mouse, else false.
+     * double object that represents how far, in screen pixels, the curves a finished squiggle
+     * is fitted to may stray from the points it was drawn with.
      */
-    private boolean isMoving = false;
+    private static final double FIT_TOLERANCE = 1.0;
     /**
-     * Arraylist for all the squiggles that are being moved.
-     */
-    private final List<Drawable> moving = new java.util.ArrayList<>();
-    /**
-     * double object lastX, lastY that represents the position of last click
-     * from the mouse.
+     * Squiggle object that represents the current squiggle shape.
      */
-    private double lastX, lastY;
+    private Squiggle currentSquiggle = null;
     /**
-     * double object totalDX, totalDY represents the change of position from the
-     * initial click to when the mouse is released.
+     * MoveEngine that moves the selected shapes when they are dragged.
      */
-    private double totalDX, totalDY;
+    private final MoveEngine mover = new MoveEngine();
     /**
      * boolean object that represents if the selection of the shape is cleared
      */
@@ -47,8 +39,8 @@ public class SquiggleStrategy implements DrawingStrategy {
     /**
      * Handles the drawing process for drawing squiggles. When the mouse is first clicked the initial click
      * position is saved and when dragging your mouse the feedback is updated to animate the
-     * shape being dragged. Then, when the mouse is released the squiggle is finalized, the squiggle is
-     * added to the program screen.
+     * shape being dragged. Then, when the mouse is released the squiggle is finalized, fitted to
+     * curves and added to the program screen.
      * @param e
      * @param model
      * @param color
@@ -59,32 +51,9 @@ public class SquiggleStrategy implements DrawingStrategy {
     public void handle(MouseEvent e, PaintModel model, Color color, double lineWidth, FillStyle fillStyle) {
         switch (e.getEventType().getName()) {
             case "MOUSE_PRESSED" -> {
-                Drawable hit = null;
-                List<Drawable> ds = model.getDrawables();
-                for (Drawable selected : model.getSelectedShapes()) {
-                    double[] bounds = selected.getBounds();
-                    double x = bounds[0], y = bounds[1], w = bounds[2], h = bounds[3];
-                    if (e.getX() >= x && e.getX() <= x + w &&
-                            e.getY() >= y && e.getY() <= y + h) {
-                        hit = selected;
-                        break;
-                    }
-                }
-                if (hit == null) {
-                    for (int i = ds.size() - 1; i >= 0; i--) {
-                        if (ds.get(i).contains(e.getX(), e.getY())) {
-                            hit = ds.get(i);
-                            break;
-                        }
-                    }
-                }
+                Drawable hit = mover.hitTest(e, model);
                 if (hit != null && model.getSelectedShapes().contains(hit)) {
-                    isMoving = true;
-                    moving.clear();
-                    moving.addAll(model.getSelectedShapes());
-                    lastX = e.getX();
-                    lastY = e.getY();
-                    totalDX = totalDY = 0.0;
+                    mover.begin(e, model);
                     clearedSelection = false;
                 } else {
                     if (!model.getSelectedShapes().isEmpty()) {
@@ -92,7 +61,6 @@ public class SquiggleStrategy implements DrawingStrategy {
                         clearedSelection = true;
                         currentSquiggle = null;
                     } else {
-                        isMoving = false;
                         clearedSelection = false;
                         currentSquiggle = (Squiggle) ShapeFactory.createShape("squiggle", color, lineWidth, fillStyle,
                                 new Point[]{new Point(e.getX(), e.getY(), color)});
@@ -102,53 +70,62 @@ public class SquiggleStrategy implements DrawingStrategy {
                 }
             }
             case "MOUSE_DRAGGED" -> {
-                if (isMoving) {
-                    Canvas c = (Canvas) e.getSource();
-                    double W = c.getWidth(), H = c.getHeight();
-                    double reqDX = e.getX() - lastX;
-                    double reqDY = e.getY() - lastY;
-                    double minDx = Double.NEGATIVE_INFINITY, maxDx = Double.POSITIVE_INFINITY;
-                    double minDy = Double.NEGATIVE_INFINITY, maxDy = Double.POSITIVE_INFINITY;
-                    for (Drawable d : moving) {
-                        double[] b = d.getBounds();
-                        double x = b[0], y = b[1], w = b[2], h = b[3];
-                        minDx = Math.max(minDx, -x);
-                        maxDx = Math.min(maxDx, W - (x + w));
-                        minDy = Math.max(minDy, -y);
-                        maxDy = Math.min(maxDy, H - (y + h));
-                    }
-                    double dx = Math.max(minDx, Math.min(maxDx, reqDX));
-                    double dy = Math.max(minDy, Math.min(maxDy, reqDY));
-                    for (Drawable d : moving) {
-                        d.offset(dx, dy);
-                    }
-                    model.moveUpdate();
-                    totalDX += dx;
-                    totalDY += dy;
-                    lastX = e.getX();
-                    lastY = e.getY();
+                if (mover.isMoving()) {
+                    mover.drag(e, model);
                 } else if (!clearedSelection && currentSquiggle != null) {
                     currentSquiggle.addPoint(new Point(e.getX(), e.getY(), color));
-                    model.setCurrentDrawable(currentSquiggle);
+                    model.currentDrawableGrown();
                 }
             }
             case "MOUSE_RELEASED" -> {
-                if (isMoving) {
-                    if (Math.abs(totalDX) > 0.1 || Math.abs(totalDY) > 0.1) {
-                        for (Drawable d : moving) d.offset(-totalDX, -totalDY);
-                        model.moveUpdate();
-                        model.moveSelectedBy(totalDX, totalDY);
-                    }
-                    moving.clear();
-                    isMoving = false;
+                if (mover.isMoving()) {
+                    mover.release(model);
                 } else if (!clearedSelection && currentSquiggle != null) {
-                    model.addDrawableWithCommandNoSelect(currentSquiggle);
+                    model.addDrawableWithCommandNoSelect(currentSquiggle.fit(fitTolerance(e)));
                     model.clearCurrentDrawable();
                     currentSquiggle = null;
-                    System.out.println("Added squiggle");
+                    EventLog.debug("Added squiggle");
                 }
                 clearedSelection = false;
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Handles the drag events that arrived between two frames. While drawing, every sample
+     * is added to the squiggle and the observers are told once that it grew; otherwise each event is
+     * handled on its own.
+     * @param events
+     * @param model
+     * @param color
+     * @param lineWidth
+     * @param fillStyle
+     */
+    @Override
+    public void handleBatch(List<MouseEvent> events, PaintModel model, Color color, double lineWidth,
+                            FillStyle fillStyle) {
+        if (mover.isMoving() || clearedSelection || currentSquiggle == null) {
+            DrawingStrategy.super.handleBatch(events, model, color, lineWidth, fillStyle);
+            return;
+        }
+        for (MouseEvent e : events) {
+            currentSquiggle.addPoint(new Point(e.getX(), e.getY(), color));
+        }
+        model.currentDrawableGrown();
+    }
+
+    /**
+     * Gives how far, in document units, the curves of a squiggle finished by the mouse event e
+     * may stray from its points: FIT_TOLERANCE screen pixels at the zoom of the paint panel,
+     * so a squiggle drawn zoomed in keeps its shape, or FIT_TOLERANCE document units for
+     * events from anywhere else.
+     * @param e
+     * @return the fitting tolerance in document units.
+     */
+    private static double fitTolerance(MouseEvent e) {
+        if (e.getSource() instanceof PaintPanel panel) {
+            return FIT_TOLERANCE / panel.getViewport().getScale();
+        }
+        return FIT_TOLERANCE;
+    }
+}
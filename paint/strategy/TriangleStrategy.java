@@ -2,12 +2,12 @@ package paint.strategy;
 
 import paint.app.FillStyle;
 import paint.app.PaintModel;
+import paint.log.EventLog;
+import paint.render.DrawingSurface;
 import paint.shapes.Drawable;
 import paint.shapes.Point;
 import paint.shapes.ShapeFactory;
 import paint.shapes.Triangle;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.paint.Color;
 
@@ -20,23 +20,9 @@ public class TriangleStrategy implements DrawingStrategy {
      */
     private final ArrayList<Point> points = new ArrayList<>();
     /**
-     * Boolean that is true if the shape is being dragged by the mouse, else false.
+     * MoveEngine that moves the selected shapes when they are dragged.
      */
-    private boolean isMoving = false;
-    /**
-     * Arraylist for all the triangles that are being moved.
-     */
-    private final List<Drawable> moving = new ArrayList<>();
-    /**
-     * double object lastX, lastY that represents the position of last click
-     * from the mouse.
-     */
-    private double lastX, lastY;
-    /**
-     * double object totalDX, totalDY represents the change of position from the
-     * initial click to when the mouse is released.
-     */
-    private double totalDX, totalDY;
+    private final MoveEngine mover = new MoveEngine();
     /**
      * boolean object that represents if the selection of the shape is cleared
      */
@@ -57,33 +43,10 @@ public class TriangleStrategy implements DrawingStrategy {
     public void handle(MouseEvent e, PaintModel model, Color color, double lineWidth, FillStyle fillStyle) {
         if (e.getEventType() == MouseEvent.MOUSE_PRESSED) {
             if (points.isEmpty()) {
-                Drawable hit = null;
-                List<Drawable> ds = model.getDrawables();
-                for (Drawable selected : model.getSelectedShapes()) {
-                    double[] bounds = selected.getBounds();
-                    double x = bounds[0], y = bounds[1], w = bounds[2], h = bounds[3];
-                    if (e.getX() >= x && e.getX() <= x + w &&
-                            e.getY() >= y && e.getY() <= y + h) {
-                        hit = selected;
-                        break;
-                    }
-                }
-                if (hit == null) {
-                    for (int i = ds.size() - 1; i >= 0; i--) {
-                        if (ds.get(i).contains(e.getX(), e.getY())) {
-                            hit = ds.get(i);
-                            break;
-                        }
-                    }
-                }
+                Drawable hit = mover.hitTest(e, model);
                 if (hit != null) {
                     if (model.getSelectedShapes().contains(hit)) {
-                        isMoving = true;
-                        moving.clear();
-                        moving.addAll(model.getSelectedShapes());
-                        lastX = e.getX();
-                        lastY = e.getY();
-                        totalDX = totalDY = 0.0;
+                        mover.begin(e, model);
                         clearedSelection = false;
                         return;
                     } else {
@@ -99,7 +62,7 @@ public class TriangleStrategy implements DrawingStrategy {
                     }
                 }
             }
-            if (!isMoving && !clearedSelection) {
+            if (!mover.isMoving() && !clearedSelection) {
                 double x = e.getX();
                 double y = e.getY();
                 points.add(new Point(x, y));
@@ -107,7 +70,7 @@ public class TriangleStrategy implements DrawingStrategy {
                     private final List<Point> previewPoints = new ArrayList<>(points);
 
                     @Override
-                    public void draw(GraphicsContext gc) {
+                    public void draw(DrawingSurface gc) {
                         gc.setFill(color);
                         for (Point p : previewPoints) {
                             gc.fillOval(p.getX() - 3, p.getY() - 3, 6, 6);
@@ -143,6 +106,11 @@ public class TriangleStrategy implements DrawingStrategy {
                         return new double[]{0, 0, 0, 0};
                     }
 
+                    @Override
+                    public Color getColor() {
+                        return color;
+                    }
+
                     @Override
                     public void setColor(Color color) {
                     }
@@ -165,45 +133,16 @@ public class TriangleStrategy implements DrawingStrategy {
                             new Point[]{points.get(0), points.get(1), points.get(2)});
                     model.addDrawableWithCommand(t);
                     points.clear();
-                    System.out.println("Added triangle");
+                    EventLog.debug("Added triangle");
                 }
             }
         } else if (e.getEventType() == MouseEvent.MOUSE_DRAGGED) {
-            if (isMoving) {
-                Canvas c = (Canvas) e.getSource();
-                double W = c.getWidth(), H = c.getHeight();
-                double reqDX = e.getX() - lastX;
-                double reqDY = e.getY() - lastY;
-                double minDx = Double.NEGATIVE_INFINITY, maxDx = Double.POSITIVE_INFINITY;
-                double minDy = Double.NEGATIVE_INFINITY, maxDy = Double.POSITIVE_INFINITY;
-                for (Drawable d : moving) {
-                    double[] b = d.getBounds();
-                    double x = b[0], y = b[1], w = b[2], h = b[3];
-                    minDx = Math.max(minDx, -x);
-                    maxDx = Math.min(maxDx, W - (x + w));
-                    minDy = Math.max(minDy, -y);
-                    maxDy = Math.min(maxDy, H - (y + h));
-                }
-                double dx = Math.max(minDx, Math.min(maxDx, reqDX));
-                double dy = Math.max(minDy, Math.min(maxDy, reqDY));
-                for (Drawable d : moving) {
-                    d.offset(dx, dy);
-                }
-                model.moveUpdate();
-                totalDX += dx;
-                totalDY += dy;
-                lastX = e.getX();
-                lastY = e.getY();
+            if (mover.isMoving()) {
+                mover.drag(e, model);
             }
         } else if (e.getEventType() == MouseEvent.MOUSE_RELEASED) {
-            if (isMoving) {
-                if (Math.abs(totalDX) > 0.1 || Math.abs(totalDY) > 0.1) {
-                    for (Drawable d : moving) d.offset(-totalDX, -totalDY);
-                    model.moveUpdate();
-                    model.moveSelectedBy(totalDX, totalDY);
-                }
-                moving.clear();
-                isMoving = false;
+            if (mover.isMoving()) {
+                mover.release(model);
             }
             clearedSelection = false;
         }
@@ -3,9 +3,16 @@ package ca.utoronto.utm.assignment2.scribble;
 import javafx.application.Application;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
+import java.io.File;
+import java.io.IOException;
+
 public class Scribble extends Application {
 
     @Override
@@ -32,6 +39,28 @@ public class Scribble extends Application {
         root.setPadding(new Insets(5));
         root.getChildren().add(scribblePanel);
 
+        Button clear = new Button("Clear");
+        clear.setOnAction(e -> scribblePanel.clear());
+        Button save = new Button("Save");
+        save.setOnAction(e -> {
+            FileChooser fc = new FileChooser();
+            fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("PNG Files", "*.png"));
+            File file = fc.showSaveDialog(stage);
+            if (file != null) {
+                try {
+                    scribblePanel.save(file);
+                } catch (IOException ex) {
+                    Alert a = new Alert(Alert.AlertType.ERROR);
+                    a.setTitle("Error while saving");
+                    a.setHeaderText(null);
+                    a.setContentText("The scribble could not be saved:\n" + ex.getMessage());
+                    a.showAndWait();
+                    ex.printStackTrace();
+                }
+            }
+        });
+        root.getChildren().add(new VBox(5, clear, save)); // CONTROLS
+
         Scene scene = new Scene(root); // SCENE
 
         stage.setTitle("Scribble");
@@ -1,23 +1,137 @@
 package ca.utoronto.utm.assignment2.scribble;
 
+import javafx.animation.AnimationTimer;
 import javafx.event.EventHandler;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
 import javafx.scene.input.MouseEvent;
-import javafx.scene.paint.Color;
 
-public class ScribblePanel extends Canvas implements EventHandler<MouseEvent> {
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A scribble surface backed by an int[] of ARGB pixels. Drawing only writes into the array
+ * and grows a dirty rectangle; once per frame the dirty rectangle is copied to the
+ * WritableImage on screen, so however many dots arrive in a frame it costs one upload.
+ */
+public class ScribblePanel extends ImageView implements EventHandler<MouseEvent> {
+    private static final int RED = 0xFFFF0000;
+
+    private final int width, height;
+    private final int[] pixels;
+    private final WritableImage image;
+    private final PixelWriter writer;
+    private int dirtyMinX, dirtyMinY, dirtyMaxX, dirtyMaxY;
+    private boolean dirty = false;
+
+    private final AnimationTimer uploader = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            upload();
+        }
+    };
+
     public ScribblePanel() {
-        super(200, 200);
+        this(200, 200);
+    }
+
+    public ScribblePanel(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+        this.image = new WritableImage(width, height);
+        this.writer = image.getPixelWriter();
+        this.setImage(image);
         this.addEventHandler(MouseEvent.MOUSE_MOVED, this);
     }
 
     @Override
     public void handle(MouseEvent mouseEvent) {
-        GraphicsContext gc = this.getGraphicsContext2D();
-        double x = mouseEvent.getX();
-        double y = mouseEvent.getY();
-        gc.setFill(Color.RED);
-        gc.fillRect(x, y, 1, 1);
+        setPixel((int) mouseEvent.getX(), (int) mouseEvent.getY(), RED);
+    }
+
+    /**
+     * Sets the pixel at (x, y) to the ARGB colour argb; points outside the surface are ignored.
+     * @param x
+     * @param y
+     * @param argb
+     */
+    public void setPixel(int x, int y, int argb) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return;
+        }
+        pixels[y * width + x] = argb;
+        markDirty(x, y, x, y);
+    }
+
+    /**
+     * Clears the surface to transparent.
+     */
+    public void clear() {
+        Arrays.fill(pixels, 0);
+        markDirty(0, 0, width - 1, height - 1);
+    }
+
+    /**
+     * Writes the surface to file as a PNG, straight from the pixel buffer.
+     * @param file
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(File file) throws IOException {
+        BufferedImage out = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        out.setRGB(0, 0, width, height, pixels, 0, width);
+        ImageIO.write(out, "png", file);
+    }
+
+    /**
+     * Gives the pixel buffer, one ARGB int per pixel, row by row. Callers that change it
+     * must call markDirty for the area they changed.
+     * @return the pixel buffer.
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    /**
+     * Adds the rectangle from (x1, y1) to (x2, y2), inclusive, to the area uploaded next frame.
+     * @param x1
+     * @param y1
+     * @param x2
+     * @param y2
+     */
+    public void markDirty(int x1, int y1, int x2, int y2) {
+        if (!dirty) {
+            dirtyMinX = x1;
+            dirtyMinY = y1;
+            dirtyMaxX = x2;
+            dirtyMaxY = y2;
+            dirty = true;
+            uploader.start();
+            return;
+        }
+        dirtyMinX = Math.min(dirtyMinX, x1);
+        dirtyMinY = Math.min(dirtyMinY, y1);
+        dirtyMaxX = Math.max(dirtyMaxX, x2);
+        dirtyMaxY = Math.max(dirtyMaxY, y2);
+    }
+
+    /**
+     * Copies the dirty rectangle of the buffer to the image on screen.
+     */
+    private void upload() {
+        uploader.stop();
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        int w = dirtyMaxX - dirtyMinX + 1;
+        int h = dirtyMaxY - dirtyMinY + 1;
+        writer.setPixels(dirtyMinX, dirtyMinY, w, h, PixelFormat.getIntArgbInstance(),
+                pixels, dirtyMinY * width + dirtyMinX, width);
     }
 }
@@ -0,0 +1,171 @@
+package paint.app;
+
+import paint.shapes.Drawable;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The queries of a PrimitiveStore run over as many rows at a time as the CPU's vector
+ * registers hold doubles, using the jdk.incubator.vector API. A click first tests a block's
+ * bounds, grown by PrimitiveStore.slack, and skips the block if the point is in none of them
+ * and none of its rows is of another kind, which is the case for most blocks. Otherwise
+ * every kind's test is worked out for every row of the block and the results are picked by
+ * each row's kind, so no row takes a branch of its own. Rows left over at the end of a range
+ * are tested one at a time.
+ * The vector tests of rectangles, squares, ovals and triangles are the same operations, in
+ * the same order, as their contains methods. Circles are tested against a slightly grown
+ * squared radius and every other shape is taken as a hit, so the rows a block finds are only
+ * candidates: each is checked with PrimitiveStore.contains before it is returned.
+ * The jdk.incubator.vector module is only there when it is added on the command line, so this
+ * class is kept out of the main sources; PrimitiveStore loads it by name when the module is
+ * present.
+ */
+final class PrimitiveKernels implements PrimitiveStore.Kernels {
+    /**
+     * VectorSpecies object that represents the widest vector of doubles the CPU handles well.
+     */
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Gives the highest index from lo up to hi whose shape contains the point (x, y),
+     * testing blocks from the top down.
+     * @param store
+     * @param document
+     * @param x
+     * @param y
+     * @param lo
+     * @param hi
+     * @return the index of the shape, or -1 if none of them contains the point.
+     */
+    @Override
+    public int topmostAt(PrimitiveStore store, Document document, double x, double y, int lo, int hi) {
+        int lanes = SPECIES.length();
+        double slack = PrimitiveStore.slack(x, y);
+        int i = hi;
+        while (i - lanes >= lo) {
+            i -= lanes;
+            long candidates = candidates(store.columns, i, x, y, slack);
+            while (candidates != 0) {
+                int lane = 63 - Long.numberOfLeadingZeros(candidates);
+                if (store.contains(document, i + lane, x, y)) {
+                    return i + lane;
+                }
+                candidates &= ~(1L << lane);
+            }
+        }
+        for (int j = i - 1; j >= lo; j--) {
+            if (store.contains(document, j, x, y)) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gives, as a bit per lane, the rows of the block starting at index i whose shapes may
+     * contain the point (x, y).
+     * @param c
+     * @param i
+     * @param x
+     * @param y
+     * @param slack how far outside its bounds a shape is still tested.
+     * @return the candidate lanes.
+     */
+    private static long candidates(PrimitiveStore.Columns c, int i, double x, double y, double slack) {
+        DoubleVector kind = DoubleVector.fromArray(SPECIES, c.kind, i);
+        DoubleVector minX = DoubleVector.fromArray(SPECIES, c.minX, i);
+        DoubleVector minY = DoubleVector.fromArray(SPECIES, c.minY, i);
+        DoubleVector maxX = DoubleVector.fromArray(SPECIES, c.maxX, i);
+        DoubleVector maxY = DoubleVector.fromArray(SPECIES, c.maxY, i);
+        VectorMask<Double> other = kind.compare(VectorOperators.EQ, PrimitiveStore.OTHER);
+        VectorMask<Double> near = minX.compare(VectorOperators.LE, x + slack)
+                .and(maxX.compare(VectorOperators.GE, x - slack))
+                .and(minY.compare(VectorOperators.LE, y + slack))
+                .and(maxY.compare(VectorOperators.GE, y - slack));
+        if (!near.anyTrue()) {
+            return other.toLong();
+        }
+        double[][] g = c.geometry;
+        DoubleVector px = DoubleVector.broadcast(SPECIES, x);
+        DoubleVector py = DoubleVector.broadcast(SPECIES, y);
+        VectorMask<Double> box = px.compare(VectorOperators.GE, minX)
+                .and(px.compare(VectorOperators.LE, maxX))
+                .and(py.compare(VectorOperators.GE, minY))
+                .and(py.compare(VectorOperators.LE, maxY));
+        VectorMask<Double> hits = box.and(kind.compare(VectorOperators.EQ, PrimitiveStore.BOX)).or(other);
+
+        DoubleVector g0 = DoubleVector.fromArray(SPECIES, g[0], i);
+        DoubleVector g1 = DoubleVector.fromArray(SPECIES, g[1], i);
+        DoubleVector g2 = DoubleVector.fromArray(SPECIES, g[2], i);
+        DoubleVector g3 = DoubleVector.fromArray(SPECIES, g[3], i);
+        DoubleVector dx = px.sub(g0);
+        DoubleVector dy = py.sub(g1);
+
+        DoubleVector nX = dx.div(g2);
+        DoubleVector nY = dy.div(g3);
+        hits = hits.or(nX.mul(nX).add(nY.mul(nY)).compare(VectorOperators.LE, 1)
+                .and(kind.compare(VectorOperators.EQ, PrimitiveStore.OVAL)));
+
+        hits = hits.or(dx.mul(dx).add(dy.mul(dy)).compare(VectorOperators.LE, g3)
+                .and(kind.compare(VectorOperators.EQ, PrimitiveStore.CIRCLE)));
+
+        VectorMask<Double> triangle = kind.compare(VectorOperators.EQ, PrimitiveStore.TRIANGLE);
+        if (triangle.anyTrue()) {
+            DoubleVector d = DoubleVector.fromArray(SPECIES, g[6], i);
+            DoubleVector alpha = g2.mul(dx).add(g3.mul(dy)).div(d);
+            DoubleVector beta = DoubleVector.fromArray(SPECIES, g[4], i).mul(dx)
+                    .add(DoubleVector.fromArray(SPECIES, g[5], i).mul(dy)).div(d);
+            DoubleVector gamma = DoubleVector.broadcast(SPECIES, 1.0).sub(alpha).sub(beta);
+            hits = hits.or(triangle.and(alpha.compare(VectorOperators.GE, 0))
+                    .and(beta.compare(VectorOperators.GE, 0))
+                    .and(gamma.compare(VectorOperators.GE, 0)));
+        }
+        return hits.toLong();
+    }
+
+    /**
+     * Gives the shapes from index lo up to hi whose bounds intersect the rectangle from
+     * (x1, y1) to (x2, y2), in order. A row misses the rectangle when one of its bounds is
+     * wholly to one side of it, as in ShapeQuery.
+     * @param store
+     * @param document
+     * @param x1
+     * @param y1
+     * @param x2
+     * @param y2
+     * @param lo
+     * @param hi
+     * @return the shapes intersecting the rectangle.
+     */
+    @Override
+    public List<Drawable> intersecting(PrimitiveStore store, Document document,
+                                       double x1, double y1, double x2, double y2, int lo, int hi) {
+        PrimitiveStore.Columns c = store.columns;
+        List<Drawable> found = new ArrayList<>();
+        int lanes = SPECIES.length();
+        int i = lo;
+        for (; i + lanes <= hi; i += lanes) {
+            VectorMask<Double> misses = DoubleVector.fromArray(SPECIES, c.maxX, i).compare(VectorOperators.LT, x1)
+                    .or(DoubleVector.fromArray(SPECIES, c.minX, i).compare(VectorOperators.GT, x2))
+                    .or(DoubleVector.fromArray(SPECIES, c.maxY, i).compare(VectorOperators.LT, y1))
+                    .or(DoubleVector.fromArray(SPECIES, c.minY, i).compare(VectorOperators.GT, y2));
+            long hits = misses.not().toLong();
+            while (hits != 0) {
+                found.add(document.get(i + Long.numberOfTrailingZeros(hits)));
+                hits &= hits - 1;
+            }
+        }
+        for (; i < hi; i++) {
+            if (!(c.maxX[i] < x1 || c.minX[i] > x2 || c.maxY[i] < y1 || c.minY[i] > y2)) {
+                found.add(document.get(i));
+            }
+        }
+        return found;
+    }
+}